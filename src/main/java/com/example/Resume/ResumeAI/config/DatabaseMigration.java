@@ -1,12 +1,18 @@
 package com.example.Resume.ResumeAI.config;
 
+import com.example.Resume.ResumeAI.service.EmbeddingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * One-time database migration to convert the 'keywords' and 'missing_keywords'
  * columns from PostgreSQL JSON type to TEXT.
@@ -17,22 +23,166 @@ import org.springframework.stereotype.Component;
  *
  * The ALTER TYPE ... USING expression safely casts existing json data to text.
  * Running it again on an already-text column is a harmless no-op.
+ *
+ * It also moves resume_embeddings vectors from the legacy "[x,y,...]" TEXT column
+ * into the compact binary embedding_data column, in id-ordered batches. Rows that
+ * are already binary are skipped, so this is resumable and idempotent as well.
+ *
+ * Finally it backfills resume_embeddings.content_hash for rows written before chunk hashing,
+ * so the first re-index of an old resume can already skip its unchanged chunks.
+ *
+ * Resumes uploaded before background indexing get an index_status: INDEXED when they have
+ * embeddings, PENDING otherwise, so the indexing sweep picks the missing ones up. When
+ * embedding.output-dimensionality changes, resumes whose stored vectors have another length
+ * go back to PENDING as well, so the sweep re-embeds them at the new size.
+ *
+ * resumes.index_version is added here rather than mapped on the entity: only the SQL of
+ * IndexChangeNotifier bumps it, so an entity save can never write back a stale version.
  */
 @Component
 public class DatabaseMigration {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseMigration.class);
 
+    private static final int EMBEDDING_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingService embeddingService;
 
-    public DatabaseMigration(JdbcTemplate jdbcTemplate) {
+    public DatabaseMigration(JdbcTemplate jdbcTemplate, EmbeddingService embeddingService) {
         this.jdbcTemplate = jdbcTemplate;
+        this.embeddingService = embeddingService;
     }
 
+    // Before VectorIndexWarmup, which loads the converted vectors
     @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public void migrateJsonColumnsToText() {
         alterColumnIfJson("resumes", "keywords");
         alterColumnIfJson("resumes", "missing_keywords");
+        dropNotNullIfPresent("resume_embeddings", "embedding_string");
+        migrateEmbeddingsToBinary();
+        backfillContentHashes();
+        backfillIndexStatus();
+        requeueResizedEmbeddings();
+        addIndexVersionColumn();
+    }
+
+    private void addIndexVersionColumn() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE resumes ADD COLUMN IF NOT EXISTS index_version BIGINT NOT NULL DEFAULT 0");
+        } catch (Exception e) {
+            logger.warn("Could not add resumes.index_version: {}", e.getMessage());
+        }
+    }
+
+    private void requeueResizedEmbeddings() {
+        int dimensions = embeddingService.getOutputDimensionality();
+        if (dimensions <= 0) {
+            return;
+        }
+        try {
+            // embedding_data is a format tag byte (1 = float32, 2 = float16) followed by the elements
+            int updated = jdbcTemplate.update(
+                "UPDATE resumes SET index_status = 'PENDING' WHERE index_status <> 'PENDING' AND id IN (" +
+                "SELECT DISTINCT resume_id FROM resume_embeddings WHERE embedding_data IS NOT NULL AND " +
+                "(octet_length(embedding_data) - 1) / (CASE get_byte(embedding_data, 0) WHEN 1 THEN 4 ELSE 2 END) <> ?)",
+                dimensions
+            );
+            if (updated > 0) {
+                logger.info("Queued {} resumes for re-embedding at {} dimensions", updated, dimensions);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not queue resized resume embeddings: {}", e.getMessage());
+        }
+    }
+
+    private void backfillIndexStatus() {
+        try {
+            int updated = jdbcTemplate.update(
+                "UPDATE resumes r SET index_status = CASE WHEN EXISTS " +
+                "(SELECT 1 FROM resume_embeddings e WHERE e.resume_id = r.id) THEN 'INDEXED' ELSE 'PENDING' END " +
+                "WHERE r.index_status IS NULL"
+            );
+            if (updated > 0) {
+                logger.info("Backfilled index status for {} resumes", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not backfill resumes index status: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Same digest as VectorStoreService.contentHash: SHA-256 of section name, '\n', content.
+     */
+    private void backfillContentHashes() {
+        try {
+            int updated = jdbcTemplate.update(
+                "UPDATE resume_embeddings SET content_hash = encode(sha256(convert_to(" +
+                "coalesce(section_name, '') || chr(10) || coalesce(content, ''), 'UTF8')), 'hex') " +
+                "WHERE content_hash IS NULL"
+            );
+            if (updated > 0) {
+                logger.info("Backfilled content hashes for {} resume_embeddings rows", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not backfill resume_embeddings content hashes: {}", e.getMessage());
+        }
+    }
+
+    private void dropNotNullIfPresent(String table, String column) {
+        try {
+            String nullable = jdbcTemplate.queryForObject(
+                "SELECT is_nullable FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                String.class,
+                table, column
+            );
+
+            if ("NO".equalsIgnoreCase(nullable)) {
+                logger.info("Dropping NOT NULL constraint on {}.{}", table, column);
+                jdbcTemplate.execute(String.format("ALTER TABLE %s ALTER COLUMN %s DROP NOT NULL", table, column));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not relax NOT NULL on {}.{}: {}", table, column, e.getMessage());
+        }
+    }
+
+    private void migrateEmbeddingsToBinary() {
+        try {
+            long lastId = 0L;
+            int migrated = 0;
+            while (true) {
+                List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, embedding_string FROM resume_embeddings " +
+                    "WHERE embedding_data IS NULL AND embedding_string IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)},
+                    lastId, EMBEDDING_BATCH_SIZE
+                );
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    float[] vector = embeddingService.parseVector((String) row[1]);
+                    if (vector.length > 0) {
+                        updates.add(new Object[]{embeddingService.encodeVector(vector), row[0]});
+                    }
+                    lastId = (Long) row[0];
+                }
+                jdbcTemplate.batchUpdate(
+                    "UPDATE resume_embeddings SET embedding_data = ?, embedding_string = NULL WHERE id = ?",
+                    updates
+                );
+                migrated += updates.size();
+            }
+
+            if (migrated > 0) {
+                logger.info("Migrated {} resume_embeddings rows from text to binary vectors", migrated);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not migrate resume_embeddings to binary vectors: {}", e.getMessage());
+        }
     }
 
     private void alterColumnIfJson(String table, String column) {
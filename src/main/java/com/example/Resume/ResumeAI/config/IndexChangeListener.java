@@ -0,0 +1,160 @@
+package com.example.Resume.ResumeAI.config;
+
+import com.example.Resume.ResumeAI.service.IndexChangeNotifier;
+import com.example.Resume.ResumeAI.service.VectorStoreService;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Receives the index change events of other instances (see IndexChangeNotifier) and applies
+ * them to the resident index as they arrive.
+ *
+ * LISTEN needs a session of its own for as long as the application runs, so this opens a
+ * dedicated connection rather than holding one of the small Hikari pool's. Notifications sent
+ * while it is disconnected are lost, so every reconnect diffs the index against the table.
+ * An empty wait is followed by a {@code SELECT 1}, which keeps the session from being closed as
+ * idle and detects a dead connection. Any failure, including a resync that cannot reach the
+ * database, drops the connection and retries with backoff; the thread only ends on shutdown.
+ */
+@Component
+public class IndexChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexChangeListener.class);
+
+    private static final long MAX_RECONNECT_BACKOFF_MS = 30_000;
+
+    private final IndexChangeNotifier indexChangeNotifier;
+    private final VectorStoreService vectorStoreService;
+
+    // Highest version applied per resume; older or repeated events are skipped
+    private final Map<Long, Long> appliedVersions = new ConcurrentHashMap<>();
+
+    // How long one wait for notifications lasts before the connection is checked
+    @Value("${vector.index.events.poll-timeout-ms:30000}")
+    private int pollTimeoutMs;
+
+    @Value("${spring.datasource.url:}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+
+    public IndexChangeListener(IndexChangeNotifier indexChangeNotifier, VectorStoreService vectorStoreService) {
+        this.indexChangeNotifier = indexChangeNotifier;
+        this.vectorStoreService = vectorStoreService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!indexChangeNotifier.isEnabled()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listen, "index-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Connection current = connection;
+        if (current != null) {
+            try {
+                // Unblocks a pending wait for notifications
+                current.close();
+            } catch (SQLException e) {
+                logger.debug("Closing the index change listener connection failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(url, username, password)) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + indexChangeNotifier.getChannel());
+                }
+                logger.info("Listening for index changes on channel '{}'", indexChangeNotifier.getChannel());
+                if (reconnecting) {
+                    // Throws if it fails, so the next attempt resyncs again
+                    vectorStoreService.resyncIndex();
+                }
+                backoffMs = 1000;
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs > 0 ? pollTimeoutMs : 30_000);
+                    if (notifications == null || notifications.length == 0) {
+                        try (Statement statement = listening.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Index change listener failed, reconnecting in {} ms: {}", backoffMs, e.getMessage(), e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(MAX_RECONNECT_BACKOFF_MS, backoffMs * 2);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        IndexChangeNotifier.IndexChange change = indexChangeNotifier.decode(payload);
+        if (change == null || indexChangeNotifier.getInstanceId().equals(change.getOrigin())) {
+            // This instance already applied its own change after commit
+            return;
+        }
+        if (change.getVersion() > 0) {
+            Long applied = appliedVersions.get(change.getResumeId());
+            if (applied != null && change.getVersion() <= applied) {
+                return;
+            }
+            appliedVersions.put(change.getResumeId(), change.getVersion());
+        }
+        try {
+            vectorStoreService.applyIndexChange(change);
+        } catch (RuntimeException e) {
+            // The next reconcile or restart repairs whatever this change left out
+            logger.error("Could not apply index change v{} of resume {}: {}",
+                    change.getVersion(), change.getResumeId(), e.getMessage(), e);
+        }
+    }
+}
@@ -49,6 +49,8 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/health", "/api/").permitAll()
+                // Peers authenticate with the shard token, checked by ShardController
+                .requestMatchers("/api/shard/**").permitAll()
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
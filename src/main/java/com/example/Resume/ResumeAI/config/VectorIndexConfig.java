@@ -0,0 +1,88 @@
+package com.example.Resume.ResumeAI.config;
+
+import com.example.Resume.ResumeAI.vector.HnswVectorIndex;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.MappedSegmentVectorIndex;
+import com.example.Resume.ResumeAI.vector.PgVectorIndex;
+import com.example.Resume.ResumeAI.vector.QuantizedVectorIndex;
+import com.example.Resume.ResumeAI.vector.SegmentedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Paths;
+
+/**
+ * Selects the resident vector index implementation via {@code vector.index.type}:
+ *   flat - exact brute-force scan over contiguous float storage (default), snapshotted under
+ *          {@code vector.index.snapshot-dir}
+ *   hnsw - approximate HNSW graph, persisted periodically under {@code vector.index.snapshot-dir}
+ *   int8 - scalar-quantized codes (1 byte per dimension), re-ranked against stored float vectors
+ *   mmap - exact scan over memory-mapped append-only segment files; vectors stay off the Java heap
+ *   segmented - exact scan over sealed in-heap segments plus a mutable tail; searches never wait
+ *          on writers, so latency holds steady through bulk imports and deletes
+ *   pgvector - vectors and the ANN index live in PostgreSQL (pgvector extension); nothing in heap
+ *
+ * With {@code embedding.output-dimensionality} set, on-disk snapshots are kept per vector size,
+ * so changing the size rebuilds the index from the table instead of restoring stale vectors.
+ * Shards likewise keep theirs per shard layout, so instances sharing a host never share a file.
+ */
+@Configuration
+@EnableScheduling
+public class VectorIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorIndexConfig.class);
+
+    @Bean
+    public VectorIndex vectorIndex(@Value("${vector.index.type:flat}") String type,
+                                   @Value("${vector.hnsw.m:16}") int m,
+                                   @Value("${vector.hnsw.ef-construction:200}") int efConstruction,
+                                   @Value("${vector.hnsw.ef-search:64}") int efSearch,
+                                   @Value("${vector.index.snapshot-dir:./vector-index}") String snapshotDir,
+                                   @Value("${vector.quantization.training-size:1000}") int trainingSize,
+                                   @Value("${vector.quantization.rerank-depth:200}") int rerankDepth,
+                                   @Value("${vector.pgvector.dimensions:768}") int pgDimensions,
+                                   @Value("${vector.pgvector.index-method:hnsw}") String pgIndexMethod,
+                                   @Value("${vector.pgvector.ivfflat-lists:100}") int ivfflatLists,
+                                   @Value("${vector.pgvector.ivfflat-probes:10}") int ivfflatProbes,
+                                   @Value("${vector.segments.records-per-segment:4096}") int recordsPerSegment,
+                                   @Value("${vector.segments.compaction-live-ratio:0.5}") double compactionLiveRatio,
+                                   @Value("${embedding.output-dimensionality:0}") int outputDimensionality,
+                                   @Value("${vector.shard.count:1}") int shardCount,
+                                   @Value("${vector.shard.index:0}") int shardIndex,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        String normalized = type == null ? "flat" : type.trim().toLowerCase();
+        String layout = (outputDimensionality > 0 ? "-d" + outputDimensionality : "")
+                + (shardCount > 1 ? "-shard" + shardIndex + "of" + shardCount : "");
+        switch (normalized) {
+            case "hnsw":
+                logger.info("Using HNSW vector index (m={}, efConstruction={}, efSearch={})", m, efConstruction, efSearch);
+                return new HnswVectorIndex(m, efConstruction, efSearch, Paths.get(snapshotDir, "hnsw" + layout + ".bin"));
+            case "int8":
+                logger.info("Using int8 quantized vector index (rerank depth {})", rerankDepth);
+                return new QuantizedVectorIndex(trainingSize, rerankDepth);
+            case "mmap":
+                logger.info("Using memory-mapped segment vector index under {}", snapshotDir);
+                return new MappedSegmentVectorIndex(Paths.get(snapshotDir, "segments" + layout), recordsPerSegment, compactionLiveRatio);
+            case "segmented":
+                logger.info("Using lock-free segmented vector index ({} records per segment)", recordsPerSegment);
+                return new SegmentedVectorIndex(recordsPerSegment, compactionLiveRatio);
+            case "pgvector":
+                logger.info("Using pgvector database-side index (vector({}), {})", pgDimensions, pgIndexMethod);
+                return new PgVectorIndex(jdbcTemplate, transactionManager, pgDimensions, pgIndexMethod,
+                        m, efConstruction, efSearch, ivfflatLists, ivfflatProbes);
+            case "flat":
+                return new InMemoryVectorIndex(Paths.get(snapshotDir, "flat" + layout + ".bin"));
+            default:
+                logger.warn("Unknown vector.index.type '{}', falling back to flat", type);
+                return new InMemoryVectorIndex(Paths.get(snapshotDir, "flat" + layout + ".bin"));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.Resume.ResumeAI.config;
+
+import com.example.Resume.ResumeAI.service.VectorStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the resident vector index in the background once the application is up, instead of on
+ * the first search. The HTTP port is already open, so health checks pass and report "warming"
+ * meanwhile, and searches scan the table until the load finishes. Runs after DatabaseMigration,
+ * so it sees converted vectors.
+ */
+@Component
+public class VectorIndexWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorIndexWarmup.class);
+
+    private final VectorStoreService vectorStoreService;
+
+    public VectorIndexWarmup(VectorStoreService vectorStoreService) {
+        this.vectorStoreService = vectorStoreService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        // False with vector.index.warm-on-startup=false: the first search loads the index
+        if (!vectorStoreService.isIndexWarming()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                vectorStoreService.warmIndex();
+            } catch (Exception e) {
+                // The first search retries the load
+                logger.error("Vector index warm-up failed: {}", e.getMessage(), e);
+            }
+        }, "vector-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
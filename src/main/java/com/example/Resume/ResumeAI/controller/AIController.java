@@ -1,15 +1,27 @@
 package com.example.Resume.ResumeAI.controller;
 
 import com.example.Resume.ResumeAI.entity.Resume;
+import com.example.Resume.ResumeAI.entity.ResumeEmbedding;
+import com.example.Resume.ResumeAI.entity.User;
 import com.example.Resume.ResumeAI.repository.ResumeRepository;
+import com.example.Resume.ResumeAI.repository.UserRepository;
 import com.example.Resume.ResumeAI.service.AIService;
+import com.example.Resume.ResumeAI.service.EmbeddingService;
 import com.example.Resume.ResumeAI.service.GeminiAIService;
+import com.example.Resume.ResumeAI.service.ResumeIndexingQueue;
+import com.example.Resume.ResumeAI.service.ShardCoordinator;
 import com.example.Resume.ResumeAI.service.VectorStoreService;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,15 +36,27 @@ public class AIController {
     private final VectorStoreService vectorStoreService;
     private final ResumeRepository resumeRepository;
     private final GeminiAIService geminiAIService;
+    private final UserRepository userRepository;
+    private final EmbeddingService embeddingService;
+    private final ResumeIndexingQueue indexingQueue;
+    private final ShardCoordinator shardCoordinator;
 
     public AIController(AIService aiService,
                         VectorStoreService vectorStoreService,
                         ResumeRepository resumeRepository,
-                        GeminiAIService geminiAIService) {
+                        GeminiAIService geminiAIService,
+                        UserRepository userRepository,
+                        EmbeddingService embeddingService,
+                        ResumeIndexingQueue indexingQueue,
+                        ShardCoordinator shardCoordinator) {
         this.aiService = aiService;
         this.vectorStoreService = vectorStoreService;
         this.resumeRepository = resumeRepository;
         this.geminiAIService = geminiAIService;
+        this.userRepository = userRepository;
+        this.embeddingService = embeddingService;
+        this.indexingQueue = indexingQueue;
+        this.shardCoordinator = shardCoordinator;
     }
 
     // ─────────────────────────────────────────────────────────────────
@@ -47,7 +71,13 @@ public class AIController {
         Resume resume = resumeRepository.findById(resumeId)
                 .orElseThrow(() -> new RuntimeException("Resume not found with ID " + resumeId));
 
-        vectorStoreService.indexResume(resume);
+        if (!indexingQueue.indexNow(resume)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", "error");
+            error.put("message", "Indexing failed: " + resume.getIndexError());
+            error.put("resumeId", resumeId);
+            return ResponseEntity.internalServerError().body(error);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
@@ -56,19 +86,50 @@ public class AIController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Depth and activity of the background indexing queue.
+     */
+    @GetMapping("/index/queue-stats")
+    public ResponseEntity<?> getIndexQueueStats() {
+        return ResponseEntity.ok(indexingQueue.getStats());
+    }
+
+    /**
+     * Hit/miss counters and occupancy of the query-embedding cache and of the chunk-embedding
+     * cache (in-memory tier plus the embedding_cache table), with the active embedding provider.
+     */
+    @GetMapping("/embeddings/cache-stats")
+    public ResponseEntity<?> getEmbeddingCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", embeddingService.getQueryCacheStats());
+        response.put("chunks", embeddingService.getChunkCacheStats());
+        response.put("provider", embeddingService.getProviderName());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * RAG Coaching query: Answers career questions grounded in the user's resume chunks.
+     * Body: { query, resumeId? } — without resumeId, coaches across all of the signed-in user's resumes.
      */
     @PostMapping("/coaching")
-    public ResponseEntity<?> getCoaching(@RequestBody Map<String, Object> payload) {
-        if (!payload.containsKey("resumeId") || !payload.containsKey("query")) {
-            return ResponseEntity.badRequest().body("Payload must contain both 'resumeId' and 'query'");
+    public ResponseEntity<?> getCoaching(@RequestBody Map<String, Object> payload, Authentication authentication) {
+        if (!payload.containsKey("query")) {
+            return ResponseEntity.badRequest().body("Payload must contain 'query'");
         }
-
-        Long resumeId = Long.valueOf(payload.get("resumeId").toString());
         String query = payload.get("query").toString();
 
-        String advice = aiService.getRAGCoachingResponse(resumeId, query);
+        String advice;
+        if (payload.containsKey("resumeId")) {
+            Long resumeId = Long.valueOf(payload.get("resumeId").toString());
+            advice = aiService.getRAGCoachingResponse(resumeId, query);
+        } else {
+            if (authentication == null) {
+                return ResponseEntity.badRequest().body("Payload must contain 'resumeId' when not signed in");
+            }
+            User user = userRepository.findByEmail(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            advice = aiService.getRAGCoachingResponseForUser(user.getId(), query);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("advice", advice);
@@ -77,6 +138,9 @@ public class AIController {
 
     /**
      * Smart Candidate Matching: Finds top resume sections matching job requirements.
+     * Body: { jobDescription, limit?, exact?, minAtsScore?, maxAtsScore?, sections?, createdAfter?, createdBefore? }
+     * — exact=true forces a brute-force vector scan; the optional filters (sections as a list or
+     * comma-separated string, dates as ISO-8601 local date-times) restrict the candidates before ranking.
      */
     @PostMapping("/match-candidates")
     public ResponseEntity<?> matchCandidates(@RequestBody Map<String, Object> payload) {
@@ -87,11 +151,67 @@ public class AIController {
         String jobDescription = payload.get("jobDescription").toString();
         int limit = payload.containsKey("limit")
                 ? Integer.parseInt(payload.get("limit").toString()) : 5;
+        boolean exact = Boolean.parseBoolean(payload.getOrDefault("exact", "false").toString());
 
-        List<Map<String, Object>> matches = aiService.findMatchingCandidates(jobDescription, limit);
+        List<Map<String, Object>> matches =
+                aiService.findMatchingCandidates(jobDescription, limit, exact, parseSearchFilter(payload));
         return ResponseEntity.ok(matches);
     }
 
+    /**
+     * Semantic chunk search over every resume. With sharding on, this instance coordinates: the
+     * query is embedded once, fanned out to all shards and their top-k lists merged.
+     * Body: { query, limit? }
+     */
+    @PostMapping("/search")
+    public ResponseEntity<?> searchChunks(@RequestBody Map<String, Object> payload) {
+        if (!payload.containsKey("query")) {
+            return ResponseEntity.badRequest().body("Payload must contain 'query'");
+        }
+        int limit = payload.containsKey("limit")
+                ? Integer.parseInt(payload.get("limit").toString()) : 10;
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (ResumeEmbedding chunk : vectorStoreService.searchSimilar(payload.get("query").toString(), limit)) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("resumeId", chunk.getResume().getId());
+            result.put("sectionName", chunk.getSectionName());
+            result.put("content", chunk.getContent());
+            results.add(result);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Shard layout of this instance and how often remote shards failed or missed the deadline.
+     */
+    @GetMapping("/shards")
+    public ResponseEntity<?> getShardStats() {
+        return ResponseEntity.ok(shardCoordinator.getStats());
+    }
+
+    private SearchFilter parseSearchFilter(Map<String, Object> payload) {
+        SearchFilter filter = SearchFilter.none();
+        Integer minAtsScore = payload.containsKey("minAtsScore")
+                ? Integer.valueOf(payload.get("minAtsScore").toString()) : null;
+        Integer maxAtsScore = payload.containsKey("maxAtsScore")
+                ? Integer.valueOf(payload.get("maxAtsScore").toString()) : null;
+        filter = filter.withAtsScoreBetween(minAtsScore, maxAtsScore);
+
+        Object sections = payload.get("sections");
+        if (sections instanceof Collection<?> list) {
+            filter = filter.withSections(list.stream().map(Object::toString).toList());
+        } else if (sections != null) {
+            filter = filter.withSections(Arrays.asList(sections.toString().split(",")));
+        }
+
+        LocalDateTime createdAfter = payload.containsKey("createdAfter")
+                ? LocalDateTime.parse(payload.get("createdAfter").toString()) : null;
+        LocalDateTime createdBefore = payload.containsKey("createdBefore")
+                ? LocalDateTime.parse(payload.get("createdBefore").toString()) : null;
+        return filter.withCreatedBetween(createdAfter, createdBefore);
+    }
+
     // ─────────────────────────────────────────────────────────────────
     //  NEW GEN AI ENDPOINTS
     // ─────────────────────────────────────────────────────────────────
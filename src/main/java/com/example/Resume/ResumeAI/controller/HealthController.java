@@ -1,5 +1,6 @@
 package com.example.Resume.ResumeAI.controller;
 
+import com.example.Resume.ResumeAI.service.VectorStoreService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,11 +13,22 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 public class HealthController {
-    
+
+    private final VectorStoreService vectorStoreService;
+
+    public HealthController(VectorStoreService vectorStoreService) {
+        this.vectorStoreService = vectorStoreService;
+    }
+
+    /**
+     * Status is WARMING (still HTTP 200, so platform health checks pass) until the resident
+     * vector index has loaded, then UP.
+     */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", vectorStoreService.isIndexWarming() ? "WARMING" : "UP");
+        health.put("vectorIndex", vectorStoreService.getIndexStatus());
         health.put("timestamp", LocalDateTime.now());
         health.put("service", "Resume ATS Checker API");
         health.put("version", "1.0.0");
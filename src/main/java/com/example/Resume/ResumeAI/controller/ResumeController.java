@@ -4,6 +4,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -28,6 +29,7 @@ import com.example.Resume.ResumeAI.entity.User;
 import com.example.Resume.ResumeAI.repository.ResumeRepository;
 import com.example.Resume.ResumeAI.repository.UserRepository;
 import com.example.Resume.ResumeAI.service.ATSCheckerService;
+import com.example.Resume.ResumeAI.service.ResumeIndexingQueue;
 import com.example.Resume.ResumeAI.service.ResumeParserService;
 import com.example.Resume.ResumeAI.service.VectorStoreService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +45,7 @@ public class ResumeController {
     private final ResumeParserService parserService;
     private final ATSCheckerService atsCheckerService;
     private final VectorStoreService vectorStoreService;
+    private final ResumeIndexingQueue indexingQueue;
     private final ObjectMapper objectMapper;
     private final String uploadDir = "./uploads";
     
@@ -51,12 +54,14 @@ public class ResumeController {
                            ResumeParserService parserService,
                            ATSCheckerService atsCheckerService,
                            VectorStoreService vectorStoreService,
+                           ResumeIndexingQueue indexingQueue,
                            ObjectMapper objectMapper) {
         this.resumeRepository = resumeRepository;
         this.userRepository = userRepository;
         this.parserService = parserService;
         this.atsCheckerService = atsCheckerService;
         this.vectorStoreService = vectorStoreService;
+        this.indexingQueue = indexingQueue;
         this.objectMapper = objectMapper;
         
         try {
@@ -168,17 +173,14 @@ public class ResumeController {
                 }
             }
             resume.setUser(user);
+            resume.setIndexStatus(Resume.IndexStatus.PENDING);
             
             resumeRepository.save(resume);
             
             logger.info("Resume saved successfully with ID: {}", resume.getId());
             
-            // Generate vectors and index automatically in RAG vector store
-            try {
-                vectorStoreService.indexResume(resume);
-            } catch (Exception e) {
-                logger.error("Failed to auto-index resume {}", resume.getId(), e);
-            }
+            // Generate vectors and index in the RAG vector store in the background
+            indexingQueue.submit(resume);
             
             return ResponseEntity.ok(convertToResponse(resume));
             
@@ -219,6 +221,29 @@ public class ResumeController {
         return ResponseEntity.ok(convertToResponse(resume));
     }
     
+    /**
+     * Progress of the background RAG indexing: PENDING, INDEXED or FAILED (with the last error).
+     */
+    @GetMapping("/{id}/index-status")
+    public ResponseEntity<?> getIndexStatus(@PathVariable Long id, Authentication authentication) {
+        String email = authentication.getName();
+        User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        Resume resume = resumeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Resume not found"));
+        
+        if (!resume.getUser().getId().equals(user.getId())) {
+            return ResponseEntity.status(403).body("Access denied");
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("resumeId", resume.getId());
+        response.put("indexStatus", resume.getIndexStatus() != null ? resume.getIndexStatus().name() : null);
+        response.put("indexError", resume.getIndexError());
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteResume(@PathVariable Long id, Authentication authentication) {
         String email = authentication.getName();
@@ -238,6 +263,7 @@ public class ResumeController {
             logger.error("Error deleting file: {}", resume.getFilePath(), e);
         }
         
+        vectorStoreService.deleteResume(resume.getId());
         resumeRepository.delete(resume);
         
         return ResponseEntity.ok().body("Resume deleted successfully");
@@ -299,6 +325,7 @@ public class ResumeController {
         
         // Pass through the rich ATS details JSON string (parsed on the frontend)
         response.setAtsDetails(resume.getAtsDetails());
+        response.setIndexStatus(resume.getIndexStatus() != null ? resume.getIndexStatus().name() : null);
         
         return response;
     }
@@ -0,0 +1,51 @@
+package com.example.Resume.ResumeAI.controller;
+
+import com.example.Resume.ResumeAI.service.ShardCoordinator;
+import com.example.Resume.ResumeAI.service.VectorStoreService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Shard-to-shard search: answers a peer's scattered query from this instance's partition of
+ * the vector index. Authenticated by the shared {@code vector.shard.token} instead of a user JWT.
+ */
+@RestController
+@RequestMapping("/api/shard")
+public class ShardController {
+
+    private final VectorStoreService vectorStoreService;
+    private final ShardCoordinator shardCoordinator;
+
+    public ShardController(VectorStoreService vectorStoreService, ShardCoordinator shardCoordinator) {
+        this.vectorStoreService = vectorStoreService;
+        this.shardCoordinator = shardCoordinator;
+    }
+
+    /**
+     * Body: { vector, limit, exact?, grouped?, filter? } — see {@link ShardCoordinator.ShardQuery}.
+     * Returns { shard, hits } with chunk hits, or per-resume hits when grouped.
+     */
+    @PostMapping("/search")
+    public ResponseEntity<?> search(@RequestHeader(value = ShardCoordinator.TOKEN_HEADER, required = false) String token,
+                                    @RequestBody JsonNode body) {
+        if (!shardCoordinator.isEnabled() || !shardCoordinator.isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ShardCoordinator.ShardQuery query = ShardCoordinator.ShardQuery.fromJson(body);
+        if (query.getVector().length == 0 || query.getLimit() <= 0) {
+            return ResponseEntity.badRequest().body("Query must contain a vector and a positive limit");
+        }
+        if (query.isGrouped()) {
+            return ResponseEntity.ok(shardCoordinator.encodeResumeHits(vectorStoreService.searchShardResumes(
+                    query.getVector(), query.getLimit(), query.isExact(), query.getFilter())));
+        }
+        return ResponseEntity.ok(shardCoordinator.encodeChunkHits(vectorStoreService.searchShardChunks(
+                query.getVector(), query.getLimit(), query.isExact(), query.getFilter())));
+    }
+}
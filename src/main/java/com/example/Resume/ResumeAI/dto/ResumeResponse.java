@@ -38,6 +38,9 @@ public class ResumeResponse {
     // Raw JSON string of the deep ATS category breakdown from Gemini
     private String atsDetails;
 
+    // PENDING, INDEXED or FAILED; null for resumes uploaded before background indexing
+    private String indexStatus;
+
     // Constructors
     
     public ResumeResponse() {
@@ -194,4 +197,12 @@ public class ResumeResponse {
     public void setAtsDetails(String atsDetails) {
         this.atsDetails = atsDetails;
     }
+
+    public String getIndexStatus() {
+        return indexStatus;
+    }
+
+    public void setIndexStatus(String indexStatus) {
+        this.indexStatus = indexStatus;
+    }
 }
\ No newline at end of file
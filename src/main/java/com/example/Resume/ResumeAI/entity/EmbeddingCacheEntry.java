@@ -0,0 +1,69 @@
+package com.example.Resume.ResumeAI.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * Content-addressed embedding: one row per (embedding model, SHA-256 of the normalized text),
+ * shared by every resume and user whose chunk has that text.
+ */
+@Entity
+@Table(name = "embedding_cache",
+       uniqueConstraints = @UniqueConstraint(name = "uk_embedding_cache_model_hash", columnNames = {"model", "content_hash"}))
+public class EmbeddingCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    // Hex SHA-256 of the NFKC-normalized, whitespace-collapsed text (EmbeddingCache.textHash)
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Little-endian binary vector, see VectorCodec for the layout
+    @Column(columnDefinition = "BYTEA", nullable = false)
+    private byte[] embeddingData;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    public EmbeddingCacheEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public byte[] getEmbeddingData() {
+        return embeddingData;
+    }
+
+    public void setEmbeddingData(byte[] embeddingData) {
+        this.embeddingData = embeddingData;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -61,6 +61,20 @@ public class Resume {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // Progress of the background RAG indexing of this resume
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private IndexStatus indexStatus;
+
+    @Column(length = 500)
+    private String indexError;
+
+    public enum IndexStatus {
+        PENDING,
+        INDEXED,
+        FAILED
+    }
+
     // Constructors
     
     public Resume() {
@@ -242,4 +256,20 @@ public class Resume {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public IndexStatus getIndexStatus() {
+        return indexStatus;
+    }
+
+    public void setIndexStatus(IndexStatus indexStatus) {
+        this.indexStatus = indexStatus;
+    }
+
+    public String getIndexError() {
+        return indexError;
+    }
+
+    public void setIndexError(String indexError) {
+        this.indexError = indexError;
+    }
 }
\ No newline at end of file
@@ -22,9 +22,24 @@ public class ResumeEmbedding {
     @Column(nullable = false)
     private String sectionName;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Legacy "[x,y,...]" text form; superseded by embeddingData and nulled out by DatabaseMigration
+    @Column(columnDefinition = "TEXT")
     private String embeddingString;
 
+    // Little-endian binary vector, see VectorCodec for the layout
+    @Column(columnDefinition = "BYTEA")
+    private byte[] embeddingData;
+
+    // Hex SHA-256 of section name and content; re-indexing keeps rows whose hash is unchanged
+    @Column(length = 64)
+    private String contentHash;
+
+    // Source of the vector (see EmbeddingService.getVectorModel); re-indexing replaces rows from
+    // another source, e.g. fallback vectors once the API is back. Null on rows from before it
+    // was recorded, which are kept as they are.
+    @Column(length = 128)
+    private String embeddingModel;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -39,6 +54,13 @@ public class ResumeEmbedding {
         this.embeddingString = embeddingString;
     }
 
+    public ResumeEmbedding(Resume resume, String content, String sectionName, byte[] embeddingData) {
+        this.resume = resume;
+        this.content = content;
+        this.sectionName = sectionName;
+        this.embeddingData = embeddingData;
+    }
+
     public Long getId() {
         return id;
     }
@@ -79,6 +101,30 @@ public class ResumeEmbedding {
         this.embeddingString = embeddingString;
     }
 
+    public byte[] getEmbeddingData() {
+        return embeddingData;
+    }
+
+    public void setEmbeddingData(byte[] embeddingData) {
+        this.embeddingData = embeddingData;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getEmbeddingModel() {
+        return embeddingModel;
+    }
+
+    public void setEmbeddingModel(String embeddingModel) {
+        this.embeddingModel = embeddingModel;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,32 @@
+package com.example.Resume.ResumeAI.repository;
+
+import com.example.Resume.ResumeAI.entity.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, Long> {
+
+    /**
+     * (content hash, vector bytes) of the cached embeddings among {@code hashes}.
+     */
+    @Query("SELECT e.contentHash, e.embeddingData FROM EmbeddingCacheEntry e WHERE e.model = :model AND e.contentHash IN :hashes")
+    List<Object[]> findVectors(@Param("model") String model, @Param("hashes") Collection<String> hashes);
+
+    /**
+     * Inserts unless another indexer already stored the same (model, hash).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO embedding_cache (model, content_hash, embedding_data, created_at) " +
+                   "VALUES (:model, :hash, :data, now()) ON CONFLICT (model, content_hash) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("model") String model, @Param("hash") String hash, @Param("data") byte[] data);
+}
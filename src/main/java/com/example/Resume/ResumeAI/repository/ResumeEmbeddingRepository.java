@@ -1,14 +1,19 @@
 package com.example.Resume.ResumeAI.repository;
 
 import com.example.Resume.ResumeAI.entity.ResumeEmbedding;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ResumeEmbeddingRepository extends JpaRepository<ResumeEmbedding, Long> {
@@ -16,6 +21,72 @@ public interface ResumeEmbeddingRepository extends JpaRepository<ResumeEmbedding
     @Query("SELECT re FROM ResumeEmbedding re WHERE re.resume.id = :resumeId")
     List<ResumeEmbedding> findByResumeId(@Param("resumeId") Long resumeId);
 
+    /**
+     * (embedding id, resume id) pairs for every stored chunk, without loading the vectors.
+     */
+    @Query("SELECT re.id, re.resume.id FROM ResumeEmbedding re")
+    List<Object[]> findAllIdPairs();
+
+    /**
+     * (embedding id, binary vector, legacy text vector) for the given chunks, without their content.
+     */
+    @Query("SELECT re.id, re.embeddingData, re.embeddingString FROM ResumeEmbedding re WHERE re.id IN :ids")
+    List<Object[]> findVectorsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * (embedding id, resume id, binary vector, legacy text vector, user id, ATS score, section
+     * name, resume created-at) for every stored chunk, read through a server-side cursor in pages
+     * of 500 rows. Rows are scalar projections, so nothing is attached to the persistence context.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT re.id, r.id, re.embeddingData, re.embeddingString, r.user.id, r.atsScore, re.sectionName, r.createdAt " +
+           "FROM ResumeEmbedding re JOIN re.resume r")
+    Stream<Object[]> streamAllVectors();
+
+    /**
+     * Same rows as {@link #streamAllVectors()} for chunks with an id above {@code watermark},
+     * i.e. written after an index snapshot was taken.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT re.id, r.id, re.embeddingData, re.embeddingString, r.user.id, r.atsScore, re.sectionName, r.createdAt " +
+           "FROM ResumeEmbedding re JOIN re.resume r WHERE re.id > :watermark")
+    Stream<Object[]> streamVectorsAfter(@Param("watermark") long watermark);
+
+    /**
+     * Single row of (count, sum) over the ids of chunks at or below {@code watermark}: a cheap
+     * fingerprint of that id set to compare against a restored snapshot.
+     */
+    @Query("SELECT COUNT(re.id), COALESCE(SUM(re.id), 0) FROM ResumeEmbedding re WHERE re.id <= :watermark")
+    List<Object[]> countAndSumIdsUpTo(@Param("watermark") long watermark);
+
+    /**
+     * Same rows as {@link #streamAllVectors()}, restricted to the resumes of one user.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT re.id, r.id, re.embeddingData, re.embeddingString, r.user.id, r.atsScore, re.sectionName, r.createdAt " +
+           "FROM ResumeEmbedding re JOIN re.resume r WHERE r.user.id = :userId")
+    Stream<Object[]> streamVectorsByUserId(@Param("userId") Long userId);
+
+    /**
+     * (embedding id, resume id, content) for every stored chunk, streamed like {@link #streamAllVectors()}.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT re.id, re.resume.id, re.content FROM ResumeEmbedding re")
+    Stream<Object[]> streamAllContent();
+
     @Modifying
     @Transactional
     @Query("DELETE FROM ResumeEmbedding re WHERE re.resume.id = :resumeId")
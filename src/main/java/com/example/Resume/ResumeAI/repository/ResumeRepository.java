@@ -2,8 +2,13 @@ package com.example.Resume.ResumeAI.repository;
 
 import com.example.Resume.ResumeAI.entity.Resume;
 import com.example.Resume.ResumeAI.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,4 +18,16 @@ public interface ResumeRepository extends JpaRepository<Resume, Long> {
     List<Resume> findByUserOrderByCreatedAtDesc(User user);
     
     List<Resume> findByUser(User user);
+
+    @Query("SELECT r.id FROM Resume r WHERE r.indexStatus = :status ORDER BY r.id")
+    List<Long> findIdsByIndexStatus(@Param("status") Resume.IndexStatus status, Pageable pageable);
+
+    /**
+     * Writes only the indexing columns, so a background worker never overwrites other fields
+     * with a stale copy of the resume.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Resume r SET r.indexStatus = :status, r.indexError = :error WHERE r.id = :id")
+    int updateIndexStatus(@Param("id") Long id, @Param("status") Resume.IndexStatus status, @Param("error") String error);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.Resume.ResumeAI.service;
 import com.example.Resume.ResumeAI.entity.Resume;
 import com.example.Resume.ResumeAI.entity.ResumeEmbedding;
 import com.example.Resume.ResumeAI.repository.ResumeRepository;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -61,7 +62,32 @@ public class AIService {
             }
         }
 
-        // 3. Assemble the RAG prompt
+        // 3. Assemble the prompt and generate coaching feedback
+        return generateCoachingAdvice(contextBuilder.toString(), userQuery);
+    }
+
+    /**
+     * RAG coaching across every resume the user has uploaded: retrieves the most relevant chunks
+     * from the user's partition of the vector index rather than from a single resume.
+     */
+    public String getRAGCoachingResponseForUser(Long userId, String userQuery) {
+        logger.info("Performing RAG Coaching Query across resumes of user ID: {}, Query: '{}'", userId, userQuery);
+
+        List<ResumeEmbedding> matchingChunks = vectorStoreService.searchSimilarForUser(userId, userQuery, 5);
+        if (matchingChunks.isEmpty()) {
+            return "Error: No indexed resumes found for user " + userId + ".";
+        }
+
+        StringBuilder contextBuilder = new StringBuilder("Retrieved Candidate Profile Context:\n");
+        for (ResumeEmbedding chunk : matchingChunks) {
+            contextBuilder.append("--- [Section: ").append(chunk.getSectionName()).append("] ---\n")
+                          .append(chunk.getContent()).append("\n\n");
+        }
+        return generateCoachingAdvice(contextBuilder.toString(), userQuery);
+    }
+
+    private String generateCoachingAdvice(String context, String userQuery) {
+        // Assemble the RAG prompt
         String ragPrompt = String.format(
             "Based ON the provided resume segments, answer the candidate's career query. " +
             "Reference specific experiences or skills from the context when explaining your suggestions. " +
@@ -71,10 +97,10 @@ public class AIService {
             "--- CONTEXT END ---\n\n" +
             "Candidate Query: %s\n\n" +
             "Actionable Advice:",
-            contextBuilder.toString(), userQuery
+            context, userQuery
         );
 
-        // 4. Generate coaching feedback via the Gemini LLM
+        // Generate coaching feedback via the Gemini LLM
         return geminiAIService.generateContentSuggestions(
             ragPrompt, 
             "You are a professional executive career development coach and ATS optimization specialist."
@@ -87,28 +113,47 @@ public class AIService {
      * and compiles matching highlights.
      */
     public List<Map<String, Object>> findMatchingCandidates(String jobDescription, int maxCandidates) {
-        logger.info("Matching candidates for job requirements: '{}'", truncate(jobDescription, 50));
+        return findMatchingCandidates(jobDescription, maxCandidates, false);
+    }
+
+    /**
+     * Same as {@link #findMatchingCandidates(String, int)}; {@code exactSearch} bypasses an approximate
+     * vector index in favour of a brute-force scan so the two rankings can be compared.
+     */
+    public List<Map<String, Object>> findMatchingCandidates(String jobDescription, int maxCandidates, boolean exactSearch) {
+        return findMatchingCandidates(jobDescription, maxCandidates, exactSearch, SearchFilter.none());
+    }
+
+    /**
+     * Candidate matching restricted to resumes/sections matching {@code filter} (ATS score range,
+     * sections, upload window), applied before ranking so {@code maxCandidates} matches come back
+     * whenever that many qualify.
+     */
+    public List<Map<String, Object>> findMatchingCandidates(String jobDescription, int maxCandidates,
+                                                            boolean exactSearch, SearchFilter filter) {
+        logger.info("Matching candidates for job requirements: '{}' ({})", truncate(jobDescription, 50), filter);
+
+        // 1. Fetch the top distinct resumes, each with its best-matching chunk
+        List<VectorStoreService.ResumeMatch> matches =
+                vectorStoreService.searchSimilarResumes(jobDescription, maxCandidates, exactSearch, filter);
 
-        // 1. Fetch overall matching vector embeddings
-        List<ResumeEmbedding> similarChunks = vectorStoreService.searchSimilar(jobDescription, maxCandidates * 2);
-        
         List<Map<String, Object>> recommendations = new ArrayList<>();
-        List<Long> addedResumeIds = new ArrayList<>();
 
-        for (ResumeEmbedding chunk : similarChunks) {
+        for (VectorStoreService.ResumeMatch match : matches) {
+            ResumeEmbedding chunk = match.getBestChunk();
             Resume resume = chunk.getResume();
-            if (resume == null || addedResumeIds.contains(resume.getId())) {
+            if (resume == null) {
                 continue;
             }
 
-            addedResumeIds.add(resume.getId());
-
             Map<String, Object> candidateMatch = new HashMap<>();
             candidateMatch.put("resumeId", resume.getId());
             candidateMatch.put("fileName", resume.getFileName());
             candidateMatch.put("atsScore", resume.getAtsScore());
             candidateMatch.put("relevantSection", chunk.getSectionName());
             candidateMatch.put("snippet", truncate(chunk.getContent(), 250));
+            candidateMatch.put("similarity", match.getMaxScore());
+            candidateMatch.put("meanSimilarity", match.getMeanScore());
 
             // Generate a rapid explanation of why this chunk matches the job requirements
             String explanationPrompt = String.format(
@@ -0,0 +1,189 @@
+package com.example.Resume.ResumeAI.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of embedding vectors with a time-to-live, keyed by (model, hash of the
+ * normalized text). Vectors are stored as primitive float arrays and copied on the way in and
+ * out, so callers may modify what they get back.
+ *
+ * Entries past their TTL are dropped when they are read and before any insert evicts a live
+ * entry. Past {@code maxEntries} the least recently used entry goes.
+ */
+public class EmbeddingCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public EmbeddingCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    public EmbeddingCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Cache key for {@code text} embedded by {@code model}. Text is NFKC-normalized and its
+     * whitespace collapsed, so re-pasted job descriptions hit the same entry; case is kept
+     * because embedding models are case-sensitive.
+     */
+    public static String key(String model, String text) {
+        return model + ":" + textHash(text);
+    }
+
+    /**
+     * Hex SHA-256 of the normalized text; the model-independent half of {@link #key}.
+     */
+    public static String textHash(String text) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFKC))
+                .replaceAll(" ")
+                .trim();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A copy of the cached vector, or null on a miss (including expired entries).
+     */
+    public float[] get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && isExpired(entry, nanoClock.getAsLong())) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.vector.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            entries.put(key, new Entry(vector.clone(), now));
+            if (entries.size() > maxEntries) {
+                purgeExpired(now);
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Hit/miss counters, evictions by size and by TTL, and current occupancy.
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).getSeconds());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    // Caller must hold the lock.
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next(), now)) {
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAtNanos >= ttlNanos;
+    }
+
+    private static final class Entry {
+        final float[] vector;
+        final long createdAtNanos;
+
+        Entry(float[] vector, long createdAtNanos) {
+            this.vector = vector;
+            this.createdAtNanos = createdAtNanos;
+        }
+    }
+}
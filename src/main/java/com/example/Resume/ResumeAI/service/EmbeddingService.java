@@ -1,24 +1,49 @@
 package com.example.Resume.ResumeAI.service;
 
+import com.example.Resume.ResumeAI.repository.EmbeddingCacheRepository;
+import com.example.Resume.ResumeAI.vector.VectorCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 @Service
 public class EmbeddingService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmbeddingService.class);
 
+    // batchEmbedContents accepts at most 100 requests per call
+    private static final int MAX_BATCH_SIZE = 100;
+
+    // Length of the deterministic fallback vectors when no output dimensionality is configured
+    private static final int DEFAULT_DIMENSIONS = 768;
+
     @Value("${gemini.api.key:#{null}}")
     private String apiKey;
 
@@ -28,31 +53,509 @@ public class EmbeddingService {
     @Value("${gemini.embeddings.model:text-embedding-004}")
     private String embeddingsModel;
 
+    // gemini: embed through the API; local: hashed n-gram vectors, no network calls at all
+    @Value("${embedding.provider:gemini}")
+    private String provider;
+
+    // Vectors used when the API is unconfigured or fails: local (hashed n-grams) or random (seeded noise)
+    @Value("${embedding.fallback:local}")
+    private String fallback;
+
+    private volatile HashingEmbedder localEmbedder;
+
+    // Requested vector length (e.g. 768 -> 256); 0 keeps the model's default size
+    @Value("${embedding.output-dimensionality:0}")
+    private int outputDimensionality;
+
+    // float32 (exact) or float16 (half the bytes, ~3 significant digits) for stored vectors
+    @Value("${vector.storage.format:float32}")
+    private String storageFormat;
+
+    // Query-embedding cache; 0 entries disables it
+    @Value("${embedding.query-cache.max-entries:2000}")
+    private int queryCacheMaxEntries;
+
+    @Value("${embedding.query-cache.ttl-seconds:3600}")
+    private long queryCacheTtlSeconds;
+
+    private EmbeddingCache queryCache;
+
+    // Chunk embeddings: in-memory front tier over the content-addressed embedding_cache table
+    @Value("${embedding.chunk-cache.max-entries:10000}")
+    private int chunkCacheMaxEntries;
+
+    @Value("${embedding.chunk-cache.ttl-seconds:86400}")
+    private long chunkCacheTtlSeconds;
+
+    @Value("${embedding.persistent-cache.enabled:true}")
+    private boolean persistentCacheEnabled;
+
+    private EmbeddingCache chunkCache;
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder apiEmbedded = new LongAdder();
+
+    @Value("${embedding.batch.max-size:100}")
+    private int batchMaxSize;
+
+    // batch: one batchEmbedContents call per batch; concurrent: one embedContent call per text
+    @Value("${embedding.indexing.mode:batch}")
+    private String indexingMode;
+
+    // Embedding requests in flight at once, across all indexing callers
+    @Value("${embedding.concurrency:4}")
+    private int concurrency;
+
+    // Per-request deadline (connect + write + server time + read); 0 keeps only the client timeouts
+    @Value("${embedding.request-timeout-ms:20000}")
+    private long requestTimeoutMs;
+
+    private ExecutorService embeddingExecutor;
+
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    // Cache statements run in a transaction of their own, never in the caller's indexing one
+    private final TransactionTemplate cacheTransaction;
 
     public EmbeddingService(ObjectMapper objectMapper) {
+        this(objectMapper, null, null);
+    }
+
+    @Autowired
+    public EmbeddingService(ObjectMapper objectMapper, EmbeddingCacheRepository embeddingCacheRepository,
+                            PlatformTransactionManager transactionManager) {
         this.objectMapper = objectMapper;
+        this.embeddingCacheRepository = embeddingCacheRepository;
+        if (transactionManager != null) {
+            this.cacheTransaction = new TransactionTemplate(transactionManager);
+            this.cacheTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        } else {
+            this.cacheTransaction = null;
+        }
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(15, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .build();
     }
 
+    @PostConstruct
+    void initQueryCache() {
+        if (queryCacheMaxEntries > 0 && queryCacheTtlSeconds > 0) {
+            queryCache = new EmbeddingCache(queryCacheMaxEntries, Duration.ofSeconds(queryCacheTtlSeconds));
+        }
+        if (chunkCacheMaxEntries > 0 && chunkCacheTtlSeconds > 0) {
+            chunkCache = new EmbeddingCache(chunkCacheMaxEntries, Duration.ofSeconds(chunkCacheTtlSeconds));
+        }
+    }
+
+    @PostConstruct
+    void initEmbeddingExecutor() {
+        if (concurrency > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            embeddingExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "embedding-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdownEmbeddingExecutor() {
+        if (embeddingExecutor != null) {
+            embeddingExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Generates a vector embedding for the given text.
-     * If the API fails or is unconfigured, falls back to a deterministic mock vector.
+     * If the API fails or is unconfigured, falls back to a deterministic local vector.
      */
     public List<Double> generateEmbedding(String text) {
         if (text == null || text.trim().isEmpty()) {
-            return generateFallbackVector("", 768);
+            return generateFallbackVector("", fallbackDimensions());
+        }
+
+        if (!isApiConfigured()) {
+            if (!isLocalProvider()) {
+                logger.warn("Gemini API key not configured. Using deterministic fallback embeddings.");
+            }
+            return generateFallbackVector(text, fallbackDimensions());
+        }
+
+        List<Double> values = requestEmbedding(text);
+        return values != null ? values : generateFallbackVector(text, fallbackDimensions());
+    }
+
+    /**
+     * Embeds {@code texts} and returns the vectors in input order.
+     *
+     * Each text is first looked up by (model, SHA-256 of its normalized form) in the in-memory
+     * chunk cache and then in the embedding_cache table, so a chunk that any user has uploaded
+     * before costs no API call, across restarts too. The rest are embedded once per distinct
+     * text: in batch mode each {@code embedding.batch.max-size} texts go in one
+     * batchEmbedContents call; in concurrent mode every text is its own embedContent call. The
+     * calls fan out over a pool of {@code embedding.concurrency} threads shared by all callers,
+     * so bulk re-indexing keeps that many requests in flight and no more. Items a batch could not
+     * embed are retried one by one through embedContent, and anything that still fails or times
+     * out gets the deterministic fallback vector, which is never cached.
+     */
+    public List<float[]> generateVectors(List<String> texts) {
+        return embedTexts(texts, true);
+    }
+
+    /**
+     * Like {@link #generateVectors(List)}, but for vectors that are stored: when the API is
+     * configured and a text still has no API vector after the retries, this throws instead of
+     * substituting a fallback vector from another vector space, so the indexing transaction
+     * rolls back and the indexing queue retries it later. Every vector returned comes from
+     * {@link #getVectorModel()}.
+     */
+    public List<float[]> generateIndexVectors(List<String> texts) {
+        return embedTexts(texts, false);
+    }
+
+    /**
+     * Identifies where vectors come from right now: the API model (with its output size), the
+     * local provider, or the fallback used while no API key is configured. Stored with each
+     * chunk, so re-indexing can tell which stored vectors are outdated.
+     */
+    public String getVectorModel() {
+        if (isApiConfigured()) {
+            return cacheModel();
+        }
+        String embedder = "random".equalsIgnoreCase(fallback) ? "random" : "local";
+        return (isLocalProvider() ? "local" : "fallback-" + embedder) + "@" + fallbackDimensions();
+    }
+
+    private List<float[]> embedTexts(List<String> texts, boolean fallbackOnFailure) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        if (!isApiConfigured()) {
+            if (!texts.isEmpty() && !isLocalProvider()) {
+                logger.warn("Gemini API key not configured. Using deterministic fallback embeddings.");
+            }
+            vectors.addAll(fallbackVectors(texts));
+            return vectors;
+        }
+
+        // Distinct non-blank texts by hash; duplicates within one call are embedded once
+        Map<String, String> textByHash = new LinkedHashMap<>();
+        String[] hashes = new String[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text != null && !text.trim().isEmpty()) {
+                hashes[i] = EmbeddingCache.textHash(text);
+                textByHash.putIfAbsent(hashes[i], text);
+            }
+        }
+        Map<String, float[]> vectorByHash = findCachedVectors(textByHash.keySet());
+
+        List<String> missingHashes = new ArrayList<>();
+        List<String> missingTexts = new ArrayList<>();
+        for (Map.Entry<String, String> entry : textByHash.entrySet()) {
+            if (!vectorByHash.containsKey(entry.getKey())) {
+                missingHashes.add(entry.getKey());
+                missingTexts.add(entry.getValue());
+            }
+        }
+        if (!missingTexts.isEmpty()) {
+            List<float[]> embedded = requestVectors(missingTexts);
+            Map<String, float[]> newVectors = new LinkedHashMap<>();
+            for (int i = 0; i < missingTexts.size(); i++) {
+                if (embedded.get(i) != null) {
+                    newVectors.put(missingHashes.get(i), embedded.get(i));
+                }
+            }
+            vectorByHash.putAll(newVectors);
+            cacheVectors(newVectors);
+        }
+
+        if (!fallbackOnFailure) {
+            int failed = textByHash.size() - vectorByHash.size();
+            if (failed > 0) {
+                throw new IllegalStateException("Embedding API returned no vector for " + failed + " of "
+                        + textByHash.size() + " texts");
+            }
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            float[] vector = hashes[i] != null ? vectorByHash.get(hashes[i]) : null;
+            if (vector != null) {
+                // Duplicate texts must not share one array
+                vectors.add(vector.clone());
+            } else {
+                vectors.add(toFloatArray(generateFallbackVector(texts.get(i) == null ? "" : texts.get(i), fallbackDimensions())));
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * Chunk-cache metrics: in-memory hits and misses, hits served from the embedding_cache table,
+     * and texts that had to go to the API.
+     */
+    public Map<String, Object> getChunkCacheStats() {
+        Map<String, Object> stats = chunkCache != null ? chunkCache.stats() : new HashMap<>();
+        stats.put("enabled", chunkCache != null);
+        stats.put("persistent", isPersistentCacheEnabled());
+        stats.put("persistentHits", persistentHits.sum());
+        stats.put("apiEmbedded", apiEmbedded.sum());
+        return stats;
+    }
+
+    private boolean isPersistentCacheEnabled() {
+        return persistentCacheEnabled && embeddingCacheRepository != null;
+    }
+
+    private Map<String, float[]> findCachedVectors(Collection<String> hashes) {
+        Map<String, float[]> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        for (String hash : hashes) {
+            float[] vector = chunkCache != null ? chunkCache.get(cacheModel() + ":" + hash) : null;
+            if (vector != null) {
+                found.put(hash, vector);
+            } else {
+                remaining.add(hash);
+            }
+        }
+        if (remaining.isEmpty() || !isPersistentCacheEnabled()) {
+            return found;
+        }
+        try {
+            List<Object[]> rows = inCacheTransaction(() -> embeddingCacheRepository.findVectors(cacheModel(), remaining));
+            for (Object[] row : rows) {
+                float[] vector = decodeVector((byte[]) row[1]);
+                if (vector.length > 0) {
+                    String hash = (String) row[0];
+                    found.put(hash, vector);
+                    persistentHits.increment();
+                    if (chunkCache != null) {
+                        chunkCache.put(cacheModel() + ":" + hash, vector);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Embedding cache lookup failed; embedding {} texts through the API: {}", remaining.size(), e.getMessage());
+        }
+        return found;
+    }
+
+    private void cacheVectors(Map<String, float[]> vectorByHash) {
+        if (chunkCache != null) {
+            vectorByHash.forEach((hash, vector) -> chunkCache.put(cacheModel() + ":" + hash, vector));
+        }
+        if (vectorByHash.isEmpty() || !isPersistentCacheEnabled()) {
+            return;
+        }
+        try {
+            inCacheTransaction(() -> {
+                vectorByHash.forEach((hash, vector) ->
+                        embeddingCacheRepository.insertIfAbsent(cacheModel(), hash, encodeVector(vector)));
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Could not store {} embeddings in the cache table: {}", vectorByHash.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * A failed cache statement must not abort the caller's transaction: PostgreSQL rejects every
+     * later statement of an aborted transaction, and Spring would mark it rollback-only, losing
+     * the chunks being indexed. Running it in its own transaction confines the failure there.
+     */
+    private <T> T inCacheTransaction(Supplier<T> work) {
+        return cacheTransaction != null ? cacheTransaction.execute(status -> work.get()) : work.get();
+    }
+
+    /**
+     * API vectors for {@code texts} in input order; null where every attempt failed.
+     */
+    private List<float[]> requestVectors(List<String> texts) {
+        apiEmbedded.add(texts.size());
+        boolean concurrentMode = "concurrent".equalsIgnoreCase(indexingMode);
+        int unitSize = concurrentMode ? 1 : (batchMaxSize > 0 ? Math.min(batchMaxSize, MAX_BATCH_SIZE) : MAX_BATCH_SIZE);
+        List<List<String>> units = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += unitSize) {
+            units.add(texts.subList(start, Math.min(start + unitSize, texts.size())));
+        }
+
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        // A single unit runs on the caller's thread; there is nothing to overlap it with
+        if (embeddingExecutor == null || units.size() < 2) {
+            for (List<String> unit : units) {
+                vectors.addAll(embedUnit(unit, concurrentMode));
+            }
+            return vectors;
+        }
+
+        List<Future<List<float[]>>> futures = new ArrayList<>(units.size());
+        for (List<String> unit : units) {
+            futures.add(embeddingExecutor.submit(() -> embedUnit(unit, concurrentMode)));
+        }
+        for (int i = 0; i < units.size(); i++) {
+            try {
+                vectors.addAll(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int j = i; j < units.size(); j++) {
+                    futures.get(j).cancel(true);
+                    vectors.addAll(Collections.nCopies(units.get(j).size(), (float[]) null));
+                }
+                return vectors;
+            } catch (ExecutionException e) {
+                logger.error("Embedding task failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                vectors.addAll(Collections.nCopies(units.get(i).size(), (float[]) null));
+            }
+        }
+        return vectors;
+    }
+
+    private List<float[]> embedUnit(List<String> unit, boolean single) {
+        List<float[]> vectors = new ArrayList<>(unit.size());
+        if (single) {
+            for (String text : unit) {
+                vectors.add(requestVector(text));
+            }
+            return vectors;
+        }
+        List<List<Double>> embedded = requestBatchEmbeddings(unit);
+        int missing = 0;
+        for (int i = 0; i < unit.size(); i++) {
+            List<Double> values = embedded != null ? embedded.get(i) : null;
+            if (values == null) {
+                missing++;
+                vectors.add(requestVector(unit.get(i)));
+            } else {
+                vectors.add(toFloatArray(values));
+            }
+        }
+        if (missing > 0) {
+            logger.warn("Batch embedding returned {} of {} vectors; embedded the rest one by one.",
+                    unit.size() - missing, unit.size());
+        }
+        return vectors;
+    }
+
+    private float[] requestVector(String text) {
+        List<Double> values = requestEmbedding(text);
+        return values != null ? toFloatArray(values) : null;
+    }
+
+    private List<float[]> fallbackVectors(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(toFloatArray(generateFallbackVector(text == null ? "" : text, fallbackDimensions())));
+        }
+        return vectors;
+    }
+
+    /**
+     * Embedding of a search query (job description, coaching question). Results from the API are
+     * cached by (model, normalized text) so repeated queries skip the round trip; fallback vectors
+     * are never cached, so an API outage does not outlive itself in the cache.
+     */
+    public float[] generateQueryVector(String text) {
+        if (queryCache == null || text == null || text.trim().isEmpty() || !isApiConfigured()) {
+            return generateVector(text);
+        }
+        String key = EmbeddingCache.key(cacheModel(), text);
+        float[] cached = queryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<Double> values = requestEmbedding(text);
+        if (values == null) {
+            return toFloatArray(generateFallbackVector(text, fallbackDimensions()));
+        }
+        float[] vector = toFloatArray(values);
+        queryCache.put(key, vector);
+        return vector;
+    }
+
+    /**
+     * Query-cache metrics, or just {@code enabled=false} when the cache is off.
+     */
+    public Map<String, Object> getQueryCacheStats() {
+        if (queryCache == null) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("enabled", false);
+            return stats;
+        }
+        Map<String, Object> stats = queryCache.stats();
+        stats.put("enabled", true);
+        return stats;
+    }
+
+    /**
+     * Configured output dimensionality, or 0 when vectors keep the model's default size.
+     */
+    public int getOutputDimensionality() {
+        return Math.max(0, outputDimensionality);
+    }
+
+    private int fallbackDimensions() {
+        return outputDimensionality > 0 ? outputDimensionality : DEFAULT_DIMENSIONS;
+    }
+
+    /**
+     * Cache namespace: vectors of one model at different sizes must not be mixed.
+     */
+    private String cacheModel() {
+        return outputDimensionality > 0 ? embeddingsModel + "@" + outputDimensionality : embeddingsModel;
+    }
+
+    /**
+     * Brings an API vector to the configured size. Matryoshka-trained models keep most of their
+     * quality in the leading dimensions, so a longer vector (a model that ignored
+     * outputDimensionality) is truncated; either way the result is re-normalized, because only
+     * the full-size output comes back unit length. Null when the vector is empty or too short.
+     */
+    private List<Double> fitDimensions(List<Double> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        if (outputDimensionality <= 0) {
+            return values;
         }
+        if (values.size() < outputDimensionality) {
+            logger.warn("Embedding API returned {} dimensions, expected {}.", values.size(), outputDimensionality);
+            return null;
+        }
+        List<Double> fitted = new ArrayList<>(values.subList(0, outputDimensionality));
+        double sumSquare = 0.0;
+        for (Double v : fitted) {
+            sumSquare += v * v;
+        }
+        double magnitude = Math.sqrt(sumSquare);
+        if (magnitude > 0) {
+            for (int i = 0; i < fitted.size(); i++) {
+                fitted.set(i, fitted.get(i) / magnitude);
+            }
+        }
+        return fitted;
+    }
 
-        if (apiKey == null || apiKey.trim().isEmpty() || apiKey.contains("GEMINI_API_KEY") || apiKey.equals("mock-key")) {
-            logger.warn("Gemini API key not configured. Using deterministic fallback embeddings.");
-            return generateFallbackVector(text, 768);
+    /**
+     * Name of the active embedding source, e.g. for health output: the model, or "local".
+     */
+    public String getProviderName() {
+        return isLocalProvider() ? "local" : embeddingsModel;
+    }
+
+    private boolean isLocalProvider() {
+        return "local".equalsIgnoreCase(provider);
+    }
+
+    private boolean isApiConfigured() {
+        if (isLocalProvider()) {
+            return false;
         }
+        return apiKey != null && !apiKey.trim().isEmpty() && !apiKey.contains("GEMINI_API_KEY") && !apiKey.equals("mock-key");
+    }
 
+    /**
+     * One embedContent call; null when the call fails or returns no values.
+     */
+    private List<Double> requestEmbedding(String text) {
         try {
             // Build Gemini Embed Request: { "content": { "parts": [ { "text": "..." } ] } }
             Map<String, Object> requestBodyMap = new HashMap<>();
@@ -65,6 +568,9 @@ public class EmbeddingService {
             contentMap.put("parts", partsList);
             
             requestBodyMap.put("content", contentMap);
+            if (outputDimensionality > 0) {
+                requestBodyMap.put("outputDimensionality", outputDimensionality);
+            }
 
             String jsonBody = objectMapper.writeValueAsString(requestBodyMap);
 
@@ -76,14 +582,14 @@ public class EmbeddingService {
                     .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = newCall(request).execute()) {
                 if (response.isSuccessful() && response.body() != null) {
                     String responseBody = response.body().string();
                     Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
                     Map<String, Object> embeddingObject = (Map<String, Object>) responseMap.get("embedding");
                     
                     if (embeddingObject != null) {
-                        List<Double> values = (List<Double>) embeddingObject.get("values");
+                        List<Double> values = fitDimensions((List<Double>) embeddingObject.get("values"));
                         if (values != null) {
                             return values;
                         }
@@ -94,8 +600,90 @@ public class EmbeddingService {
         } catch (Exception e) {
             logger.error("Error generating vector embedding from Gemini API: {}", e.getMessage());
         }
+        return null;
+    }
+
+    /**
+     * One batchEmbedContents call. Returns a list aligned with {@code texts} whose entries are
+     * null where the response had no usable vector (blank input included), or null when the
+     * call failed outright.
+     */
+    private List<List<Double>> requestBatchEmbeddings(List<String> texts) {
+        // Blank texts are not sent: the API rejects empty parts
+        List<Integer> sentIndexes = new ArrayList<>();
+        List<Map<String, Object>> requests = new ArrayList<>();
+        String modelName = "models/" + embeddingsModel;
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.trim().isEmpty()) {
+                continue;
+            }
+            Map<String, Object> partMap = new HashMap<>();
+            partMap.put("text", text);
+            Map<String, Object> contentMap = new HashMap<>();
+            contentMap.put("parts", List.of(partMap));
+            Map<String, Object> requestMap = new HashMap<>();
+            requestMap.put("model", modelName);
+            requestMap.put("content", contentMap);
+            if (outputDimensionality > 0) {
+                requestMap.put("outputDimensionality", outputDimensionality);
+            }
+            requests.add(requestMap);
+            sentIndexes.add(i);
+        }
+        List<List<Double>> results = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            results.add(null);
+        }
+        if (requests.isEmpty()) {
+            return results;
+        }
 
-        return generateFallbackVector(text, 768);
+        try {
+            // { "requests": [ { "model": "models/...", "content": { "parts": [ { "text": "..." } ] } }, ... ] }
+            Map<String, Object> requestBodyMap = new HashMap<>();
+            requestBodyMap.put("requests", requests);
+            String jsonBody = objectMapper.writeValueAsString(requestBodyMap);
+
+            String url = String.format("%s/models/%s:batchEmbedContents?key=%s", geminiUrl, embeddingsModel, apiKey);
+
+            Request request = new Request.Builder()
+                    .url(url)
+                    .addHeader("Content-Type", "application/json")
+                    .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+                    .build();
+
+            try (Response response = newCall(request).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    logger.warn("Batch embedding API call failed with status: {}.", response.code());
+                    return null;
+                }
+                Map<String, Object> responseMap = objectMapper.readValue(response.body().string(), Map.class);
+                List<Map<String, Object>> embeddings = (List<Map<String, Object>>) responseMap.get("embeddings");
+                if (embeddings == null) {
+                    return null;
+                }
+                for (int i = 0; i < sentIndexes.size() && i < embeddings.size(); i++) {
+                    Map<String, Object> embeddingObject = embeddings.get(i);
+                    List<Double> values = embeddingObject != null ? fitDimensions((List<Double>) embeddingObject.get("values")) : null;
+                    if (values != null) {
+                        results.set(sentIndexes.get(i), values);
+                    }
+                }
+                return results;
+            }
+        } catch (Exception e) {
+            logger.error("Error generating batch embeddings from Gemini API: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Call newCall(Request request) {
+        Call call = httpClient.newCall(request);
+        if (requestTimeoutMs > 0) {
+            call.timeout().timeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return call;
     }
 
     /**
@@ -138,9 +726,96 @@ public class EmbeddingService {
     }
 
     /**
-     * Generates a deterministic mock vector based on the string hash to support local tests.
+     * Primitive variant of {@link #generateEmbedding(String)} used by the in-memory vector index.
+     */
+    public float[] generateVector(String text) {
+        return toFloatArray(generateEmbedding(text));
+    }
+
+    /**
+     * Parses a "[x,y,z,...]" vector string straight into a float[] without boxing each element.
+     */
+    public float[] parseVector(String vectorStr) {
+        if (vectorStr == null || vectorStr.length() < 3) {
+            return new float[0];
+        }
+        int count = 1;
+        for (int i = 1; i < vectorStr.length() - 1; i++) {
+            if (vectorStr.charAt(i) == ',') {
+                count++;
+            }
+        }
+        float[] vector = new float[count];
+        try {
+            int start = 1;
+            int end = vectorStr.length() - 1;
+            for (int i = 0; i < count; i++) {
+                int comma = vectorStr.indexOf(',', start);
+                int stop = (comma < 0 || comma > end) ? end : comma;
+                vector[i] = Float.parseFloat(vectorStr.substring(start, stop).trim());
+                start = stop + 1;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to parse vector string of length {}", vectorStr.length(), e);
+            return new float[0];
+        }
+        return vector;
+    }
+
+    /**
+     * Encodes a vector into the binary column layout using the configured storage format.
+     */
+    public byte[] encodeVector(float[] vector) {
+        return VectorCodec.encode(vector, VectorCodec.Format.fromName(storageFormat));
+    }
+
+    /**
+     * Decodes a binary vector column straight into a float[]; no text parsing involved.
+     */
+    public float[] decodeVector(byte[] data) {
+        return VectorCodec.decode(data);
+    }
+
+    /**
+     * Reads a stored vector, preferring the binary column and falling back to legacy text rows
+     * that have not been migrated yet.
+     */
+    public float[] readVector(byte[] data, String legacyText) {
+        if (data != null && data.length > 0) {
+            return decodeVector(data);
+        }
+        return parseVector(legacyText);
+    }
+
+    public float[] toFloatArray(List<? extends Number> vector) {
+        if (vector == null) {
+            return new float[0];
+        }
+        float[] result = new float[vector.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = vector.get(i).floatValue();
+        }
+        return result;
+    }
+
+    /**
+     * Deterministic vector used in place of an API embedding: the local hashed n-gram embedding,
+     * which keeps lexically similar texts close, or with {@code embedding.fallback=random} a
+     * Gaussian vector seeded by the string hash.
      */
     private List<Double> generateFallbackVector(String text, int dimensions) {
+        if ("random".equalsIgnoreCase(fallback)) {
+            return generateRandomVector(text, dimensions);
+        }
+        HashingEmbedder embedder = localEmbedder;
+        if (embedder == null || embedder.getDimensions() != dimensions) {
+            embedder = new HashingEmbedder(dimensions);
+            localEmbedder = embedder;
+        }
+        return embedder.embedAsList(text);
+    }
+
+    private List<Double> generateRandomVector(String text, int dimensions) {
         List<Double> vector = new ArrayList<>(dimensions);
         int seed = text.hashCode();
         java.util.Random random = new java.util.Random(seed);
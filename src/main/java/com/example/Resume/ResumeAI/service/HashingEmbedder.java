@@ -0,0 +1,131 @@
+package com.example.Resume.ResumeAI.service;
+
+import com.example.Resume.ResumeAI.vector.Bm25Index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline embedder: hashed n-gram features projected to a fixed dimension (the "hashing trick").
+ *
+ * Features are word unigrams (BM25 tokenization, so "c++" and "node.js" stay whole), adjacent
+ * word bigrams and character trigrams of each word, which lets "Kubernetes" and "kubernetes
+ * cluster" or "developer" and "development" share weight. Each feature adds a sublinear
+ * term-frequency weight to one bucket with a hash-derived sign, so collisions cancel out on
+ * average instead of piling up. The vector is L2-normalized.
+ *
+ * There is no corpus-wide IDF: document frequencies would drift as resumes arrive and change the
+ * vectors already stored. Frequent function words are dropped instead.
+ *
+ * Deterministic and thread-safe; a few microseconds per chunk.
+ */
+public final class HashingEmbedder {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "i", "in", "is",
+            "it", "its", "my", "of", "on", "or", "our", "that", "the", "their", "this", "to", "was", "we",
+            "were", "with", "you", "your");
+
+    private final int dimensions;
+
+    public HashingEmbedder(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        for (Map.Entry<String, float[]> feature : features(text).entrySet()) {
+            long hash = fnv1a(feature.getKey());
+            int bucket = (int) Long.remainderUnsigned(hash >>> 1, dimensions);
+            float[] weightAndCount = feature.getValue();
+            float weight = (float) (weightAndCount[0] / weightAndCount[1] * (1.0 + Math.log(weightAndCount[1])));
+            vector[bucket] += (hash & 1L) == 0 ? weight : -weight;
+        }
+        double sumSquare = 0.0;
+        for (float v : vector) {
+            sumSquare += v * v;
+        }
+        if (sumSquare == 0.0) {
+            // No indexable token (blank or punctuation only): one fixed unit vector for all of them
+            vector[0] = 1f;
+            return vector;
+        }
+        float scale = (float) (1.0 / Math.sqrt(sumSquare));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    public List<Double> embedAsList(String text) {
+        float[] vector = embed(text);
+        List<Double> values = new ArrayList<>(vector.length);
+        for (float v : vector) {
+            values.add((double) v);
+        }
+        return values;
+    }
+
+    /**
+     * Feature -> {summed weight, occurrences}; the embedding uses the mean weight scaled by
+     * 1 + ln(occurrences). Distinct prefixes keep the feature kinds apart in hash space.
+     */
+    private static Map<String, float[]> features(String text) {
+        Map<String, float[]> features = new HashMap<>();
+        String previous = null;
+        for (String token : Bm25Index.tokenize(text)) {
+            if (STOPWORDS.contains(token)) {
+                previous = null;
+                continue;
+            }
+            addFeature(features, "w:" + token, WORD_WEIGHT);
+            if (previous != null) {
+                addFeature(features, "b:" + previous + ' ' + token, BIGRAM_WEIGHT);
+            }
+            previous = token;
+
+            String padded = '<' + token + '>';
+            if (padded.length() > 3) {
+                // Long words would otherwise outweigh short ones through their trigram count
+                float weight = TRIGRAM_WEIGHT / (float) Math.sqrt(padded.length() - 2);
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    addFeature(features, "c:" + padded.substring(i, i + 3), weight);
+                }
+            }
+        }
+        return features;
+    }
+
+    private static void addFeature(Map<String, float[]> features, String feature, float weight) {
+        float[] weightAndCount = features.computeIfAbsent(feature, key -> new float[2]);
+        weightAndCount[0] += weight;
+        weightAndCount[1]++;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // Final avalanche so the low bit (sign) and the bucket are independent
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
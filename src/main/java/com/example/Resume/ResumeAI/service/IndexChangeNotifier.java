@@ -0,0 +1,193 @@
+package com.example.Resume.ResumeAI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Tells the other instances sharing the database that a resume's chunks changed, so each can
+ * patch its resident index instead of waiting for a restart or reconcile.
+ *
+ * An event is a PostgreSQL NOTIFY sent inside the indexing transaction: it is delivered only if
+ * that transaction commits, and listeners receive events in commit order. Its version comes
+ * from bumping resumes.index_version in the same transaction; the row lock orders concurrent
+ * writers of one resume, so a higher version is always the later state. Disabled unless the
+ * datasource is PostgreSQL. IndexChangeListener is the receiving side.
+ */
+@Service
+public class IndexChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexChangeNotifier.class);
+
+    // NOTIFY payloads are limited to 8000 bytes; bigger id lists are replaced by a full resync flag
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    public enum Op {
+        INDEX, DELETE
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${vector.index.events.enabled:true}")
+    private boolean enabled;
+
+    // LISTEN/NOTIFY channel shared by every instance of one deployment
+    @Value("${vector.index.events.channel:resume_index_changes}")
+    private String channel;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    public IndexChangeNotifier(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void validateChannel() {
+        if (isEnabled() && !CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("vector.index.events.channel must be a lower-case SQL identifier, got '" + channel + "'");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && datasourceUrl != null && datasourceUrl.startsWith("jdbc:postgresql:");
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Bumps the resume's index version and queues the event on the current transaction, which
+     * must be the one writing the change. {@code removedEmbeddingIds} are the chunks it deleted.
+     * Returns the new version, or 0 when events are disabled or the resume row is gone.
+     */
+    public long publish(long resumeId, Op op, List<Long> removedEmbeddingIds) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        List<Long> versions = jdbcTemplate.queryForList(
+                "UPDATE resumes SET index_version = index_version + 1 WHERE id = ? RETURNING index_version",
+                Long.class, resumeId);
+        long version = versions.isEmpty() ? 0 : versions.get(0);
+        IndexChange change = new IndexChange(resumeId, version, op, instanceId, removedEmbeddingIds, false);
+        String payload = encode(change);
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = encode(new IndexChange(resumeId, version, op, instanceId, List.of(), true));
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+        return version;
+    }
+
+    public String encode(IndexChange change) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("resumeId", change.getResumeId());
+        node.put("version", change.getVersion());
+        node.put("op", change.getOp().name());
+        node.put("origin", change.getOrigin());
+        ArrayNode removed = node.putArray("removed");
+        change.getRemovedEmbeddingIds().forEach(removed::add);
+        if (change.isResync()) {
+            node.put("resync", true);
+        }
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode index change for resume " + change.getResumeId(), e);
+        }
+    }
+
+    /**
+     * Parses a NOTIFY payload, or returns null (and logs) when it is not an index change.
+     */
+    public IndexChange decode(String payload) {
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            if (node == null || !node.hasNonNull("resumeId") || !node.hasNonNull("op")) {
+                logger.warn("Ignoring index change without resumeId/op: {}", payload);
+                return null;
+            }
+            List<Long> removed = new ArrayList<>();
+            for (JsonNode id : node.path("removed")) {
+                removed.add(id.asLong());
+            }
+            return new IndexChange(node.get("resumeId").asLong(), node.path("version").asLong(),
+                    Op.valueOf(node.get("op").asText()), node.path("origin").asText(""), removed,
+                    node.path("resync").asBoolean(false));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.warn("Ignoring malformed index change '{}': {}", payload, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * One committed change to a resume's stored chunks.
+     */
+    public static class IndexChange {
+        private final long resumeId;
+        private final long version;
+        private final Op op;
+        private final String origin;
+        private final List<Long> removedEmbeddingIds;
+        private final boolean resync;
+
+        public IndexChange(long resumeId, long version, Op op, String origin, List<Long> removedEmbeddingIds,
+                           boolean resync) {
+            this.resumeId = resumeId;
+            this.version = version;
+            this.op = op;
+            this.origin = origin;
+            this.removedEmbeddingIds = removedEmbeddingIds != null ? removedEmbeddingIds : List.of();
+            this.resync = resync;
+        }
+
+        public long getResumeId() {
+            return resumeId;
+        }
+
+        // 0 when the resume row no longer existed, which orders before nothing
+        public long getVersion() {
+            return version;
+        }
+
+        public Op getOp() {
+            return op;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public List<Long> getRemovedEmbeddingIds() {
+            return removedEmbeddingIds;
+        }
+
+        // The removed ids did not fit the payload: rebuild the resume's chunks from the table
+        public boolean isResync() {
+            return resync;
+        }
+    }
+}
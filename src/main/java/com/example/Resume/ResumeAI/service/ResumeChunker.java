@@ -0,0 +1,283 @@
+package com.example.Resume.ResumeAI.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits resume text into chunks sized by an estimated token budget.
+ *
+ * Sections are cut at the usual resume headers. A section that fits {@code maxTokens} is one
+ * chunk; a larger one is split at the coarsest boundary that works (blank lines, then lines,
+ * then sentences, then words) and packed greedily into parts, each starting with up to
+ * {@code overlapTokens} of the previous part so context that straddles a cut is found from
+ * either side. A trailing part with less new text than that (or an eighth of the budget) is
+ * folded into the one before it, which may then run over the budget by that much.
+ * Text without headers is packed the same way into "Bio-Block n" chunks. At most
+ * {@code maxChunks} chunks are produced per resume.
+ *
+ * Tokens are estimated at four characters each, close enough for English resume text to keep
+ * chunks inside the embedding model's input limit without running a tokenizer.
+ *
+ * Immutable and thread-safe; all patterns are compiled once.
+ */
+public final class ResumeChunker {
+
+    private static final Pattern SECTION_HEADER = Pattern.compile(
+        "(?im)^(education|experience|work|employment|skills|projects|summary|objective|achievements|certifications|languages|interests)\\b"
+    );
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern LINE_BREAK = Pattern.compile("\\n");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?;])\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Coarsest first, with the separator used when re-joining pieces split at each boundary
+    private static final Pattern[] BOUNDARIES = {BLANK_LINES, LINE_BREAK, SENTENCE_END, WHITESPACE};
+    private static final String[] SEPARATORS = {"\n\n", "\n", " ", " "};
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Sections shorter than this are a bare header or a stray line
+    private static final int MIN_SECTION_CHARS = 20;
+
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final int maxChunks;
+
+    public ResumeChunker(int maxTokens, int overlapTokens, int maxChunks) {
+        if (maxTokens < 16) {
+            throw new IllegalArgumentException("maxTokens must be at least 16: " + maxTokens);
+        }
+        this.maxTokens = maxTokens;
+        // More overlap than half a chunk would make consecutive parts mostly the same text
+        this.overlapTokens = Math.max(0, Math.min(overlapTokens, maxTokens / 2));
+        this.maxChunks = Math.max(1, maxChunks);
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * The first {@code maxTokens} (estimated) of {@code text}, cut at a word boundary.
+     */
+    public static String truncateToTokens(String text, int maxTokens) {
+        int maxChars = maxTokens * CHARS_PER_TOKEN;
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        int cut = maxChars;
+        while (cut > maxChars / 2 && !Character.isWhitespace(text.charAt(cut))) {
+            cut--;
+        }
+        return text.substring(0, cut > maxChars / 2 ? cut : maxChars).trim();
+    }
+
+    public List<Chunk> chunk(String text) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return chunks;
+        }
+
+        Matcher matcher = SECTION_HEADER.matcher(text);
+        List<Integer> headerIndices = new ArrayList<>();
+        List<String> sectionNames = new ArrayList<>();
+        while (matcher.find()) {
+            headerIndices.add(matcher.start());
+            sectionNames.add(matcher.group().trim());
+        }
+
+        if (headerIndices.isEmpty()) {
+            List<String> blocks = pack(text.trim());
+            for (int i = 0; i < blocks.size() && chunks.size() < maxChunks; i++) {
+                chunks.add(new Chunk(blocks.get(i), "Bio-Block " + (i + 1)));
+            }
+            return chunks;
+        }
+
+        for (int i = 0; i < headerIndices.size() && chunks.size() < maxChunks; i++) {
+            int start = headerIndices.get(i);
+            int end = (i < headerIndices.size() - 1) ? headerIndices.get(i + 1) : text.length();
+            String sectionContent = text.substring(start, end).trim();
+            if (sectionContent.length() <= MIN_SECTION_CHARS) {
+                continue;
+            }
+            String sectionName = capitalizeWord(sectionNames.get(i));
+            if (estimateTokens(sectionContent) <= maxTokens) {
+                chunks.add(new Chunk(sectionContent, sectionName));
+                continue;
+            }
+            List<String> parts = pack(sectionContent);
+            for (int p = 0; p < parts.size() && chunks.size() < maxChunks; p++) {
+                chunks.add(new Chunk(parts.get(p), sectionName + " (Part " + (p + 1) + ")"));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Greedy packing of boundary-split units into parts of at most {@code maxTokens}, each part
+     * after the first opening with the overlap carried from its predecessor.
+     */
+    private List<String> pack(String text) {
+        // Units leave room for the overlap so no part exceeds the budget
+        List<Unit> units = new ArrayList<>();
+        split(text, 0, maxTokens - overlapTokens, "", units);
+
+        List<String> parts = new ArrayList<>();
+        List<Unit> current = new ArrayList<>();
+        int currentTokens = 0;
+        int newTokens = 0;
+        for (Unit unit : units) {
+            if (newTokens > 0 && currentTokens + unit.tokens > maxTokens) {
+                parts.add(join(current));
+                current = overlapTail(current);
+                currentTokens = 0;
+                for (Unit carried : current) {
+                    currentTokens += carried.tokens;
+                }
+                newTokens = 0;
+            }
+            current.add(unit);
+            currentTokens += unit.tokens;
+            newTokens += unit.tokens;
+        }
+        if (newTokens == 0) {
+            return parts;
+        }
+        // A few new words after the overlap are not worth their own embedding
+        if (!parts.isEmpty() && newTokens < Math.max(overlapTokens, maxTokens / 8)) {
+            List<Unit> fresh = current.subList(countCarried(current), current.size());
+            String previous = parts.remove(parts.size() - 1);
+            String separator = fresh.get(0).separator;
+            parts.add(previous + (separator.isEmpty() ? " " : separator) + join(fresh));
+        } else {
+            parts.add(join(current));
+        }
+        return parts;
+    }
+
+    /**
+     * Appends the units of {@code text} no larger than {@code budget} tokens, splitting at the
+     * boundary at {@code level} and recursing to finer boundaries for pieces still too large.
+     */
+    private void split(String text, int level, int budget, String separator, List<Unit> units) {
+        if (estimateTokens(text) <= budget) {
+            units.add(new Unit(text, separator, false));
+            return;
+        }
+        if (level == BOUNDARIES.length) {
+            // A single "word" longer than the budget (a URL, a pasted blob): hard cut
+            int maxChars = budget * CHARS_PER_TOKEN;
+            for (int start = 0; start < text.length(); start += maxChars) {
+                units.add(new Unit(text.substring(start, Math.min(text.length(), start + maxChars)),
+                        start == 0 ? separator : "", false));
+            }
+            return;
+        }
+        String[] pieces = BOUNDARIES[level].split(text);
+        String pieceSeparator = separator;
+        for (String piece : pieces) {
+            piece = piece.trim();
+            if (piece.isEmpty()) {
+                continue;
+            }
+            split(piece, level + 1, budget, pieceSeparator, units);
+            pieceSeparator = SEPARATORS[level];
+        }
+    }
+
+    /**
+     * Trailing units of a finished part that fit the overlap budget, or the last words of its
+     * final unit when even that is larger than the budget.
+     */
+    private List<Unit> overlapTail(List<Unit> part) {
+        List<Unit> tail = new ArrayList<>();
+        if (overlapTokens == 0) {
+            return tail;
+        }
+        int tokens = 0;
+        for (int i = part.size() - 1; i >= 0; i--) {
+            Unit unit = part.get(i);
+            if (tokens + unit.tokens > overlapTokens) {
+                if (tail.isEmpty()) {
+                    String text = unit.text;
+                    int from = Math.max(0, text.length() - overlapTokens * CHARS_PER_TOKEN);
+                    int space = text.indexOf(' ', from);
+                    String words = (space >= 0 && space < text.length() - 1 ? text.substring(space + 1) : text.substring(from)).trim();
+                    if (!words.isEmpty()) {
+                        tail.add(new Unit(words, "", true));
+                    }
+                }
+                break;
+            }
+            tail.add(0, new Unit(unit.text, unit.separator, true));
+            tokens += unit.tokens;
+        }
+        return tail;
+    }
+
+    private static int countCarried(List<Unit> units) {
+        int carried = 0;
+        while (carried < units.size() && units.get(carried).carried) {
+            carried++;
+        }
+        return carried;
+    }
+
+    private static String join(List<Unit> units) {
+        StringBuilder sb = new StringBuilder();
+        for (Unit unit : units) {
+            if (sb.length() > 0) {
+                sb.append(unit.separator.isEmpty() ? " " : unit.separator);
+            }
+            sb.append(unit.text);
+        }
+        return sb.toString().trim();
+    }
+
+    private static String capitalizeWord(String word) {
+        if (word == null || word.isEmpty()) return "";
+        return word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase();
+    }
+
+    /**
+     * A piece of text with the separator that preceded it in the source; carried units are
+     * overlap repeated from the previous part.
+     */
+    private static final class Unit {
+        private final String text;
+        private final String separator;
+        private final int tokens;
+        private final boolean carried;
+
+        private Unit(String text, String separator, boolean carried) {
+            this.text = text;
+            this.separator = separator;
+            this.tokens = estimateTokens(text);
+            this.carried = carried;
+        }
+    }
+
+    /**
+     * One chunk of resume text and the section label it is stored under.
+     */
+    public static final class Chunk {
+        private final String content;
+        private final String sectionName;
+
+        public Chunk(String content, String sectionName) {
+            this.content = content;
+            this.sectionName = sectionName;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.Resume.ResumeAI.service;
+
+import com.example.Resume.ResumeAI.entity.Resume;
+import com.example.Resume.ResumeAI.repository.ResumeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background RAG indexing of uploaded resumes, so an upload only waits for parsing and ATS
+ * scoring.
+ *
+ * Resume ids go into a bounded queue drained by {@code indexing.workers} threads. A failed
+ * attempt is retried after an exponential backoff ({@code indexing.retry-backoff-ms}, doubled per
+ * attempt) until {@code indexing.max-attempts}, then the resume is marked FAILED. When the queue
+ * is full the resume is simply left PENDING: the periodic sweep re-enqueues PENDING resumes as
+ * capacity frees up, which also picks up work that was queued when the application stopped.
+ */
+@Service
+public class ResumeIndexingQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumeIndexingQueue.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final VectorStoreService vectorStoreService;
+    private final ResumeRepository resumeRepository;
+
+    // false indexes on the caller's thread, as uploads did before the queue existed
+    @Value("${indexing.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${indexing.workers:2}")
+    private int workers;
+
+    @Value("${indexing.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${indexing.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${indexing.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+
+    // Queued, running or waiting for a retry; keeps a resume from being indexed twice at once
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ResumeIndexingQueue(VectorStoreService vectorStoreService, ResumeRepository resumeRepository) {
+        this.vectorStoreService = vectorStoreService;
+        this.resumeRepository = resumeRepository;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!asyncEnabled) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "resume-indexer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resume-indexer-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules indexing of a freshly saved resume (status PENDING) once the surrounding
+     * transaction commits, or right away outside one. With the queue disabled the resume is
+     * indexed before this returns.
+     */
+    public void submit(Resume resume) {
+        if (executor == null) {
+            indexNow(resume);
+            return;
+        }
+        Long resumeId = resume.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(resumeId, 1);
+                }
+            });
+        } else {
+            enqueue(resumeId, 1);
+        }
+    }
+
+    /**
+     * Indexes on the caller's thread and records the outcome. Returns false when indexing failed.
+     */
+    public boolean indexNow(Resume resume) {
+        try {
+            vectorStoreService.indexResume(resume);
+            resumeRepository.updateIndexStatus(resume.getId(), Resume.IndexStatus.INDEXED, null);
+            resume.setIndexStatus(Resume.IndexStatus.INDEXED);
+            resume.setIndexError(null);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to index resume {}", resume.getId(), e);
+            String error = truncate(e.getMessage());
+            resumeRepository.updateIndexStatus(resume.getId(), Resume.IndexStatus.FAILED, error);
+            resume.setIndexStatus(Resume.IndexStatus.FAILED);
+            resume.setIndexError(error);
+            return false;
+        }
+    }
+
+    /**
+     * Re-enqueues PENDING resumes that are not already queued, up to the free queue capacity.
+     */
+    @Scheduled(fixedDelayString = "${indexing.sweep-interval-ms:60000}",
+               initialDelayString = "${indexing.sweep-interval-ms:60000}")
+    public void sweepPending() {
+        if (executor == null) {
+            return;
+        }
+        int free = executor.getQueue().remainingCapacity();
+        if (free <= 0) {
+            return;
+        }
+        List<Long> pending = resumeRepository.findIdsByIndexStatus(Resume.IndexStatus.PENDING,
+                PageRequest.of(0, free + inFlight.size()));
+        int enqueued = 0;
+        for (Long resumeId : pending) {
+            if (enqueued >= free) {
+                break;
+            }
+            if (!inFlight.contains(resumeId) && enqueue(resumeId, 1)) {
+                enqueued++;
+            }
+        }
+        if (enqueued > 0) {
+            logger.info("Re-enqueued {} pending resumes for indexing", enqueued);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("async", executor != null);
+        if (executor != null) {
+            stats.put("queued", executor.getQueue().size());
+            stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+            stats.put("active", executor.getActiveCount());
+            stats.put("inFlight", inFlight.size());
+            stats.put("completed", executor.getCompletedTaskCount());
+        }
+        return stats;
+    }
+
+    private boolean enqueue(Long resumeId, int attempt) {
+        if (attempt == 1 && !inFlight.add(resumeId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> runAttempt(resumeId, attempt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Backpressure: stays PENDING until the sweep finds room for it
+            inFlight.remove(resumeId);
+            logger.warn("Indexing queue full; resume {} stays pending", resumeId);
+            return false;
+        }
+    }
+
+    private void runAttempt(Long resumeId, int attempt) {
+        Optional<Resume> resume = resumeRepository.findById(resumeId);
+        if (resume.isEmpty()) {
+            // Deleted while queued
+            inFlight.remove(resumeId);
+            return;
+        }
+        try {
+            vectorStoreService.indexResume(resume.get());
+            resumeRepository.updateIndexStatus(resumeId, Resume.IndexStatus.INDEXED, null);
+            inFlight.remove(resumeId);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                logger.error("Indexing resume {} failed after {} attempts", resumeId, attempt, e);
+                resumeRepository.updateIndexStatus(resumeId, Resume.IndexStatus.FAILED, truncate(e.getMessage()));
+                inFlight.remove(resumeId);
+                return;
+            }
+            long delay = retryBackoffMs << Math.min(attempt - 1, 16);
+            logger.warn("Indexing resume {} failed (attempt {} of {}), retrying in {} ms: {}",
+                    resumeId, attempt, maxAttempts, delay, e.getMessage());
+            try {
+                retryScheduler.schedule(() -> enqueue(resumeId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                inFlight.remove(resumeId);
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
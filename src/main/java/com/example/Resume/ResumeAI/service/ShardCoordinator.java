@@ -0,0 +1,476 @@
+package com.example.Resume.ResumeAI.service;
+
+import com.example.Resume.ResumeAI.vector.ResumeHit;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.TopKHeap;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Partitions the resident vector index across application instances.
+ *
+ * With {@code vector.shard.count} above 1, resume ids are hashed into 32 bits and instance
+ * {@code vector.shard.index} owns the i-th of {@code count} equal ranges of that space: it keeps
+ * only those resumes' chunks resident. A search is scattered to every shard in parallel - the
+ * local one in-process, the others over HTTP at their {@code vector.shard.peers} base URL with
+ * the query vector already embedded - and the per-shard top-k lists are merged. A shard that
+ * fails or misses the {@code vector.shard.timeout-ms} deadline is left out of the merge and
+ * counted, so a slow node costs recall rather than latency.
+ *
+ * A resume's chunks all live on one shard, so merging per-shard resume rankings is exact.
+ * BM25 is not partitioned, so sharded searches rank by vector similarity only. A resume indexed
+ * through another instance reaches its shard through the index change events of
+ * IndexChangeNotifier, or when that shard next loads or reconciles its index.
+ */
+@Service
+public class ShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardCoordinator.class);
+
+    public static final String SEARCH_PATH = "/api/shard/search";
+    public static final String TOKEN_HEADER = "X-Shard-Token";
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    // 1 keeps every resume resident on every instance
+    @Value("${vector.shard.count:1}")
+    private int shardCount;
+
+    @Value("${vector.shard.index:0}")
+    private int shardIndex;
+
+    // Base URLs of all shards in shard order, this instance's own entry included
+    @Value("${vector.shard.peers:}")
+    private String peers;
+
+    // Deadline for each remote shard, connect through response
+    @Value("${vector.shard.timeout-ms:2000}")
+    private long timeoutMs;
+
+    // Shared secret shards present to each other; shard search is refused without one
+    @Value("${vector.shard.token:}")
+    private String token;
+
+    private final ObjectMapper objectMapper;
+    private final OkHttpClient httpClient;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder partialSearches = new LongAdder();
+    private final Map<Integer, LongAdder> failuresByShard = new ConcurrentHashMap<>();
+
+    public ShardCoordinator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        Dispatcher dispatcher = new Dispatcher();
+        // Several instances on one host (localhost testing) would otherwise share five slots
+        dispatcher.setMaxRequestsPerHost(64);
+        this.httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectTimeout(2, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @PostConstruct
+    void validateTopology() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalStateException("vector.shard.index must be in [0, " + shardCount + "): " + shardIndex);
+        }
+        List<String> urls = peerUrls();
+        if (urls.size() != shardCount) {
+            throw new IllegalStateException("vector.shard.peers must list " + shardCount
+                    + " base URLs in shard order, found " + urls.size());
+        }
+        if (token == null || token.isBlank()) {
+            logger.warn("vector.shard.token is not set; peers will refuse this shard's searches");
+        }
+        logger.info("Vector index shard {} of {} (peers {})", shardIndex, shardCount, urls);
+    }
+
+    public boolean isEnabled() {
+        return shardCount > 1;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public boolean owns(long resumeId) {
+        return !isEnabled() || shardOf(resumeId, shardCount) == shardIndex;
+    }
+
+    /**
+     * Shard owning {@code resumeId}: the id is mixed into 32 well-spread bits and each shard owns
+     * one of {@code shardCount} equal ranges of them.
+     */
+    public static int shardOf(long resumeId, int shardCount) {
+        long hash = resumeId;
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return (int) (((hash >>> 32) * shardCount) >>> 32);
+    }
+
+    /**
+     * Whether a shard search request carries the configured token (constant-time comparison).
+     */
+    public boolean isAuthorized(String presentedToken) {
+        return token != null && !token.isBlank() && presentedToken != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presentedToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Top {@code limit} chunks across all shards; {@code localSearch} answers for this shard.
+     */
+    public ShardedResult<VectorHit> searchChunks(float[] queryVector, int limit, boolean exact, SearchFilter filter,
+                                                 Supplier<List<VectorHit>> localSearch) {
+        ShardQuery query = new ShardQuery(queryVector, limit, exact, false, filter);
+        return scatter(query, localSearch, ShardCoordinator::parseChunkHit, VectorHit::getScore);
+    }
+
+    /**
+     * Top {@code limit} distinct resumes across all shards, ranked by their best chunk.
+     */
+    public ShardedResult<ResumeHit> searchResumes(float[] queryVector, int limit, boolean exact, SearchFilter filter,
+                                                  Supplier<List<ResumeHit>> localSearch) {
+        ShardQuery query = new ShardQuery(queryVector, limit, exact, true, filter);
+        return scatter(query, localSearch, ShardCoordinator::parseResumeHit, ResumeHit::getMaxScore);
+    }
+
+    /**
+     * Response body of this shard's search endpoint for chunk hits.
+     */
+    public ObjectNode encodeChunkHits(List<VectorHit> hits) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("shard", shardIndex);
+        ArrayNode array = root.putArray("hits");
+        for (VectorHit hit : hits) {
+            array.addObject()
+                    .put("embeddingId", hit.getEmbeddingId())
+                    .put("resumeId", hit.getResumeId())
+                    .put("score", hit.getScore());
+        }
+        return root;
+    }
+
+    /**
+     * Response body of this shard's search endpoint for grouped (per-resume) hits.
+     */
+    public ObjectNode encodeResumeHits(List<ResumeHit> hits) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("shard", shardIndex);
+        ArrayNode array = root.putArray("hits");
+        for (ResumeHit hit : hits) {
+            array.addObject()
+                    .put("resumeId", hit.getResumeId())
+                    .put("bestEmbeddingId", hit.getBestEmbeddingId())
+                    .put("maxScore", hit.getMaxScore())
+                    .put("meanScore", hit.getMeanScore())
+                    .put("chunkCount", hit.getChunkCount());
+        }
+        return root;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("shardCount", Math.max(1, shardCount));
+        stats.put("shardIndex", shardIndex);
+        stats.put("timeoutMs", timeoutMs);
+        stats.put("searches", searches.sum());
+        stats.put("partialSearches", partialSearches.sum());
+        Map<Integer, Long> failures = new TreeMap<>();
+        failuresByShard.forEach((shard, count) -> failures.put(shard, count.sum()));
+        stats.put("failuresByShard", failures);
+        return stats;
+    }
+
+    private <T> ShardedResult<T> scatter(ShardQuery query, Supplier<List<T>> localSearch,
+                                         Function<JsonNode, T> parser, ToDoubleFunction<T> score) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        searches.increment();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(query.toJson(objectMapper));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode shard query", e);
+        }
+
+        List<String> urls = peerUrls();
+        List<PendingShard<T>> pending = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (shard != shardIndex) {
+                pending.add(send(shard, urls.get(shard), body, parser));
+            }
+        }
+
+        // The local shard runs on this thread while the remote ones work
+        List<List<T>> lists = new ArrayList<>();
+        lists.add(localSearch.get());
+        List<Integer> failed = new ArrayList<>();
+        for (PendingShard<T> shard : pending) {
+            try {
+                lists.add(shard.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                shard.call.cancel();
+                recordFailure(shard.index, failed, "no answer within " + timeoutMs + " ms");
+            } catch (ExecutionException e) {
+                recordFailure(shard.index, failed, String.valueOf(e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.call.cancel();
+                recordFailure(shard.index, failed, "interrupted");
+            }
+        }
+        if (!failed.isEmpty()) {
+            partialSearches.increment();
+        }
+        return new ShardedResult<>(merge(lists, query.getLimit(), score), failed);
+    }
+
+    private <T> PendingShard<T> send(int shard, String baseUrl, byte[] body, Function<JsonNode, T> parser) {
+        Request request = new Request.Builder()
+                .url(baseUrl + SEARCH_PATH)
+                .header(TOKEN_HEADER, token == null ? "" : token)
+                .post(RequestBody.create(body, JSON))
+                .build();
+        Call call = httpClient.newCall(request);
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody responseBody = response.body()) {
+                    if (!response.isSuccessful() || responseBody == null) {
+                        throw new IOException("HTTP " + response.code());
+                    }
+                    JsonNode root = objectMapper.readTree(responseBody.byteStream());
+                    int answeredAs = root.path("shard").asInt(-1);
+                    if (answeredAs != shard) {
+                        // A misconfigured peer list would otherwise count one shard twice
+                        throw new IOException("answered as shard " + answeredAs);
+                    }
+                    List<T> hits = new ArrayList<>();
+                    for (JsonNode node : root.path("hits")) {
+                        hits.add(parser.apply(node));
+                    }
+                    result.complete(hits);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return new PendingShard<>(shard, call, result);
+    }
+
+    private void recordFailure(int shard, List<Integer> failed, String reason) {
+        failed.add(shard);
+        failuresByShard.computeIfAbsent(shard, k -> new LongAdder()).increment();
+        logger.warn("Vector shard {} left out of search: {}", shard, reason);
+    }
+
+    private static <T> List<T> merge(List<List<T>> lists, int limit, ToDoubleFunction<T> score) {
+        List<T> all = new ArrayList<>();
+        for (List<T> list : lists) {
+            all.addAll(list);
+        }
+        TopKHeap heap = new TopKHeap(Math.min(limit, all.size()));
+        for (int i = 0; i < all.size(); i++) {
+            heap.offer(i, (float) score.applyAsDouble(all.get(i)));
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<T> merged = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            merged.add(all.get(slots[i]));
+        }
+        return merged;
+    }
+
+    private List<String> peerUrls() {
+        if (peers == null || peers.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+    }
+
+    private static VectorHit parseChunkHit(JsonNode node) {
+        return new VectorHit(node.path("embeddingId").asLong(), node.path("resumeId").asLong(),
+                (float) node.path("score").asDouble());
+    }
+
+    private static ResumeHit parseResumeHit(JsonNode node) {
+        return new ResumeHit(node.path("resumeId").asLong(), node.path("bestEmbeddingId").asLong(),
+                (float) node.path("maxScore").asDouble(), (float) node.path("meanScore").asDouble(),
+                node.path("chunkCount").asInt());
+    }
+
+    private static final class PendingShard<T> {
+        private final int index;
+        private final Call call;
+        private final CompletableFuture<List<T>> result;
+
+        private PendingShard(int index, Call call, CompletableFuture<List<T>> result) {
+            this.index = index;
+            this.call = call;
+            this.result = result;
+        }
+    }
+
+    /**
+     * What a shard is asked: an embedded query, how many hits, whether to scan exactly, whether
+     * to rank resumes rather than chunks, and the attribute filter.
+     */
+    public static final class ShardQuery {
+        private final float[] vector;
+        private final int limit;
+        private final boolean exact;
+        private final boolean grouped;
+        private final SearchFilter filter;
+
+        public ShardQuery(float[] vector, int limit, boolean exact, boolean grouped, SearchFilter filter) {
+            this.vector = vector;
+            this.limit = limit;
+            this.exact = exact;
+            this.grouped = grouped;
+            this.filter = filter == null ? SearchFilter.none() : filter;
+        }
+
+        public static ShardQuery fromJson(JsonNode node) {
+            JsonNode values = node.path("vector");
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) values.get(i).asDouble();
+            }
+            JsonNode f = node.path("filter");
+            List<String> sections = new ArrayList<>();
+            for (JsonNode section : f.path("sections")) {
+                sections.add(section.asText());
+            }
+            SearchFilter filter = SearchFilter.none()
+                    .withUser(f.hasNonNull("userId") ? f.get("userId").asLong() : null)
+                    .withAtsScoreBetween(f.hasNonNull("minAtsScore") ? f.get("minAtsScore").asInt() : null,
+                            f.hasNonNull("maxAtsScore") ? f.get("maxAtsScore").asInt() : null)
+                    .withSections(sections)
+                    .withCreatedBetweenMillis(f.hasNonNull("createdFromMillis") ? f.get("createdFromMillis").asLong() : null,
+                            f.hasNonNull("createdToMillis") ? f.get("createdToMillis").asLong() : null);
+            return new ShardQuery(vector, node.path("limit").asInt(10), node.path("exact").asBoolean(),
+                    node.path("grouped").asBoolean(), filter);
+        }
+
+        ObjectNode toJson(ObjectMapper mapper) {
+            ObjectNode root = mapper.createObjectNode();
+            ArrayNode values = root.putArray("vector");
+            for (float value : vector) {
+                values.add(value);
+            }
+            root.put("limit", limit);
+            root.put("exact", exact);
+            root.put("grouped", grouped);
+            if (!filter.isEmpty()) {
+                ObjectNode f = root.putObject("filter");
+                f.put("userId", filter.getUserId());
+                f.put("minAtsScore", filter.getMinAtsScore());
+                f.put("maxAtsScore", filter.getMaxAtsScore());
+                ArrayNode sections = f.putArray("sections");
+                filter.getSectionNames().forEach(sections::add);
+                f.put("createdFromMillis", filter.getCreatedFromMillis());
+                f.put("createdToMillis", filter.getCreatedToMillis());
+            }
+            return root;
+        }
+
+        public float[] getVector() {
+            return vector;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+
+        public boolean isGrouped() {
+            return grouped;
+        }
+
+        public SearchFilter getFilter() {
+            return filter;
+        }
+    }
+
+    /**
+     * Merged hits plus the shards that did not contribute (failed or timed out).
+     */
+    public static final class ShardedResult<T> {
+        private final List<T> hits;
+        private final List<Integer> failedShards;
+
+        ShardedResult(List<T> hits, List<Integer> failedShards) {
+            this.hits = hits;
+            this.failedShards = failedShards;
+        }
+
+        public List<T> getHits() {
+            return hits;
+        }
+
+        public List<Integer> getFailedShards() {
+            return failedShards;
+        }
+
+        public boolean isPartial() {
+            return !failedShards.isEmpty();
+        }
+    }
+}
@@ -3,33 +3,130 @@ package com.example.Resume.ResumeAI.service;
 import com.example.Resume.ResumeAI.entity.Resume;
 import com.example.Resume.ResumeAI.entity.ResumeEmbedding;
 import com.example.Resume.ResumeAI.repository.ResumeEmbeddingRepository;
+import com.example.Resume.ResumeAI.vector.Bm25Index;
+import com.example.Resume.ResumeAI.vector.ChunkAttributes;
+import com.example.Resume.ResumeAI.vector.ResumeHit;
+import com.example.Resume.ResumeAI.vector.ResumeHitCollector;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.TopKHeap;
+import com.example.Resume.ResumeAI.vector.VectorCodec;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorKernels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class VectorStoreService {
 
     private static final Logger logger = LoggerFactory.getLogger(VectorStoreService.class);
 
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    // Reciprocal rank fusion constant; damps the influence of the very top ranks of either list
+    private static final int RRF_K = 60;
+
     private final EmbeddingService embeddingService;
     private final ResumeEmbeddingRepository resumeEmbeddingRepository;
+    private final VectorIndex vectorIndex;
+    private final ShardCoordinator shardCoordinator;
+    private final IndexChangeNotifier indexChangeNotifier;
+
+    // Forces brute-force scoring even when the configured index is approximate (recall comparisons)
+    @Value("${vector.search.exact:false}")
+    private boolean exactSearch;
+
+    // "index" answers from the resident index once loaded; "stream" always scans the table with a cursor
+    @Value("${vector.search.mode:index}")
+    private String searchMode;
+
+    // Fuses BM25 over chunk text with the vector ranking in searchSimilar
+    @Value("${vector.search.hybrid:true}")
+    private boolean hybridSearch;
+
+    // Candidates each side contributes to the fusion
+    @Value("${vector.hybrid.candidates:50}")
+    private int hybridCandidates;
+
+    // Load the resident index in the background at startup rather than on the first search
+    @Value("${vector.index.warm-on-startup:true}")
+    private boolean warmOnStartup;
+
+    // Chunk size budget in estimated tokens, and how much of each part is repeated in the next
+    @Value("${chunking.max-tokens:300}")
+    private int chunkMaxTokens;
+
+    @Value("${chunking.overlap-tokens:40}")
+    private int chunkOverlapTokens;
+
+    // Section chunks per resume, not counting the Full Profile chunk
+    @Value("${chunking.max-chunks:40}")
+    private int maxChunksPerResume;
+
+    // The embedding model reads no further than its input limit, so longer text is not sent
+    @Value("${chunking.full-profile-max-tokens:2048}")
+    private int fullProfileMaxTokens;
+
+    private final ReentrantLock indexLoadLock = new ReentrantLock();
+    private final Bm25Index lexicalIndex = new Bm25Index();
 
     public VectorStoreService(EmbeddingService embeddingService, 
-                              ResumeEmbeddingRepository resumeEmbeddingRepository) {
+                              ResumeEmbeddingRepository resumeEmbeddingRepository,
+                              VectorIndex vectorIndex) {
+        this(embeddingService, resumeEmbeddingRepository, vectorIndex, null, null);
+    }
+
+    @Autowired
+    public VectorStoreService(EmbeddingService embeddingService,
+                              ResumeEmbeddingRepository resumeEmbeddingRepository,
+                              VectorIndex vectorIndex,
+                              ShardCoordinator shardCoordinator,
+                              IndexChangeNotifier indexChangeNotifier) {
         this.embeddingService = embeddingService;
         this.resumeEmbeddingRepository = resumeEmbeddingRepository;
+        this.vectorIndex = vectorIndex;
+        this.shardCoordinator = shardCoordinator;
+        this.indexChangeNotifier = indexChangeNotifier;
     }
 
     /**
      * Processes and indexes a resume by splitting it into smart chunks, 
      * generating vector embeddings, and persisting them in PostgreSQL.
+     *
+     * Re-indexing is incremental: the new chunk set is diffed against the stored one by content
+     * hash, so only new or changed chunks are embedded and written, and chunks that no longer
+     * exist are deleted. Re-indexing unchanged text makes no embedding calls at all. A stored
+     * chunk whose vector came from another source than the current one (a fallback vector
+     * written while the API was down, another model) counts as changed and is re-embedded.
+     *
+     * If the embedding API cannot embed every changed chunk, this throws before anything is
+     * written, so a failed re-index never leaves a resume with chunks missing.
      */
     @Transactional
     public void indexResume(Resume resume) {
@@ -40,70 +137,452 @@ public class VectorStoreService {
 
         logger.info("Starting indexing for resume ID: {}", resume.getId());
 
-        // 1. Delete existing embeddings for this resume to prevent duplicates
-        resumeEmbeddingRepository.deleteByResumeId(resume.getId());
-
-        // 2. Perform smart segmentation / chunking
-        List<ResumeChunk> chunks = chunkResumeText(resume.getExtractedText());
+        // 1. Perform smart segmentation / chunking
+        List<ResumeChunker.Chunk> chunks = chunker().chunk(resume.getExtractedText());
 
         // Add a chunk for the full resume text as well to ensure holistic matching
-        chunks.add(new ResumeChunk(resume.getExtractedText(), "Full Profile"));
+        String fullProfile = fullProfileMaxTokens > 0
+                ? ResumeChunker.truncateToTokens(resume.getExtractedText(), fullProfileMaxTokens)
+                : resume.getExtractedText();
+        chunks.add(new ResumeChunker.Chunk(fullProfile, "Full Profile"));
+
+        // 2. Match the chunks against what is already stored for this resume
+        String vectorModel = embeddingService.getVectorModel();
+        Map<String, Deque<ResumeEmbedding>> storedByHash = new HashMap<>();
+        List<Long> outdatedIds = new ArrayList<>();
+        for (ResumeEmbedding stored : resumeEmbeddingRepository.findByResumeId(resume.getId())) {
+            if (!hasConfiguredDimensions(stored)
+                    || (stored.getEmbeddingModel() != null && !stored.getEmbeddingModel().equals(vectorModel))) {
+                // Embedded at another output dimensionality or by another source (e.g. a fallback
+                // vector while the API was down): replace it like a changed chunk
+                outdatedIds.add(stored.getId());
+                continue;
+            }
+            String hash = stored.getContentHash() != null
+                    ? stored.getContentHash()
+                    : contentHash(stored.getSectionName(), stored.getContent());
+            storedByHash.computeIfAbsent(hash, k -> new ArrayDeque<>()).add(stored);
+        }
+
+        // 3. Generate embeddings only for new or changed chunks, in one batch request
+        List<ResumeEmbedding> unchanged = new ArrayList<>();
+        List<ResumeChunker.Chunk> changed = new ArrayList<>();
+        List<String> changedHashes = new ArrayList<>();
+        for (ResumeChunker.Chunk chunk : chunks) {
+            String hash = contentHash(chunk.getSectionName(), chunk.getContent());
+            Deque<ResumeEmbedding> matches = storedByHash.get(hash);
+            if (matches != null && !matches.isEmpty()) {
+                ResumeEmbedding kept = matches.poll();
+                if (kept.getContentHash() == null) {
+                    kept.setContentHash(hash);
+                }
+                unchanged.add(kept);
+                continue;
+            }
+            changed.add(chunk);
+            changedHashes.add(hash);
+        }
 
-        // 3. Generate embeddings and save chunks
         List<ResumeEmbedding> embeddingsToSave = new ArrayList<>();
-        for (ResumeChunk chunk : chunks) {
-            try {
-                List<Double> vector = embeddingService.generateEmbedding(chunk.getContent());
-                String serialized = embeddingService.serializeVector(vector);
-                
+        List<float[]> vectors = new ArrayList<>();
+        if (!changed.isEmpty()) {
+            List<String> contents = new ArrayList<>(changed.size());
+            for (ResumeChunker.Chunk chunk : changed) {
+                contents.add(chunk.getContent());
+            }
+            // Throws when the API cannot embed every chunk: nothing has been written yet, the
+            // transaction rolls back and the indexing queue retries with the stored chunks intact
+            List<float[]> embedded = embeddingService.generateIndexVectors(contents);
+            for (int i = 0; i < changed.size(); i++) {
+                ResumeChunker.Chunk chunk = changed.get(i);
                 ResumeEmbedding embeddingEntity = new ResumeEmbedding(
-                    resume, 
-                    chunk.getContent(), 
-                    chunk.getSectionName(), 
-                    serialized
+                    resume,
+                    chunk.getContent(),
+                    chunk.getSectionName(),
+                    embeddingService.encodeVector(embedded.get(i))
                 );
+                embeddingEntity.setContentHash(changedHashes.get(i));
+                embeddingEntity.setEmbeddingModel(vectorModel);
                 embeddingsToSave.add(embeddingEntity);
-            } catch (Exception e) {
-                logger.error("Failed to generate embedding for chunk in resume {}: {}", resume.getId(), e.getMessage());
+                vectors.add(embedded.get(i));
             }
         }
 
+        // 4. Delete chunks that are gone, then save the new ones
+        List<Long> staleIds = new ArrayList<>(outdatedIds);
+        for (Deque<ResumeEmbedding> leftovers : storedByHash.values()) {
+            for (ResumeEmbedding stale : leftovers) {
+                staleIds.add(stale.getId());
+            }
+        }
+        if (!staleIds.isEmpty()) {
+            resumeEmbeddingRepository.deleteAllByIdInBatch(staleIds);
+        }
         if (!embeddingsToSave.isEmpty()) {
             resumeEmbeddingRepository.saveAll(embeddingsToSave);
-            logger.info("Successfully indexed {} vector chunks for resume ID: {}", embeddingsToSave.size(), resume.getId());
+        }
+        logger.info("Indexed resume ID {}: {} chunks embedded, {} unchanged, {} removed",
+                resume.getId(), embeddingsToSave.size(), unchanged.size(), staleIds.size());
+        if (!embeddingsToSave.isEmpty() || !staleIds.isEmpty()) {
+            publishIndexChange(resume.getId(), IndexChangeNotifier.Op.INDEX, staleIds);
+        }
+
+        // 5. Mirror the committed delta into the resident index (when this shard holds the resume)
+        if (isStreamMode() || !ownsResume(resume.getId())) {
+            return;
+        }
+        Long resumeId = resume.getId();
+        Long userId = resume.getUser() != null ? resume.getUser().getId() : null;
+        Integer atsScore = resume.getAtsScore();
+        LocalDateTime createdAt = resume.getCreatedAt();
+        afterCommit(() -> {
+            for (Long staleId : staleIds) {
+                vectorIndex.remove(staleId);
+                lexicalIndex.remove(staleId);
+            }
+            int rejected = 0;
+            for (int i = 0; i < embeddingsToSave.size(); i++) {
+                ResumeEmbedding saved = embeddingsToSave.get(i);
+                if (saved.getId() != null) {
+                    if (!vectorIndex.add(saved.getId(), resumeId, vectors.get(i),
+                            new ChunkAttributes(userId, atsScore, saved.getSectionName(), createdAt))) {
+                        rejected++;
+                    }
+                    if (isHybrid()) {
+                        lexicalIndex.add(saved.getId(), resumeId, saved.getContent());
+                    }
+                }
+            }
+            // Unchanged chunks normally stay resident; restore any the index does not hold yet
+            for (ResumeEmbedding kept : unchanged) {
+                if (!vectorIndex.containsEmbedding(kept.getId())) {
+                    if (!vectorIndex.add(kept.getId(), resumeId, readVector(kept),
+                            new ChunkAttributes(userId, atsScore, kept.getSectionName(), createdAt))) {
+                        rejected++;
+                    }
+                    if (isHybrid()) {
+                        lexicalIndex.add(kept.getId(), resumeId, kept.getContent());
+                    }
+                }
+            }
+            if (rejected > 0) {
+                // Typically vectors of another dimensionality than the resident ones
+                logger.warn("Vector index rejected {} chunks of resume {}; they are stored but not searchable "
+                        + "until the index is rebuilt", rejected, resumeId);
+            }
+        });
+    }
+
+    /**
+     * Removes every stored chunk of a resume from the database and the resident index.
+     */
+    @Transactional
+    public void deleteResume(Long resumeId) {
+        resumeEmbeddingRepository.deleteByResumeId(resumeId);
+        publishIndexChange(resumeId, IndexChangeNotifier.Op.DELETE, List.of());
+        afterCommit(() -> {
+            vectorIndex.removeResume(resumeId);
+            lexicalIndex.removeResume(resumeId);
+        });
+    }
+
+    /**
+     * Applies a change another instance committed to the resident index: drops the chunks it
+     * removed and adds the resume's stored chunks that are not resident yet. Reading the table
+     * rather than trusting the event means a late event never resurrects an older state.
+     *
+     * A no-op until the index is loaded, since the load reads the committed rows anyway; a load
+     * in progress is waited for rather than patched halfway.
+     */
+    @Transactional(readOnly = true)
+    public void applyIndexChange(IndexChangeNotifier.IndexChange change) {
+        if (isStreamMode()) {
+            return;
+        }
+        indexLoadLock.lock();
+        try {
+            if (!vectorIndex.isLoaded()) {
+                return;
+            }
+            long resumeId = change.getResumeId();
+            if (change.getOp() == IndexChangeNotifier.Op.DELETE || change.isResync()) {
+                vectorIndex.removeResume(resumeId);
+                lexicalIndex.removeResume(resumeId);
+                if (change.getOp() == IndexChangeNotifier.Op.DELETE) {
+                    return;
+                }
+            }
+            if (!ownsResume(resumeId)) {
+                return;
+            }
+            for (Long removedId : change.getRemovedEmbeddingIds()) {
+                vectorIndex.remove(removedId);
+                lexicalIndex.remove(removedId);
+            }
+            int added = 0;
+            for (ResumeEmbedding embedding : resumeEmbeddingRepository.findByResumeId(resumeId)) {
+                if (vectorIndex.containsEmbedding(embedding.getId()) || !hasConfiguredDimensions(embedding)) {
+                    continue;
+                }
+                vectorIndex.add(embedding.getId(), resumeId, readVector(embedding), attributesOf(embedding));
+                if (isHybrid()) {
+                    lexicalIndex.add(embedding.getId(), resumeId, embedding.getContent());
+                }
+                added++;
+            }
+            logger.debug("Applied index change v{} of resume {}: {} chunks removed, {} added",
+                    change.getVersion(), resumeId, change.getRemovedEmbeddingIds().size(), added);
+        } finally {
+            indexLoadLock.unlock();
+        }
+    }
+
+    /**
+     * Diffs the loaded resident index against the table, for when index change events may have
+     * been missed (e.g. while the listener was reconnecting).
+     */
+    @Transactional(readOnly = true)
+    public void resyncIndex() {
+        if (isStreamMode()) {
+            return;
+        }
+        indexLoadLock.lock();
+        try {
+            if (vectorIndex.isLoaded()) {
+                reconcileIndex();
+            }
+        } finally {
+            indexLoadLock.unlock();
         }
     }
 
     /**
      * Finds the overall most semantically similar resume chunks in the database for a search query.
      */
+    @Transactional(readOnly = true)
     public List<ResumeEmbedding> searchSimilar(String query, int limit) {
-        List<Double> queryVector = embeddingService.generateEmbedding(query);
-        List<ResumeEmbedding> allEmbeddings = resumeEmbeddingRepository.findAll();
-        
-        allEmbeddings.sort((re1, re2) -> {
-            double score1 = calculateCosineSimilarity(queryVector, embeddingService.deserializeVector(re1.getEmbeddingString()));
-            double score2 = calculateCosineSimilarity(queryVector, embeddingService.deserializeVector(re2.getEmbeddingString()));
-            return Double.compare(score2, score1);
-        });
+        return searchSimilar(query, limit, exactSearch);
+    }
 
-        return allEmbeddings.subList(0, Math.min(limit, allEmbeddings.size()));
+    /**
+     * Variant of {@link #searchSimilar(String, int)} that can force an exact scan, e.g. to measure
+     * the recall of an approximate index against the brute-force ranking. Exact searches are
+     * pure vector rankings; otherwise, with hybrid search on, BM25 and vector candidates are
+     * fused with reciprocal rank fusion.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumeEmbedding> searchSimilar(String query, int limit, boolean exact) {
+        if (isSharded()) {
+            float[] queryVector = embeddingService.generateQueryVector(query);
+            return loadInRankOrder(shardCoordinator.searchChunks(queryVector, limit, exact, SearchFilter.none(),
+                    () -> searchShardChunks(queryVector, limit, exact, SearchFilter.none())).getHits());
+        }
+        boolean indexReady = ensureIndexLoaded();
+        boolean hybrid = isHybrid() && !exact && lexicalIndex.isLoaded();
+        int candidates = hybrid ? Math.max(limit, hybridCandidates) : limit;
+
+        // Lexical scoring runs while the (remote) query embedding is generated
+        CompletableFuture<List<VectorHit>> lexical = hybrid
+                ? CompletableFuture.supplyAsync(() -> lexicalIndex.search(query, candidates))
+                : CompletableFuture.completedFuture(Collections.emptyList());
+        float[] queryVector = embeddingService.generateQueryVector(query);
+        List<VectorHit> lexicalHits = lexical.join();
+
+        List<VectorHit> vectorHits;
+        if (!indexReady) {
+            vectorHits = streamScan(queryVector, candidates, SearchFilter.none());
+        } else {
+            int depth = Math.max(candidates, vectorIndex.rerankDepth());
+            List<VectorHit> hits = exact
+                    ? vectorIndex.searchExact(queryVector, depth)
+                    : vectorIndex.search(queryVector, depth);
+            vectorHits = rerankIfApproximate(queryVector, hits, candidates);
+        }
+        if (!hybrid) {
+            return loadInRankOrder(vectorHits);
+        }
+        return loadInRankOrder(fuseReciprocalRank(vectorHits, lexicalHits, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResumeMatch> searchSimilarResumes(String query, int limit) {
+        return searchSimilarResumes(query, limit, false);
+    }
+
+    /**
+     * Top {@code limit} distinct resumes for a query, each with its best chunk and the max/mean
+     * cosine over its chunks, so callers get exactly {@code limit} candidates (when that many
+     * exist) without over-fetching chunks and de-duplicating. With hybrid search on, the vector
+     * and BM25 resume rankings are fused with reciprocal rank fusion; {@code exact} scores every
+     * stored vector instead of using the resident index. With sharding on, every shard ranks its
+     * own resumes and the lists are merged.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumeMatch> searchSimilarResumes(String query, int limit, boolean exact) {
+        return searchSimilarResumes(query, limit, exact, SearchFilter.none());
+    }
+
+    /**
+     * {@link #searchSimilarResumes(String, int, boolean)} restricted to chunks matching
+     * {@code filter}. A non-empty filter is applied inside the index before scoring when the index
+     * keeps chunk attributes, otherwise by the table scan before vectors are decoded. Filtered
+     * searches rank by vector similarity only.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumeMatch> searchSimilarResumes(String query, int limit, boolean exact, SearchFilter filter) {
+        if (isSharded()) {
+            float[] queryVector = embeddingService.generateQueryVector(query);
+            return toMatches(shardCoordinator.searchResumes(queryVector, limit, exact, filter,
+                    () -> searchShardResumes(queryVector, limit, exact, filter)).getHits());
+        }
+        if (filter != null && !filter.isEmpty()) {
+            boolean indexReady = ensureIndexLoaded();
+            float[] queryVector = embeddingService.generateQueryVector(query);
+            if (!exact && indexReady && vectorIndex.supportsFilters()) {
+                return toMatches(vectorIndex.searchGrouped(queryVector, limit, filter));
+            }
+            ResumeHitCollector collector = new ResumeHitCollector();
+            scanStoredVectors(queryVector, filter, collector::accept);
+            return toMatches(collector.top(limit));
+        }
+
+        boolean indexReady = ensureIndexLoaded();
+        boolean hybrid = isHybrid() && !exact && indexReady && lexicalIndex.isLoaded();
+        int candidates = hybrid ? Math.max(limit, hybridCandidates) : limit;
+
+        CompletableFuture<List<ResumeHit>> lexical = hybrid
+                ? CompletableFuture.supplyAsync(() -> lexicalIndex.searchGrouped(query, candidates))
+                : CompletableFuture.completedFuture(Collections.emptyList());
+        float[] queryVector = embeddingService.generateQueryVector(query);
+        List<ResumeHit> lexicalHits = lexical.join();
+
+        List<ResumeHit> vectorHits;
+        if (exact || !indexReady) {
+            ResumeHitCollector collector = new ResumeHitCollector();
+            scanStoredVectors(queryVector, SearchFilter.none(), collector::accept);
+            vectorHits = collector.top(candidates);
+        } else {
+            vectorHits = searchGroupedReranked(queryVector, candidates);
+        }
+        List<ResumeHit> ranked = hybrid
+                ? fuseResumeRankings(queryVector, vectorHits, lexicalHits, limit)
+                : vectorHits;
+        return toMatches(ranked);
+    }
+
+    /**
+     * Chunks matching {@code filter}, most similar first; a filter on the owning user searches
+     * only that user's partition of the index (e.g. coaching across all of a user's resumes).
+     * Filtered searches rank by vector similarity only.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumeEmbedding> searchSimilar(String query, int limit, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return searchSimilar(query, limit);
+        }
+        if (isSharded()) {
+            float[] queryVector = embeddingService.generateQueryVector(query);
+            return loadInRankOrder(shardCoordinator.searchChunks(queryVector, limit, false, filter,
+                    () -> searchShardChunks(queryVector, limit, false, filter)).getHits());
+        }
+        boolean indexReady = ensureIndexLoaded();
+        float[] queryVector = embeddingService.generateQueryVector(query);
+        List<VectorHit> hits = indexReady && vectorIndex.supportsFilters()
+                ? vectorIndex.search(queryVector, limit, filter)
+                : streamScan(queryVector, limit, filter);
+        return loadInRankOrder(hits);
+    }
+
+    /**
+     * This shard's top {@code limit} chunks for an already embedded query - the answer to a shard
+     * search request, and the local part of a sharded search. Served from the resident index
+     * once it is loaded, otherwise by scanning the rows of the resumes this shard owns.
+     */
+    @Transactional(readOnly = true)
+    public List<VectorHit> searchShardChunks(float[] queryVector, int limit, boolean exact, SearchFilter filter) {
+        boolean filtered = filter != null && !filter.isEmpty();
+        boolean indexReady = ensureIndexLoaded();
+        if (!indexReady || (filtered && (exact || !vectorIndex.supportsFilters()))) {
+            return streamScan(queryVector, limit, filtered ? filter : SearchFilter.none());
+        }
+        if (filtered) {
+            return vectorIndex.search(queryVector, limit, filter);
+        }
+        int depth = Math.max(limit, vectorIndex.rerankDepth());
+        List<VectorHit> hits = exact
+                ? vectorIndex.searchExact(queryVector, depth)
+                : vectorIndex.search(queryVector, depth);
+        return rerankIfApproximate(queryVector, hits, limit);
+    }
+
+    /**
+     * This shard's top {@code limit} resumes for an already embedded query; see
+     * {@link #searchShardChunks}.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumeHit> searchShardResumes(float[] queryVector, int limit, boolean exact, SearchFilter filter) {
+        boolean filtered = filter != null && !filter.isEmpty();
+        if (!exact && ensureIndexLoaded() && (!filtered || vectorIndex.supportsFilters())) {
+            return filtered
+                    ? vectorIndex.searchGrouped(queryVector, limit, filter)
+                    : searchGroupedReranked(queryVector, limit);
+        }
+        ResumeHitCollector collector = new ResumeHitCollector();
+        scanStoredVectors(queryVector, filtered ? filter : SearchFilter.none(), collector::accept);
+        return collector.top(limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResumeEmbedding> searchSimilarForUser(Long userId, String query, int limit) {
+        return searchSimilar(query, limit, SearchFilter.forUser(userId));
+    }
+
+    private List<ResumeMatch> toMatches(List<ResumeHit> ranked) {
+        List<VectorHit> bestChunks = new ArrayList<>(ranked.size());
+        for (ResumeHit hit : ranked) {
+            bestChunks.add(new VectorHit(hit.getBestEmbeddingId(), hit.getResumeId(), hit.getMaxScore()));
+        }
+        Map<Long, ResumeEmbedding> chunksById = new HashMap<>();
+        for (ResumeEmbedding chunk : loadInRankOrder(bestChunks)) {
+            chunksById.put(chunk.getId(), chunk);
+        }
+        List<ResumeMatch> matches = new ArrayList<>(ranked.size());
+        for (ResumeHit hit : ranked) {
+            ResumeEmbedding chunk = chunksById.get(hit.getBestEmbeddingId());
+            if (chunk != null) {
+                matches.add(new ResumeMatch(chunk, hit.getMaxScore(), hit.getMeanScore(), hit.getChunkCount()));
+            }
+        }
+        return matches;
     }
 
     /**
      * Scopes similarity search to chunks within a single candidate's resume (highly useful for localized context extraction).
      */
+    @Transactional(readOnly = true)
     public List<ResumeEmbedding> searchSimilarForResume(Long resumeId, String query, int limit) {
-        List<Double> queryVector = embeddingService.generateEmbedding(query);
-        List<ResumeEmbedding> resumeEmbeddings = resumeEmbeddingRepository.findByResumeId(resumeId);
-
-        resumeEmbeddings.sort((re1, re2) -> {
-            double score1 = calculateCosineSimilarity(queryVector, embeddingService.deserializeVector(re1.getEmbeddingString()));
-            double score2 = calculateCosineSimilarity(queryVector, embeddingService.deserializeVector(re2.getEmbeddingString()));
-            return Double.compare(score2, score1);
-        });
+        float[] queryVector = embeddingService.generateQueryVector(query);
+        if (ensureIndexLoaded() && vectorIndex.containsResume(resumeId)) {
+            int depth = Math.max(limit, vectorIndex.rerankDepth());
+            List<VectorHit> hits = vectorIndex.searchResume(resumeId, queryVector, depth);
+            return loadInRankOrder(rerankIfApproximate(queryVector, hits, limit));
+        }
 
-        return resumeEmbeddings.subList(0, Math.min(limit, resumeEmbeddings.size()));
+        // Not resident (index not loaded yet, or indexed before the current load completed): score the resume's rows once each
+        List<ResumeEmbedding> resumeEmbeddings = resumeEmbeddingRepository.findByResumeId(resumeId);
+        TopKHeap heap = new TopKHeap(Math.min(limit, resumeEmbeddings.size()));
+        for (int i = 0; i < resumeEmbeddings.size(); i++) {
+            float[] vector = readVector(resumeEmbeddings.get(i));
+            heap.offer(i, VectorKernels.cosine(queryVector, vector));
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<ResumeEmbedding> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(resumeEmbeddings.get(slots[i]));
+        }
+        return results;
     }
 
     /**
@@ -113,126 +592,584 @@ public class VectorStoreService {
         if (vec1 == null || vec2 == null || vec1.isEmpty() || vec2.isEmpty() || vec1.size() != vec2.size()) {
             return 0.0;
         }
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        for (int i = 0; i < vec1.size(); i++) {
-            dotProduct += vec1.get(i) * vec2.get(i);
-            normA += vec1.get(i) * vec1.get(i);
-            normB += vec2.get(i) * vec2.get(i);
+        return VectorKernels.cosine(embeddingService.toFloatArray(vec1), embeddingService.toFloatArray(vec2));
+    }
+
+    /**
+     * Persists the resident index (if the implementation supports it) on a fixed delay.
+     */
+    @Scheduled(fixedDelayString = "${vector.index.persist-interval-ms:300000}",
+               initialDelayString = "${vector.index.persist-interval-ms:300000}")
+    public void persistIndex() {
+        if (vectorIndex.isLoaded()) {
+            vectorIndex.persist();
         }
-        return (normA == 0.0 || normB == 0.0) ? 0.0 : (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
     }
 
     /**
-     * Smart chunking strategy: splits text by major sections or falls back to logical paragraphs.
+     * Lets the index merge sparse storage (e.g. mostly-deleted mmap segments) in the background.
      */
-    private List<ResumeChunk> chunkResumeText(String text) {
-        List<ResumeChunk> chunks = new ArrayList<>();
+    @Scheduled(fixedDelayString = "${vector.index.compact-interval-ms:600000}",
+               initialDelayString = "${vector.index.compact-interval-ms:600000}")
+    public void compactIndex() {
+        if (vectorIndex.isLoaded()) {
+            vectorIndex.compact();
+        }
+    }
 
-        // Major section headers pattern
-        Pattern sectionPattern = Pattern.compile(
-            "(?im)^(education|experience|work|employment|skills|projects|summary|objective|achievements|certifications|languages|interests)\\b"
-        );
-        Matcher matcher = sectionPattern.matcher(text);
+    @PreDestroy
+    public void persistIndexOnShutdown() {
+        persistIndex();
+    }
 
-        List<Integer> headerIndices = new ArrayList<>();
-        List<String> sectionNames = new ArrayList<>();
+    /**
+     * Loads the resident index ahead of the first search (restore + replay, or a full load).
+     * Searches arriving meanwhile scan the table instead of waiting.
+     */
+    @Transactional(readOnly = true)
+    public void warmIndex() {
+        long start = System.currentTimeMillis();
+        if (ensureIndexLoaded()) {
+            logger.info("Vector index warm in {} ms", System.currentTimeMillis() - start);
+        }
+    }
 
-        while (matcher.find()) {
-            headerIndices.add(matcher.start());
-            sectionNames.add(matcher.group().trim());
+    /**
+     * "warming" while the resident index is being loaded (or waits for the startup warm-up),
+     * "ready" once it is, "cold" when nothing has loaded it yet, and "stream" when searches
+     * always scan the table.
+     */
+    public Map<String, Object> getIndexStatus() {
+        Map<String, Object> status = new HashMap<>();
+        if (isStreamMode()) {
+            status.put("state", "stream");
+        } else if (vectorIndex.isLoaded()) {
+            status.put("state", "ready");
+            status.put("chunks", vectorIndex.size());
+        } else {
+            status.put("state", isIndexWarming() ? "warming" : "cold");
         }
+        return status;
+    }
+
+    public boolean isIndexWarming() {
+        return !isStreamMode() && !vectorIndex.isLoaded() && (warmOnStartup || indexLoadLock.isLocked());
+    }
 
-        // If headers are found, chunk by headers
-        if (!headerIndices.isEmpty()) {
-            for (int i = 0; i < headerIndices.size(); i++) {
-                int start = headerIndices.get(i);
-                int end = (i < headerIndices.size() - 1) ? headerIndices.get(i + 1) : text.length();
-                
-                String sectionContent = text.substring(start, end).trim();
-                String sectionName = capitalizeWord(sectionNames.get(i));
+    /**
+     * Loads the resident index the first time a search needs it: restores persisted state when
+     * available and reconciles it with the table, otherwise streams every stored vector into it.
+     *
+     * Returns false when the index cannot answer yet - stream mode, or another thread is still
+     * loading it - so the caller scans the table instead of queueing behind the load.
+     */
+    private boolean ensureIndexLoaded() {
+        if (vectorIndex.isLoaded()) {
+            return true;
+        }
+        if (isStreamMode() || !indexLoadLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (vectorIndex.isLoaded()) {
+                return true;
+            }
+            if (isHybrid() && !lexicalIndex.isLoaded()) {
+                loadLexicalIndex();
+            }
+            long start = System.currentTimeMillis();
+            if (vectorIndex.restore()) {
+                reconcileIndex();
+                vectorIndex.markLoaded();
+                logger.info("Restored vector index ({} chunks) in {} ms", vectorIndex.size(), System.currentTimeMillis() - start);
+                return true;
+            }
 
-                if (sectionContent.length() > 20) { // skip tiny sections
-                    // If a section is very large (e.g. experience), sub-chunk it by paragraphs
-                    if (sectionContent.length() > 1200) {
-                        subChunkLargeSection(sectionContent, sectionName, chunks);
-                    } else {
-                        chunks.add(new ResumeChunk(sectionContent, sectionName));
+            int loaded = 0;
+            int resized = 0;
+            try (Stream<Object[]> rows = resumeEmbeddingRepository.streamAllVectors()) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    if (row[0] == null || row[1] == null || !ownsResume((Long) row[1])) {
+                        continue;
+                    }
+                    float[] vector = embeddingService.readVector((byte[]) row[2], (String) row[3]);
+                    if (!hasConfiguredDimensions(vector.length)) {
+                        resized++;
+                        continue;
+                    }
+                    if (vectorIndex.add((Long) row[0], (Long) row[1], vector, rowAttributes(row))) {
+                        loaded++;
                     }
                 }
             }
-        } else {
-            // Fallback: chunk by logical paragraph breaks
-            String[] paragraphs = text.split("\\n\\n+");
-            StringBuilder currentChunk = new StringBuilder();
-            int chunkCount = 1;
-
-            for (String para : paragraphs) {
-                para = para.trim();
-                if (para.isEmpty()) continue;
-
-                if (currentChunk.length() + para.length() > 800) {
-                    if (currentChunk.length() > 0) {
-                        chunks.add(new ResumeChunk(currentChunk.toString().trim(), "Bio-Block " + chunkCount++));
-                        currentChunk.setLength(0);
-                    }
+            vectorIndex.markLoaded();
+            logger.info("Loaded {} vector chunks into the in-memory index in {} ms", loaded, System.currentTimeMillis() - start);
+            if (resized > 0) {
+                logger.warn("Skipped {} stored vectors that are not {}-dimensional; they are searchable again once their resumes are re-indexed",
+                        resized, embeddingService.getOutputDimensionality());
+            }
+            return true;
+        } finally {
+            indexLoadLock.unlock();
+        }
+    }
+
+    /**
+     * Builds the BM25 index from every stored chunk's text.
+     */
+    private void loadLexicalIndex() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        try (Stream<Object[]> rows = resumeEmbeddingRepository.streamAllContent()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                if (row[0] != null && row[1] != null && lexicalIndex.add((Long) row[0], (Long) row[1], (String) row[2])) {
+                    loaded++;
                 }
-                currentChunk.append(para).append("\n\n");
             }
-            if (currentChunk.length() > 0) {
-                chunks.add(new ResumeChunk(currentChunk.toString().trim(), "Bio-Block " + chunkCount));
+        }
+        lexicalIndex.markLoaded();
+        logger.info("Loaded {} chunks into the BM25 index in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reciprocal rank fusion: every list adds 1 / (RRF_K + rank) for each chunk it ranks, so the
+     * cosine and BM25 score scales never have to be calibrated against each other.
+     */
+    private List<VectorHit> fuseReciprocalRank(List<VectorHit> vectorHits, List<VectorHit> lexicalHits, int limit) {
+        Map<Long, Integer> candidateByEmbeddingId = new HashMap<>();
+        List<VectorHit> candidates = new ArrayList<>();
+        List<Float> fused = new ArrayList<>();
+        for (List<VectorHit> ranking : List.of(vectorHits, lexicalHits)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                VectorHit hit = ranking.get(rank);
+                float contribution = 1f / (RRF_K + rank + 1);
+                Integer candidate = candidateByEmbeddingId.get(hit.getEmbeddingId());
+                if (candidate == null) {
+                    candidateByEmbeddingId.put(hit.getEmbeddingId(), candidates.size());
+                    candidates.add(hit);
+                    fused.add(contribution);
+                } else {
+                    fused.set(candidate, fused.get(candidate) + contribution);
+                }
             }
         }
 
-        return chunks;
+        TopKHeap heap = new TopKHeap(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size(); i++) {
+            heap.offer(i, fused.get(i));
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> ranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VectorHit hit = candidates.get(slots[i]);
+            ranked.add(new VectorHit(hit.getEmbeddingId(), hit.getResumeId(), scores[i]));
+        }
+        return ranked;
     }
 
-    private void subChunkLargeSection(String sectionContent, String sectionName, List<ResumeChunk> chunks) {
-        String[] blocks = sectionContent.split("\\n{2,}");
-        StringBuilder currentSubChunk = new StringBuilder();
-        int subIndex = 1;
+    /**
+     * Reciprocal rank fusion of the vector and BM25 resume rankings. Scores reported for each
+     * resume stay cosines: resumes that only BM25 found are scored against the vector index.
+     */
+    private List<ResumeHit> fuseResumeRankings(float[] queryVector, List<ResumeHit> vectorHits,
+                                               List<ResumeHit> lexicalHits, int limit) {
+        Map<Long, ResumeHit> byResumeId = new HashMap<>();
+        Map<Long, Float> fused = new HashMap<>();
+        for (int rank = 0; rank < vectorHits.size(); rank++) {
+            ResumeHit hit = vectorHits.get(rank);
+            byResumeId.put(hit.getResumeId(), hit);
+            fused.merge(hit.getResumeId(), 1f / (RRF_K + rank + 1), Float::sum);
+        }
+        for (int rank = 0; rank < lexicalHits.size(); rank++) {
+            fused.merge(lexicalHits.get(rank).getResumeId(), 1f / (RRF_K + rank + 1), Float::sum);
+        }
 
-        for (String block : blocks) {
-            block = block.trim();
-            if (block.isEmpty()) continue;
+        List<Long> resumeIds = new ArrayList<>(fused.keySet());
+        TopKHeap heap = new TopKHeap(Math.min(limit, resumeIds.size()));
+        for (int i = 0; i < resumeIds.size(); i++) {
+            heap.offer(i, fused.get(resumeIds.get(i)));
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<ResumeHit> ranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Long resumeId = resumeIds.get(slots[i]);
+            ResumeHit hit = byResumeId.get(resumeId);
+            if (hit == null) {
+                List<VectorHit> chunks = vectorIndex.searchResume(resumeId, queryVector, Integer.MAX_VALUE);
+                ResumeHitCollector collector = new ResumeHitCollector();
+                for (VectorHit chunk : rerankIfApproximate(queryVector, chunks, chunks.size())) {
+                    collector.accept(chunk.getEmbeddingId(), chunk.getResumeId(), chunk.getScore());
+                }
+                List<ResumeHit> scored = collector.top(1);
+                if (scored.isEmpty()) {
+                    continue;
+                }
+                hit = scored.get(0);
+            }
+            ranked.add(hit);
+        }
+        return ranked;
+    }
+
+    /**
+     * Exact top-k straight from the table. Rows are read through a cursor in fetch-size pages and
+     * scored once each. Only the best {@code limit} ids are kept, so memory stays O(limit) however
+     * large the corpus grows.
+     */
+    private List<VectorHit> streamScan(float[] queryVector, int limit, SearchFilter filter) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        TopKHeap heap = new TopKHeap(limit);
+        long[] embeddingIds = new long[limit];
+        long[] resumeIds = new long[limit];
+        long scanned = scanStoredVectors(queryVector, filter, (embeddingId, resumeId, score) -> {
+            int slot;
+            if (heap.size() < limit) {
+                slot = heap.size();
+            } else if (score > heap.threshold()) {
+                slot = heap.minSlot();
+            } else {
+                return;
+            }
+            embeddingIds[slot] = embeddingId;
+            resumeIds[slot] = resumeId;
+            heap.offer(slot, score);
+        });
 
-            if (currentSubChunk.length() + block.length() > 1000) {
-                if (currentSubChunk.length() > 0) {
-                    chunks.add(new ResumeChunk(currentSubChunk.toString().trim(), sectionName + " (Part " + subIndex++ + ")"));
-                    currentSubChunk.setLength(0);
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(new VectorHit(embeddingIds[slots[i]], resumeIds[slots[i]], scores[i]));
+        }
+        logger.debug("Stream-scanned {} vector rows for top-{}", scanned, limit);
+        return hits;
+    }
+
+    /**
+     * Streams stored vectors through a cursor and scores each one matching {@code filter} once
+     * against the query; a user filter only reads that user's rows, and a shard skips resumes it
+     * does not own. Returns the number of rows read.
+     */
+    private long scanStoredVectors(float[] queryVector, SearchFilter filter, ScoredChunkConsumer consumer) {
+        long scanned = 0;
+        try (Stream<Object[]> rows = filter.getUserId() != null
+                ? resumeEmbeddingRepository.streamVectorsByUserId(filter.getUserId())
+                : resumeEmbeddingRepository.streamAllVectors()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                scanned++;
+                if (row[0] == null || row[1] == null || !ownsResume((Long) row[1])
+                        || (!filter.isEmpty() && !filter.matches(rowAttributes(row)))) {
+                    continue;
                 }
+                float[] vector = embeddingService.readVector((byte[]) row[2], (String) row[3]);
+                consumer.accept((Long) row[0], (Long) row[1], VectorKernels.cosine(queryVector, vector));
             }
-            currentSubChunk.append(block).append("\n\n");
         }
-        if (currentSubChunk.length() > 0) {
-            chunks.add(new ResumeChunk(currentSubChunk.toString().trim(), sectionName + " (Part " + subIndex + ")"));
+        return scanned;
+    }
+
+    /**
+     * Tells the other instances about a change in the current transaction (sent on commit).
+     */
+    private void publishIndexChange(long resumeId, IndexChangeNotifier.Op op, List<Long> removedEmbeddingIds) {
+        if (indexChangeNotifier != null && indexChangeNotifier.isEnabled()) {
+            indexChangeNotifier.publish(resumeId, op, removedEmbeddingIds);
         }
     }
 
-    private String capitalizeWord(String word) {
-        if (word == null || word.isEmpty()) return "";
-        return word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase();
+    private boolean isStreamMode() {
+        return "stream".equalsIgnoreCase(searchMode);
+    }
+
+    private boolean isSharded() {
+        return shardCoordinator != null && shardCoordinator.isEnabled();
+    }
+
+    private boolean ownsResume(long resumeId) {
+        return shardCoordinator == null || shardCoordinator.owns(resumeId);
+    }
+
+    // BM25 is not partitioned, so shards rank by vector similarity only
+    private boolean isHybrid() {
+        return hybridSearch && !isSharded();
     }
 
     /**
-     * Local helper class for holding text-segment representations.
+     * Brings a restored index in line with the table: drops chunks deleted since the snapshot
+     * and adds chunks written after it.
+     *
+     * Chunks are never updated in place and ids only grow, so when the ids at or below the
+     * snapshot's watermark still match the table (same count and sum) only the rows above it
+     * are replayed. Otherwise - chunks deleted since, or a transaction that committed a lower id
+     * after the snapshot - every id is diffed against the table. A shard always diffs, against
+     * the rows of the resumes it owns, since the count and sum cover every shard.
      */
-    private static class ResumeChunk {
-        private final String content;
-        private final String sectionName;
+    private void reconcileIndex() {
+        long watermark = vectorIndex.watermark();
+        long[] residentIds = vectorIndex.embeddingIds();
+        long residentSum = 0;
+        for (long embeddingId : residentIds) {
+            residentSum += embeddingId;
+        }
+        List<Object[]> fingerprint = isSharded()
+                ? Collections.emptyList()
+                : resumeEmbeddingRepository.countAndSumIdsUpTo(watermark);
+        if (!fingerprint.isEmpty()) {
+            Object[] row = fingerprint.get(0);
+            if (((Number) row[0]).longValue() == residentIds.length && ((Number) row[1]).longValue() == residentSum) {
+                int replayed = 0;
+                try (Stream<Object[]> rows = resumeEmbeddingRepository.streamVectorsAfter(watermark)) {
+                    Iterator<Object[]> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] vectorRow = iterator.next();
+                        if (vectorRow[0] == null || vectorRow[1] == null) {
+                            continue;
+                        }
+                        float[] vector = embeddingService.readVector((byte[]) vectorRow[2], (String) vectorRow[3]);
+                        if (hasConfiguredDimensions(vector.length)
+                                && vectorIndex.add((Long) vectorRow[0], (Long) vectorRow[1], vector, rowAttributes(vectorRow))) {
+                            replayed++;
+                        }
+                    }
+                }
+                logger.info("Replayed {} chunks written after the index snapshot (watermark {})", replayed, watermark);
+                return;
+            }
+        }
+
+        Set<Long> stored = new HashSet<>();
+        for (Object[] row : resumeEmbeddingRepository.findAllIdPairs()) {
+            if (row[1] != null && ownsResume((Long) row[1])) {
+                stored.add((Long) row[0]);
+            }
+        }
+
+        int removed = 0;
+        for (long embeddingId : vectorIndex.embeddingIds()) {
+            if (!stored.remove(embeddingId)) {
+                vectorIndex.remove(embeddingId);
+                removed++;
+            }
+        }
+
+        // Whatever is left in 'stored' was not in the snapshot
+        List<Long> missing = new ArrayList<>(stored);
+        for (int from = 0; from < missing.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(missing.size(), from + RECONCILE_BATCH_SIZE));
+            for (ResumeEmbedding embedding : resumeEmbeddingRepository.findAllById(batch)) {
+                if (embedding.getResume() != null && hasConfiguredDimensions(embedding)) {
+                    vectorIndex.add(embedding.getId(), embedding.getResume().getId(), readVector(embedding),
+                            attributesOf(embedding));
+                }
+            }
+        }
+        logger.info("Reconciled restored vector index: {} stale chunks removed, {} new chunks added", removed, missing.size());
+    }
+
+    /**
+     * Grouped index search whose max and mean are exact cosines. An approximate index
+     * over-fetches {@code rerankDepth()} resumes; their chunks are re-scored against the
+     * full-precision vectors and regrouped, so the order matches an exact scan.
+     */
+    private List<ResumeHit> searchGroupedReranked(float[] queryVector, int limit) {
+        int rerankDepth = vectorIndex.rerankDepth();
+        if (rerankDepth <= 0) {
+            return vectorIndex.searchGrouped(queryVector, limit);
+        }
+        List<VectorHit> chunks = new ArrayList<>();
+        for (ResumeHit candidate : vectorIndex.searchGrouped(queryVector, Math.max(limit, rerankDepth))) {
+            chunks.addAll(vectorIndex.searchResume(candidate.getResumeId(), queryVector, Integer.MAX_VALUE));
+        }
+        ResumeHitCollector collector = new ResumeHitCollector();
+        for (VectorHit hit : rerankIfApproximate(queryVector, chunks, chunks.size())) {
+            collector.accept(hit.getEmbeddingId(), hit.getResumeId(), hit.getScore());
+        }
+        return collector.top(limit);
+    }
+
+    /**
+     * When the index scores approximately (e.g. int8 codes), re-scores its candidates against the
+     * full-precision vectors stored in the table and keeps the best {@code limit}.
+     */
+    private List<VectorHit> rerankIfApproximate(float[] queryVector, List<VectorHit> hits, int limit) {
+        if (vectorIndex.rerankDepth() <= 0 || hits.isEmpty()) {
+            return hits.size() > limit ? hits.subList(0, limit) : hits;
+        }
+        Map<Long, VectorHit> byId = new HashMap<>();
+        for (VectorHit hit : hits) {
+            byId.put(hit.getEmbeddingId(), hit);
+        }
+        List<VectorHit> candidates = new ArrayList<>(hits.size());
+        TopKHeap heap = new TopKHeap(Math.min(limit, hits.size()));
+        for (Object[] row : resumeEmbeddingRepository.findVectorsByIds(byId.keySet())) {
+            VectorHit hit = byId.get((Long) row[0]);
+            float[] vector = embeddingService.readVector((byte[]) row[1], (String) row[2]);
+            heap.offer(candidates.size(), VectorKernels.cosine(queryVector, vector));
+            candidates.add(hit);
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> reranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VectorHit hit = candidates.get(slots[i]);
+            reranked.add(new VectorHit(hit.getEmbeddingId(), hit.getResumeId(), scores[i]));
+        }
+        return reranked;
+    }
+
+    /**
+     * Fetches the entities behind a ranked hit list, preserving the rank order.
+     */
+    private List<ResumeEmbedding> loadInRankOrder(List<VectorHit> hits) {
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (VectorHit hit : hits) {
+            ids.add(hit.getEmbeddingId());
+        }
+        Map<Long, ResumeEmbedding> byId = new HashMap<>();
+        for (ResumeEmbedding embedding : resumeEmbeddingRepository.findAllById(ids)) {
+            byId.put(embedding.getId(), embedding);
+        }
+        List<ResumeEmbedding> ordered = new ArrayList<>(hits.size());
+        for (Long id : ids) {
+            ResumeEmbedding embedding = byId.get(id);
+            if (embedding != null) {
+                ordered.add(embedding);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Hex SHA-256 of a chunk's section name and content, the identity used to diff re-indexed
+     * chunk sets. DatabaseMigration backfills the same value in SQL for rows stored before it.
+     */
+    static String contentHash(String sectionName, String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((sectionName == null ? "" : sectionName).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update((content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Attributes from the trailing columns of a {@code streamAllVectors} row.
+     */
+    private static ChunkAttributes rowAttributes(Object[] row) {
+        return new ChunkAttributes((Long) row[4], (Integer) row[5], (String) row[6], (LocalDateTime) row[7]);
+    }
+
+    private static ChunkAttributes attributesOf(ResumeEmbedding embedding) {
+        Resume resume = embedding.getResume();
+        return new ChunkAttributes(resume.getUser() != null ? resume.getUser().getId() : null,
+                resume.getAtsScore(), embedding.getSectionName(), resume.getCreatedAt());
+    }
+
+    private float[] readVector(ResumeEmbedding embedding) {
+        return embeddingService.readVector(embedding.getEmbeddingData(), embedding.getEmbeddingString());
+    }
+
+    /**
+     * False when an output dimensionality is configured and the stored vector has another
+     * length, i.e. it was embedded before the setting changed and cannot share the index.
+     */
+    private boolean hasConfiguredDimensions(ResumeEmbedding embedding) {
+        if (embeddingService.getOutputDimensionality() <= 0) {
+            return true;
+        }
+        int dimensions = embedding.getEmbeddingData() != null
+                ? VectorCodec.dimensions(embedding.getEmbeddingData())
+                : readVector(embedding).length;
+        return hasConfiguredDimensions(dimensions);
+    }
+
+    private boolean hasConfiguredDimensions(int dimensions) {
+        int expected = embeddingService.getOutputDimensionality();
+        return expected <= 0 || dimensions == expected;
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, or immediately when there is none.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Chunker for the configured budget; unset values (unit tests) fall back to the defaults.
+     */
+    private ResumeChunker chunker() {
+        return new ResumeChunker(
+                chunkMaxTokens > 0 ? chunkMaxTokens : 300,
+                chunkMaxTokens > 0 ? chunkOverlapTokens : 40,
+                maxChunksPerResume > 0 ? maxChunksPerResume : 40);
+    }
+
+    @FunctionalInterface
+    private interface ScoredChunkConsumer {
+        void accept(long embeddingId, long resumeId, float score);
+    }
+
+    /**
+     * A candidate resume from {@link #searchSimilarResumes}: its best-matching chunk plus the
+     * max/mean cosine over its chunks.
+     */
+    public static class ResumeMatch {
+        private final ResumeEmbedding bestChunk;
+        private final float maxScore;
+        private final float meanScore;
+        private final int chunkCount;
+
+        public ResumeMatch(ResumeEmbedding bestChunk, float maxScore, float meanScore, int chunkCount) {
+            this.bestChunk = bestChunk;
+            this.maxScore = maxScore;
+            this.meanScore = meanScore;
+            this.chunkCount = chunkCount;
+        }
+
+        public ResumeEmbedding getBestChunk() {
+            return bestChunk;
+        }
 
-        public ResumeChunk(String content, String sectionName) {
-            this.content = content;
-            this.sectionName = sectionName;
+        public float getMaxScore() {
+            return maxScore;
         }
 
-        public String getContent() {
-            return content;
+        public float getMeanScore() {
+            return meanScore;
         }
 
-        public String getSectionName() {
-            return sectionName;
+        public int getChunkCount() {
+            return chunkCount;
         }
     }
 }
@@ -0,0 +1,196 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column store of {@link ChunkAttributes} addressed by the owning index's slot (or node) number,
+ * plus one slot bitset per user. A {@link SearchFilter} is compiled into a bitset of allowed
+ * slots before any vector is scored: user filters start from that user's partition, and the
+ * remaining predicates are checked against primitive columns.
+ *
+ * Not thread-safe; the owning index guards it with its own lock.
+ */
+final class AttributeColumns {
+
+    private static final long UNKNOWN_USER = Long.MIN_VALUE;
+    private static final int UNKNOWN_ATS = Integer.MIN_VALUE;
+    private static final long UNKNOWN_TIME = Long.MIN_VALUE;
+    private static final int UNKNOWN_SECTION = -1;
+
+    private long[] userIds = new long[0];
+    private int[] atsScores = new int[0];
+    private int[] sectionCodes = new int[0];
+    private long[] createdAt = new long[0];
+
+    private final Map<Long, BitSet> slotsByUser = new HashMap<>();
+    private final Map<String, Integer> codeBySection = new HashMap<>();
+    private final List<String> sections = new ArrayList<>();
+
+    void ensureCapacity(int capacity) {
+        if (capacity <= userIds.length) {
+            return;
+        }
+        int oldLength = userIds.length;
+        userIds = Arrays.copyOf(userIds, capacity);
+        atsScores = Arrays.copyOf(atsScores, capacity);
+        sectionCodes = Arrays.copyOf(sectionCodes, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        Arrays.fill(userIds, oldLength, capacity, UNKNOWN_USER);
+        Arrays.fill(atsScores, oldLength, capacity, UNKNOWN_ATS);
+        Arrays.fill(sectionCodes, oldLength, capacity, UNKNOWN_SECTION);
+        Arrays.fill(createdAt, oldLength, capacity, UNKNOWN_TIME);
+    }
+
+    void set(int slot, ChunkAttributes attributes) {
+        clear(slot);
+        if (attributes == null) {
+            return;
+        }
+        if (attributes.getUserId() != null) {
+            userIds[slot] = attributes.getUserId();
+            slotsByUser.computeIfAbsent(attributes.getUserId(), k -> new BitSet()).set(slot);
+        }
+        atsScores[slot] = attributes.getAtsScore() != null ? attributes.getAtsScore() : UNKNOWN_ATS;
+        sectionCodes[slot] = attributes.getSectionName() != null ? sectionCode(attributes.getSectionName()) : UNKNOWN_SECTION;
+        createdAt[slot] = attributes.getCreatedAtMillis() != null ? attributes.getCreatedAtMillis() : UNKNOWN_TIME;
+    }
+
+    ChunkAttributes get(int slot) {
+        return new ChunkAttributes(
+                userIds[slot] != UNKNOWN_USER ? userIds[slot] : null,
+                atsScores[slot] != UNKNOWN_ATS ? atsScores[slot] : null,
+                sectionCodes[slot] != UNKNOWN_SECTION ? sections.get(sectionCodes[slot]) : null,
+                createdAt[slot] != UNKNOWN_TIME ? createdAt[slot] : null);
+    }
+
+    void clear(int slot) {
+        if (slot >= userIds.length) {
+            return;
+        }
+        if (userIds[slot] != UNKNOWN_USER) {
+            BitSet partition = slotsByUser.get(userIds[slot]);
+            if (partition != null) {
+                partition.clear(slot);
+                if (partition.isEmpty()) {
+                    slotsByUser.remove(userIds[slot]);
+                }
+            }
+        }
+        userIds[slot] = UNKNOWN_USER;
+        atsScores[slot] = UNKNOWN_ATS;
+        sectionCodes[slot] = UNKNOWN_SECTION;
+        createdAt[slot] = UNKNOWN_TIME;
+    }
+
+    /**
+     * Moves the attributes of {@code from} into {@code to} (swap-delete compaction).
+     */
+    void move(int from, int to) {
+        set(to, get(from));
+        clear(from);
+    }
+
+    void reset() {
+        Arrays.fill(userIds, UNKNOWN_USER);
+        Arrays.fill(atsScores, UNKNOWN_ATS);
+        Arrays.fill(sectionCodes, UNKNOWN_SECTION);
+        Arrays.fill(createdAt, UNKNOWN_TIME);
+        slotsByUser.clear();
+    }
+
+    /**
+     * Slots in {@code [0, slotCount)} that are not {@code excluded} and satisfy the filter.
+     */
+    BitSet select(SearchFilter filter, int slotCount, BitSet excluded) {
+        BitSet allowed;
+        if (filter.getUserId() != null) {
+            BitSet partition = slotsByUser.get(filter.getUserId());
+            if (partition == null) {
+                return new BitSet();
+            }
+            allowed = (BitSet) partition.clone();
+        } else {
+            allowed = new BitSet(slotCount);
+            allowed.set(0, slotCount);
+        }
+        if (excluded != null) {
+            allowed.andNot(excluded);
+        }
+
+        boolean[] acceptedSections = null;
+        if (!filter.getSectionNames().isEmpty()) {
+            acceptedSections = new boolean[sections.size()];
+            boolean any = false;
+            for (String section : filter.getSectionNames()) {
+                Integer code = codeBySection.get(section);
+                if (code != null) {
+                    acceptedSections[code] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return new BitSet();
+            }
+        }
+        boolean checkAts = filter.getMinAtsScore() != null || filter.getMaxAtsScore() != null;
+        boolean checkCreated = filter.getCreatedFromMillis() != null || filter.getCreatedToMillis() != null;
+        if (acceptedSections == null && !checkAts && !checkCreated) {
+            return allowed;
+        }
+        int minAts = filter.getMinAtsScore() != null ? filter.getMinAtsScore() : Integer.MIN_VALUE + 1;
+        int maxAts = filter.getMaxAtsScore() != null ? filter.getMaxAtsScore() : Integer.MAX_VALUE;
+        long from = filter.getCreatedFromMillis() != null ? filter.getCreatedFromMillis() : Long.MIN_VALUE + 1;
+        long to = filter.getCreatedToMillis() != null ? filter.getCreatedToMillis() : Long.MAX_VALUE;
+        for (int slot = allowed.nextSetBit(0); slot >= 0; slot = allowed.nextSetBit(slot + 1)) {
+            boolean keep = (!checkAts || (atsScores[slot] != UNKNOWN_ATS && atsScores[slot] >= minAts && atsScores[slot] <= maxAts))
+                    && (acceptedSections == null || (sectionCodes[slot] != UNKNOWN_SECTION && acceptedSections[sectionCodes[slot]]))
+                    && (!checkCreated || (createdAt[slot] != UNKNOWN_TIME && createdAt[slot] >= from && createdAt[slot] < to));
+            if (!keep) {
+                allowed.clear(slot);
+            }
+        }
+        return allowed;
+    }
+
+    void write(DataOutput out, int slot) throws IOException {
+        out.writeLong(userIds[slot]);
+        out.writeInt(atsScores[slot]);
+        out.writeLong(createdAt[slot]);
+        boolean hasSection = sectionCodes[slot] != UNKNOWN_SECTION;
+        out.writeBoolean(hasSection);
+        if (hasSection) {
+            out.writeUTF(sections.get(sectionCodes[slot]));
+        }
+    }
+
+    void read(DataInput in, int slot) throws IOException {
+        long userId = in.readLong();
+        int atsScore = in.readInt();
+        long created = in.readLong();
+        String section = in.readBoolean() ? in.readUTF() : null;
+        set(slot, new ChunkAttributes(
+                userId != UNKNOWN_USER ? userId : null,
+                atsScore != UNKNOWN_ATS ? atsScore : null,
+                section,
+                created != UNKNOWN_TIME ? created : null));
+    }
+
+    private int sectionCode(String sectionName) {
+        String normalized = SearchFilter.normalizeSection(sectionName);
+        Integer code = codeBySection.get(normalized);
+        if (code == null) {
+            code = sections.size();
+            codeBySection.put(normalized, code);
+            sections.add(SearchFilter.baseSectionName(sectionName));
+        }
+        return code;
+    }
+}
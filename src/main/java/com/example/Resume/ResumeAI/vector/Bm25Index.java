@@ -0,0 +1,342 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over chunk text scored with Okapi BM25. It complements the vector
+ * indexes on exact tokens that embeddings blur, such as skill names ("Kubernetes", "PySpark",
+ * "C++").
+ *
+ * Postings are primitive (slot, term frequency) arrays per term. Deletes tombstone the slot, and
+ * the postings are rewritten once more than half of the slots are dead.
+ */
+public class Bm25Index {
+
+    // Keeps tech tokens such as c++, c#, node.js and .net intact; a sentence-ending dot is not part of a token
+    private static final Pattern TOKEN = Pattern.compile("\\.?[\\p{L}\\p{N}][\\p{L}\\p{N}+#]*(?:\\.[\\p{L}\\p{N}][\\p{L}\\p{N}+#]*)*");
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MIN_SLOTS_FOR_COMPACTION = 1000;
+
+    private final float k1;
+    private final float b;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private long[] embeddingIds = new long[INITIAL_CAPACITY];
+    private long[] resumeIds = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    // Postings of each slot's distinct terms, to keep document frequencies live on delete
+    private Postings[][] postingsBySlot = new Postings[INITIAL_CAPACITY][];
+    private int slotCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long totalLength;
+
+    private final Map<Long, Integer> slotByEmbeddingId = new HashMap<>();
+    private final Map<Long, List<Long>> embeddingIdsByResumeId = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public Bm25Index() {
+        this(1.2f, 0.75f);
+    }
+
+    public Bm25Index(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Lower-cased tokens of {@code text}.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        Matcher matcher = TOKEN.matcher(text.toLowerCase());
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds (or replaces) a chunk. Returns false when the text has no indexable tokens.
+     */
+    public boolean add(long embeddingId, long resumeId, String content) {
+        List<String> tokens = tokenize(content);
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                removeSlot(existing);
+            }
+            if (tokens.isEmpty()) {
+                return false;
+            }
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+
+            ensureCapacity(slotCount + 1);
+            int slot = slotCount++;
+            embeddingIds[slot] = embeddingId;
+            resumeIds[slot] = resumeId;
+            lengths[slot] = tokens.size();
+            totalLength += tokens.size();
+            Postings[] slotPostings = new Postings[frequencies.size()];
+            int t = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), k -> new Postings());
+                postings.add(slot, entry.getValue());
+                slotPostings[t++] = postings;
+            }
+            postingsBySlot[slot] = slotPostings;
+            slotByEmbeddingId.put(embeddingId, slot);
+            embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(embeddingId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long embeddingId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByEmbeddingId.get(embeddingId);
+            if (slot != null) {
+                removeSlot(slot);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeResume(long resumeId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null) {
+                return;
+            }
+            for (Long embeddingId : new ArrayList<>(ids)) {
+                Integer slot = slotByEmbeddingId.get(embeddingId);
+                if (slot != null) {
+                    removeSlot(slot);
+                }
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-k chunks by BM25 over the distinct query terms. Scores are BM25 sums, not cosines.
+     */
+    public List<VectorHit> search(String query, int k) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || k <= 0 || slotCount == deletedCount) {
+                return Collections.emptyList();
+            }
+            float[] scores = new float[slotCount];
+            BitSet touched = new BitSet(slotCount);
+            accumulate(terms, scores, touched);
+
+            TopKHeap heap = new TopKHeap(Math.min(k, touched.cardinality()));
+            for (int slot = touched.nextSetBit(0); slot >= 0; slot = touched.nextSetBit(slot + 1)) {
+                heap.offer(slot, scores[slot]);
+            }
+            int[] slots = new int[heap.size()];
+            float[] best = new float[heap.size()];
+            int count = heap.drainDescending(slots, best);
+            List<VectorHit> hits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                hits.add(new VectorHit(embeddingIds[slots[i]], resumeIds[slots[i]], best[i]));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top {@code n} distinct resumes by their best-matching chunk, with max/mean BM25 over the
+     * chunks that matched any query term.
+     */
+    public List<ResumeHit> searchGrouped(String query, int n) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || n <= 0 || slotCount == deletedCount) {
+                return Collections.emptyList();
+            }
+            float[] scores = new float[slotCount];
+            BitSet touched = new BitSet(slotCount);
+            accumulate(terms, scores, touched);
+
+            ResumeHitCollector collector = new ResumeHitCollector();
+            for (int slot = touched.nextSetBit(0); slot >= 0; slot = touched.nextSetBit(slot + 1)) {
+                collector.accept(embeddingIds[slot], resumeIds[slot], scores[slot]);
+            }
+            return collector.top(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    // Caller must hold a lock.
+    private void accumulate(Set<String> terms, float[] scores, BitSet touched) {
+        int live = slotCount - deletedCount;
+        float averageLength = (float) totalLength / live;
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings == null || postings.liveCount == 0) {
+                continue;
+            }
+            float idf = (float) Math.log(1.0 + (live - postings.liveCount + 0.5) / (postings.liveCount + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+                if (deleted.get(slot)) {
+                    continue;
+                }
+                float tf = postings.frequencies[i];
+                float norm = k1 * (1f - b + b * lengths[slot] / averageLength);
+                scores[slot] += idf * (tf * (k1 + 1f)) / (tf + norm);
+                touched.set(slot);
+            }
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void removeSlot(int slot) {
+        long embeddingId = embeddingIds[slot];
+        slotByEmbeddingId.remove(embeddingId);
+        List<Long> siblings = embeddingIdsByResumeId.get(resumeIds[slot]);
+        if (siblings != null) {
+            siblings.remove(embeddingId);
+            if (siblings.isEmpty()) {
+                embeddingIdsByResumeId.remove(resumeIds[slot]);
+            }
+        }
+        deleted.set(slot);
+        deletedCount++;
+        totalLength -= lengths[slot];
+        // Document frequencies must only count live chunks
+        for (Postings postings : postingsBySlot[slot]) {
+            postings.liveCount--;
+        }
+        postingsBySlot[slot] = null;
+    }
+
+    // Caller must hold the write lock.
+    private void compactIfSparse() {
+        if (slotCount < MIN_SLOTS_FOR_COMPACTION || deletedCount * 2 < slotCount) {
+            return;
+        }
+        int[] remap = new int[slotCount];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (deleted.get(slot)) {
+                remap[slot] = -1;
+                continue;
+            }
+            remap[slot] = next;
+            embeddingIds[next] = embeddingIds[slot];
+            resumeIds[next] = resumeIds[slot];
+            lengths[next] = lengths[slot];
+            postingsBySlot[next] = postingsBySlot[slot];
+            slotByEmbeddingId.put(embeddingIds[next], next);
+            next++;
+        }
+        postingsByTerm.values().removeIf(postings -> postings.remap(remap) == 0);
+        Arrays.fill(postingsBySlot, next, slotCount, null);
+        slotCount = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= embeddingIds.length) {
+            return;
+        }
+        int newCapacity = embeddingIds.length;
+        while (newCapacity < required) {
+            newCapacity <<= 1;
+        }
+        embeddingIds = Arrays.copyOf(embeddingIds, newCapacity);
+        resumeIds = Arrays.copyOf(resumeIds, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        postingsBySlot = Arrays.copyOf(postingsBySlot, newCapacity);
+    }
+
+    /**
+     * (slot, term frequency) pairs of one term; {@code liveCount} is its document frequency.
+     */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int liveCount;
+
+        void add(int slot, int frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+            liveCount++;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int target = remap[slots[i]];
+                if (target >= 0) {
+                    slots[kept] = target;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            liveCount = kept;
+            return kept;
+        }
+    }
+}
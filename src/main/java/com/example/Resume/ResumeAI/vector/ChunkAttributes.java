@@ -0,0 +1,51 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Filterable metadata of one indexed chunk: the owning user, the resume's ATS score and upload
+ * time, and the chunk's section name. Any field may be unknown (null), in which case no filter
+ * on that field matches the chunk.
+ */
+public final class ChunkAttributes {
+
+    private final Long userId;
+    private final Integer atsScore;
+    private final String sectionName;
+    private final Long createdAtMillis;
+
+    public ChunkAttributes(Long userId, Integer atsScore, String sectionName, LocalDateTime createdAt) {
+        this(userId, atsScore, sectionName, toMillis(createdAt));
+    }
+
+    public ChunkAttributes(Long userId, Integer atsScore, String sectionName, Long createdAtMillis) {
+        this.userId = userId;
+        this.atsScore = atsScore;
+        this.sectionName = sectionName;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getAtsScore() {
+        return atsScore;
+    }
+
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    public Long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Wall-clock timestamps are encoded as if they were UTC, so the round trip is exact.
+     */
+    static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,885 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) over pre-normalized chunk vectors.
+ *
+ * Tuning:
+ *  - {@code m}: links per node on upper layers (2m on layer 0); higher means better recall and more memory.
+ *  - {@code efConstruction}: candidate list size while inserting; higher means a better graph and slower inserts.
+ *  - {@code efSearch}: candidate list size while querying; the main recall/latency knob.
+ *
+ * Deletes and replacing adds only tombstone nodes so the graph stays navigable and writes never
+ * hold the lock for a rebuild; once more than half of the nodes are tombstoned the scheduled
+ * {@link #compact()} rebuilds the graph from the live ones.
+ *
+ * Filtered searches compile the filter into a bitset of allowed nodes first. Selective filters
+ * (few matching nodes) are answered by scoring just those nodes; broad ones walk the graph as
+ * usual but only admit allowed nodes into the result, widening the beam until k are found. The whole graph can be persisted to
+ * and restored from a versioned binary file so restarts do not rebuild it from scratch.
+ */
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HnswVectorIndex.class);
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 2;
+    private static final int INITIAL_CAPACITY = 256;
+    // Filters matching fewer nodes than this many beams' worth (or 1/20 of the graph) are brute-forced
+    private static final int FILTER_SCAN_BEAMS = 16;
+    private static final int FILTER_SCAN_FRACTION = 20;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Path snapshotPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Random levelRandom = new Random(42);
+    private final ThreadLocal<VisitedMarks> visitedMarks = ThreadLocal.withInitial(VisitedMarks::new);
+
+    private int dimensions;
+    private float[] vectors = new float[0];
+    private long[] embeddingIds = new long[0];
+    private long[] resumeIds = new long[0];
+    private int[][][] links = new int[0][][];
+    private int count;
+    private final AttributeColumns attributes = new AttributeColumns();
+
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final Map<Long, Integer> nodeByEmbeddingId = new HashMap<>();
+    private final Map<Long, List<Integer>> nodesByResumeId = new HashMap<>();
+
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    public HnswVectorIndex(int m, int efConstruction, int efSearch, Path snapshotPath) {
+        this.m = Math.max(2, m);
+        this.maxM0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+        this.snapshotPath = snapshotPath;
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        return add(embeddingId, resumeId, vector, null);
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector, ChunkAttributes chunkAttributes) {
+        if (vector == null || vector.length == 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (count == 0) {
+                dimensions = vector.length;
+            }
+            if (vector.length != dimensions) {
+                return false;
+            }
+            Integer existing = nodeByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                tombstone(existing);
+            }
+            ensureCapacity(count + 1);
+            int node = count++;
+            VectorKernels.normalizeInto(vector, vectors, node * dimensions);
+            embeddingIds[node] = embeddingId;
+            resumeIds[node] = resumeId;
+            attributes.set(node, chunkAttributes);
+            nodeByEmbeddingId.put(embeddingId, node);
+            nodesByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(node);
+            insertNode(node);
+            dirty = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByEmbeddingId.get(embeddingId);
+            if (node != null) {
+                tombstone(node);
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeResume(long resumeId) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> nodes = nodesByResumeId.get(resumeId);
+            if (nodes == null) {
+                return;
+            }
+            for (Integer node : new ArrayList<>(nodes)) {
+                tombstone(node);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            return searchGraph(q, k, Math.min(k, count - deletedCount), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsFilters() {
+        return true;
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return search(query, k);
+        }
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            BitSet allowed = attributes.select(filter, count, deleted);
+            int matching = allowed.cardinality();
+            if (matching == 0) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            int live = count - deletedCount;
+            if (matching <= Math.max(efSearch, k) * FILTER_SCAN_BEAMS || matching * FILTER_SCAN_FRACTION <= live) {
+                TopKHeap heap = new TopKHeap(Math.min(k, matching));
+                for (int node = allowed.nextSetBit(0); node >= 0; node = allowed.nextSetBit(node + 1)) {
+                    heap.offer(node, similarity(q, node));
+                }
+                return drain(heap);
+            }
+            return searchGraph(q, k, Math.min(k, matching), allowed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (count == 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, count - deletedCount));
+            for (int node = 0; node < count; node++) {
+                if (!deleted.get(node)) {
+                    heap.offer(node, similarity(q, node));
+                }
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            List<Integer> nodes = nodesByResumeId.get(resumeId);
+            if (nodes == null || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, nodes.size()));
+            for (Integer node : nodes) {
+                heap.offer(node, similarity(q, node));
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        lock.readLock().lock();
+        try {
+            return nodesByResumeId.containsKey(resumeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        lock.readLock().lock();
+        try {
+            return nodeByEmbeddingId.containsKey(embeddingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        lock.readLock().lock();
+        try {
+            long[] ids = new long[count - deletedCount];
+            int i = 0;
+            for (int node = 0; node < count; node++) {
+                if (!deleted.get(node)) {
+                    ids[i++] = embeddingIds[node];
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * Rebuilds the graph from the live nodes once more than half of them are tombstoned.
+     */
+    @Override
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (deletedCount * 2 > count) {
+                rebuild();
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  PERSISTENCE
+    // ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void persist() {
+        if (snapshotPath == null || !dirty || !loaded) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(dimensions);
+                out.writeInt(m);
+                out.writeInt(count);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int node = 0; node < count; node++) {
+                    out.writeLong(embeddingIds[node]);
+                    out.writeLong(resumeIds[node]);
+                    out.writeBoolean(deleted.get(node));
+                    attributes.write(out, node);
+                    int base = node * dimensions;
+                    for (int i = 0; i < dimensions; i++) {
+                        out.writeFloat(vectors[base + i]);
+                    }
+                    int[][] nodeLinks = links[node];
+                    out.writeInt(nodeLinks.length);
+                    for (int[] level : nodeLinks) {
+                        out.writeInt(level[0]);
+                        for (int i = 1; i <= level[0]; i++) {
+                            out.writeInt(level[i]);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            logger.info("Persisted HNSW index with {} nodes to {}", count, snapshotPath);
+        } catch (IOException e) {
+            logger.error("Failed to persist HNSW index to {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean restore() {
+        if (snapshotPath == null || !Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring HNSW snapshot {} with unknown format", snapshotPath);
+                return false;
+            }
+            int dims = in.readInt();
+            int savedM = in.readInt();
+            if (savedM != m) {
+                logger.warn("HNSW snapshot was built with m={} but m={} is configured; rebuilding instead", savedM, m);
+                return false;
+            }
+            int nodes = in.readInt();
+
+            resetStorage();
+            dimensions = dims;
+            ensureCapacity(nodes);
+            entryPoint = in.readInt();
+            maxLevel = in.readInt();
+            for (int node = 0; node < nodes; node++) {
+                embeddingIds[node] = in.readLong();
+                resumeIds[node] = in.readLong();
+                boolean isDeleted = in.readBoolean();
+                attributes.read(in, node);
+                int base = node * dimensions;
+                for (int i = 0; i < dimensions; i++) {
+                    vectors[base + i] = in.readFloat();
+                }
+                int levelCount = in.readInt();
+                int[][] nodeLinks = new int[levelCount][];
+                for (int level = 0; level < levelCount; level++) {
+                    int size = in.readInt();
+                    int[] list = new int[1 + capacityFor(level)];
+                    list[0] = size;
+                    for (int i = 1; i <= size; i++) {
+                        list[i] = in.readInt();
+                    }
+                    nodeLinks[level] = list;
+                }
+                links[node] = nodeLinks;
+                if (isDeleted) {
+                    deleted.set(node);
+                    deletedCount++;
+                    attributes.clear(node);
+                } else {
+                    nodeByEmbeddingId.put(embeddingIds[node], node);
+                    nodesByResumeId.computeIfAbsent(resumeIds[node], k -> new ArrayList<>()).add(node);
+                }
+            }
+            count = nodes;
+            dirty = false;
+            logger.info("Restored HNSW index with {} live nodes from {}", count - deletedCount, snapshotPath);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore HNSW snapshot {}: {}", snapshotPath, e.getMessage());
+            resetStorage();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  GRAPH CONSTRUCTION (caller holds the write lock)
+    // ─────────────────────────────────────────────────────────────────
+
+    private void insertNode(int node) {
+        int level = (int) (-Math.log(1.0 - levelRandom.nextDouble()) * levelMultiplier);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[1 + capacityFor(l)];
+        }
+        links[node] = nodeLinks;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        float[] q = Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+        int current = entryPoint;
+        float currentSim = similarity(q, current);
+        for (int l = maxLevel; l > level; l--) {
+            int[] greedy = greedyClosest(q, current, currentSim, l);
+            current = greedy[0];
+            currentSim = Float.intBitsToFloat(greedy[1]);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(q, current, efConstruction, l);
+            int[] sortedNodes = new int[candidates.size()];
+            float[] sortedSims = new float[candidates.size()];
+            candidates.drainDescending(sortedNodes, sortedSims);
+
+            int[] selected = selectNeighbors(sortedNodes, sortedSims, sortedNodes.length, m);
+            int[] list = links[node][l];
+            list[0] = selected.length;
+            System.arraycopy(selected, 0, list, 1, selected.length);
+
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            current = sortedNodes.length > 0 ? sortedNodes[0] : current;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] list = links[from][level];
+        int size = list[0];
+        int cap = capacityFor(level);
+        if (size < cap) {
+            list[size + 1] = to;
+            list[0] = size + 1;
+            return;
+        }
+
+        // Full: keep the most diverse set among the existing links plus the new one
+        float[] origin = Arrays.copyOfRange(vectors, from * dimensions, (from + 1) * dimensions);
+        NodeHeap pool = new NodeHeap(size + 1, true);
+        for (int i = 1; i <= size; i++) {
+            pool.push(list[i], similarity(origin, list[i]));
+        }
+        pool.push(to, similarity(origin, to));
+        int[] nodes = new int[pool.size()];
+        float[] sims = new float[pool.size()];
+        pool.drainDescending(nodes, sims);
+
+        int[] selected = selectNeighbors(nodes, sims, nodes.length, cap);
+        list[0] = selected.length;
+        System.arraycopy(selected, 0, list, 1, selected.length);
+    }
+
+    /**
+     * Neighbour selection heuristic: prefer candidates closer to the base than to any already
+     * selected neighbour, then top up with the closest skipped ones. Input is sorted best-first.
+     */
+    private int[] selectNeighbors(int[] nodes, float[] sims, int length, int max) {
+        int[] selected = new int[Math.min(max, length)];
+        int selectedCount = 0;
+        boolean[] taken = new boolean[length];
+        for (int i = 0; i < length && selectedCount < selected.length; i++) {
+            boolean diverse = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (similarityBetween(nodes[i], selected[j]) > sims[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[selectedCount++] = nodes[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < length && selectedCount < selected.length; i++) {
+            if (!taken[i]) {
+                selected[selectedCount++] = nodes[i];
+            }
+        }
+        return selected;
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        int oldCount = count;
+        float[] oldVectors = vectors;
+        long[] oldEmbeddingIds = embeddingIds;
+        long[] oldResumeIds = resumeIds;
+        ChunkAttributes[] oldAttributes = new ChunkAttributes[oldCount];
+        for (int old = 0; old < oldCount; old++) {
+            oldAttributes[old] = attributes.get(old);
+        }
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        int oldDimensions = dimensions;
+
+        resetStorage();
+        dimensions = oldDimensions;
+        ensureCapacity(oldCount - oldDeleted.cardinality());
+        for (int old = 0; old < oldCount; old++) {
+            if (oldDeleted.get(old)) {
+                continue;
+            }
+            int node = count++;
+            System.arraycopy(oldVectors, old * dimensions, vectors, node * dimensions, dimensions);
+            embeddingIds[node] = oldEmbeddingIds[old];
+            resumeIds[node] = oldResumeIds[old];
+            attributes.set(node, oldAttributes[old]);
+            nodeByEmbeddingId.put(embeddingIds[node], node);
+            nodesByResumeId.computeIfAbsent(resumeIds[node], k -> new ArrayList<>()).add(node);
+            insertNode(node);
+        }
+        logger.info("Rebuilt HNSW graph: {} -> {} nodes in {} ms", oldCount, count, System.currentTimeMillis() - start);
+    }
+
+    private void tombstone(int node) {
+        if (deleted.get(node)) {
+            return;
+        }
+        deleted.set(node);
+        deletedCount++;
+        attributes.clear(node);
+        nodeByEmbeddingId.remove(embeddingIds[node]);
+        List<Integer> siblings = nodesByResumeId.get(resumeIds[node]);
+        if (siblings != null) {
+            siblings.remove(Integer.valueOf(node));
+            if (siblings.isEmpty()) {
+                nodesByResumeId.remove(resumeIds[node]);
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  GRAPH TRAVERSAL
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Beam search from the entry point keeping the best {@code wanted} nodes that are live (or,
+     * when {@code allowed} is given, in it).
+     */
+    private List<VectorHit> searchGraph(float[] q, int k, int wanted, BitSet allowed) {
+        int ef = Math.max(efSearch, k);
+        while (true) {
+            NodeHeap results = searchFromTop(q, ef);
+            TopKHeap top = new TopKHeap(wanted);
+            while (results.size() > 0) {
+                int node = results.peekNode();
+                float sim = results.peekScore();
+                results.pop();
+                if (allowed != null ? allowed.get(node) : !deleted.get(node)) {
+                    top.offer(node, sim);
+                }
+            }
+            // Tombstones and filtered-out nodes can crowd wanted nodes out of the candidate list; widen the beam and retry
+            if (top.size() >= wanted || ef >= count) {
+                return drain(top);
+            }
+            ef = Math.min(count, ef * 2);
+        }
+    }
+
+    private NodeHeap searchFromTop(float[] q, int ef) {
+        int current = entryPoint;
+        float currentSim = similarity(q, current);
+        for (int l = maxLevel; l > 0; l--) {
+            int[] greedy = greedyClosest(q, current, currentSim, l);
+            current = greedy[0];
+            currentSim = Float.intBitsToFloat(greedy[1]);
+        }
+        return searchLayer(q, current, ef, 0);
+    }
+
+    /**
+     * Greedy walk on one layer; returns {node, floatBits(similarity)}.
+     */
+    private int[] greedyClosest(float[] q, int start, float startSim, int level) {
+        int current = start;
+        float currentSim = startSim;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] list = links[current][level];
+            for (int i = 1; i <= list[0]; i++) {
+                int candidate = list[i];
+                float sim = similarity(q, candidate);
+                if (sim > currentSim) {
+                    currentSim = sim;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return new int[]{current, Float.floatToIntBits(currentSim)};
+    }
+
+    /**
+     * Beam search on one layer; returns up to {@code ef} closest nodes as a min-heap.
+     */
+    private NodeHeap searchLayer(float[] q, int entry, int ef, int level) {
+        VisitedMarks visited = visitedMarks.get();
+        visited.reset(count);
+        NodeHeap candidates = new NodeHeap(ef * 2, true);
+        NodeHeap results = new NodeHeap(ef + 1, false);
+
+        float entrySim = similarity(q, entry);
+        visited.visit(entry);
+        candidates.push(entry, entrySim);
+        results.push(entry, entrySim);
+
+        while (candidates.size() > 0) {
+            int node = candidates.peekNode();
+            float sim = candidates.peekScore();
+            candidates.pop();
+            if (results.size() >= ef && sim < results.peekScore()) {
+                break;
+            }
+            int[][] nodeLinks = links[node];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            int[] list = nodeLinks[level];
+            for (int i = 1; i <= list[0]; i++) {
+                int neighbor = list[i];
+                if (!visited.visit(neighbor)) {
+                    continue;
+                }
+                float neighborSim = similarity(q, neighbor);
+                if (results.size() < ef || neighborSim > results.peekScore()) {
+                    candidates.push(neighbor, neighborSim);
+                    results.push(neighbor, neighborSim);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  HELPERS
+    // ─────────────────────────────────────────────────────────────────
+
+    private int capacityFor(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private float similarity(float[] q, int node) {
+        return VectorKernels.dot(q, 0, vectors, node * dimensions, dimensions);
+    }
+
+    private float similarityBetween(int a, int b) {
+        return VectorKernels.dot(vectors, a * dimensions, vectors, b * dimensions, dimensions);
+    }
+
+    private List<VectorHit> drain(TopKHeap heap) {
+        int[] nodes = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int n = heap.drainDescending(nodes, scores);
+        List<VectorHit> hits = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            hits.add(new VectorHit(embeddingIds[nodes[i]], resumeIds[nodes[i]], scores[i]));
+        }
+        return hits;
+    }
+
+    private void resetStorage() {
+        count = 0;
+        vectors = new float[0];
+        embeddingIds = new long[0];
+        resumeIds = new long[0];
+        links = new int[0][][];
+        attributes.reset();
+        deleted.clear();
+        deletedCount = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+        nodeByEmbeddingId.clear();
+        nodesByResumeId.clear();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= embeddingIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(INITIAL_CAPACITY, embeddingIds.length);
+        while (newCapacity < required) {
+            newCapacity <<= 1;
+        }
+        vectors = Arrays.copyOf(vectors, newCapacity * dimensions);
+        embeddingIds = Arrays.copyOf(embeddingIds, newCapacity);
+        resumeIds = Arrays.copyOf(resumeIds, newCapacity);
+        links = Arrays.copyOf(links, newCapacity);
+        attributes.ensureCapacity(newCapacity);
+    }
+
+    /**
+     * Per-thread visited markers; bumping the epoch clears them in O(1) between searches.
+     */
+    private static final class VisitedMarks {
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int nodes) {
+            if (marks.length < nodes) {
+                marks = new int[Math.max(nodes, marks.length * 2)];
+                epoch = 0;
+            }
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        boolean visit(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+
+    /**
+     * Growable binary heap of (node, similarity); max-heap for candidates, min-heap for results.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+        private final boolean max;
+
+        NodeHeap(int capacity, boolean max) {
+            this.nodes = new int[Math.max(4, capacity)];
+            this.scores = new float[nodes.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            nodes[i] = node;
+            scores[i] = score;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        void pop() {
+            size--;
+            if (size == 0) {
+                return;
+            }
+            nodes[0] = nodes[size];
+            scores[0] = scores[size];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int right = left + 1;
+                int best = (right < size && before(right, left)) ? right : left;
+                if (!before(best, i)) {
+                    break;
+                }
+                swap(i, best);
+                i = best;
+            }
+        }
+
+        /**
+         * Empties the heap into the arrays ordered by descending similarity.
+         */
+        void drainDescending(int[] outNodes, float[] outScores) {
+            int n = size;
+            if (max) {
+                for (int i = 0; i < n; i++) {
+                    outNodes[i] = peekNode();
+                    outScores[i] = peekScore();
+                    pop();
+                }
+            } else {
+                for (int i = n - 1; i >= 0; i--) {
+                    outNodes[i] = peekNode();
+                    outScores[i] = peekScore();
+                    pop();
+                }
+            }
+        }
+
+        private boolean before(int a, int b) {
+            return max ? scores[a] > scores[b] : scores[a] < scores[b];
+        }
+
+        private void swap(int a, int b) {
+            int n = nodes[a];
+            nodes[a] = nodes[b];
+            nodes[b] = n;
+            float s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+}
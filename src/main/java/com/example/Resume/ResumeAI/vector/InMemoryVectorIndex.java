@@ -0,0 +1,505 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resident vector index holding every embedded chunk as a pre-normalized float[] row
+ * inside one contiguous array, so a cosine similarity is a single dot product.
+ *
+ * Rows are addressed by slot; deletes swap the last row into the freed slot to keep
+ * storage dense. Lookups by embedding id and by resume id are kept alongside, as are
+ * per-slot attribute columns and per-user slot partitions for filtered search.
+ *
+ * With a snapshot path the rows can be persisted to and restored from a versioned binary file
+ * that also records the watermark (highest embedding id added), so a restart only replays the
+ * rows written after it instead of rebuilding from the database.
+ */
+public class InMemoryVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryVectorIndex.class);
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final int MAGIC = 0x464C4154; // "FLAT"
+    private static final int FORMAT_VERSION = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimensions;
+    private float[] vectors = new float[0];
+    private long[] embeddingIds = new long[0];
+    private long[] resumeIds = new long[0];
+    private int size;
+    private final AttributeColumns attributes = new AttributeColumns();
+
+    private final Map<Long, Integer> slotByEmbeddingId = new HashMap<>();
+    private final Map<Long, List<Long>> embeddingIdsByResumeId = new HashMap<>();
+
+    private long watermark;
+    private final Path snapshotPath;
+    private volatile boolean dirty;
+
+    private volatile boolean loaded;
+
+    public InMemoryVectorIndex() {
+        this(null);
+    }
+
+    public InMemoryVectorIndex(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Adds (or replaces) a chunk vector. The vector is copied and L2-normalized on the way in.
+     * Vectors whose dimensionality differs from the rest of the index are rejected.
+     */
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        return add(embeddingId, resumeId, vector, null);
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector, ChunkAttributes chunkAttributes) {
+        if (vector == null || vector.length == 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (size == 0 && slotByEmbeddingId.isEmpty() && vector.length != dimensions) {
+                // The vector array keeps its capacity in rows, not floats
+                dimensions = vector.length;
+                vectors = new float[embeddingIds.length * dimensions];
+            }
+            if (vector.length != dimensions) {
+                return false;
+            }
+            Integer existing = slotByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                removeSlot(existing);
+            }
+            ensureCapacity(size + 1);
+            int slot = size++;
+            VectorKernels.normalizeInto(vector, vectors, slot * dimensions);
+            embeddingIds[slot] = embeddingId;
+            resumeIds[slot] = resumeId;
+            attributes.set(slot, chunkAttributes);
+            slotByEmbeddingId.put(embeddingId, slot);
+            embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(embeddingId);
+            watermark = Math.max(watermark, embeddingId);
+            dirty = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByEmbeddingId.get(embeddingId);
+            if (slot != null) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every chunk belonging to the given resume.
+     */
+    @Override
+    public void removeResume(long resumeId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.remove(resumeId);
+            if (ids == null) {
+                return;
+            }
+            for (Long embeddingId : ids) {
+                Integer slot = slotByEmbeddingId.get(embeddingId);
+                if (slot != null) {
+                    removeSlot(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Exact top-k search over the whole index. The query does not need to be normalized.
+     */
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, size));
+            for (int slot = 0; slot < size; slot++) {
+                heap.offer(slot, VectorKernels.dot(q, 0, vectors, slot * dimensions, dimensions));
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact top-k search restricted to the chunks of a single resume.
+     */
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, ids.size()));
+            for (Long embeddingId : ids) {
+                int slot = slotByEmbeddingId.get(embeddingId);
+                heap.offer(slot, VectorKernels.dot(q, 0, vectors, slot * dimensions, dimensions));
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        return search(query, k);
+    }
+
+    @Override
+    public boolean supportsFilters() {
+        return true;
+    }
+
+    /**
+     * Exact top-k over the slots the filter selects; a user filter only walks that user's slots.
+     */
+    @Override
+    public List<VectorHit> search(float[] query, int k, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return search(query, k);
+        }
+        lock.readLock().lock();
+        try {
+            if (size == 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            BitSet allowed = attributes.select(filter, size, null);
+            if (allowed.isEmpty()) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, allowed.cardinality()));
+            for (int slot = allowed.nextSetBit(0); slot >= 0; slot = allowed.nextSetBit(slot + 1)) {
+                heap.offer(slot, VectorKernels.dot(q, 0, vectors, slot * dimensions, dimensions));
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ResumeHit> searchGrouped(float[] query, int n, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return searchGrouped(query, n);
+        }
+        lock.readLock().lock();
+        try {
+            if (size == 0 || n <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            BitSet allowed = attributes.select(filter, size, null);
+            float[] q = VectorKernels.normalizedCopy(query);
+            ResumeHitCollector collector = new ResumeHitCollector();
+            for (int slot = allowed.nextSetBit(0); slot >= 0; slot = allowed.nextSetBit(slot + 1)) {
+                collector.accept(embeddingIds[slot], resumeIds[slot],
+                        VectorKernels.dot(q, 0, vectors, slot * dimensions, dimensions));
+            }
+            return collector.top(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One pass over every row, folding scores into per-resume aggregates.
+     */
+    @Override
+    public List<ResumeHit> searchGrouped(float[] query, int n) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || n <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            ResumeHitCollector collector = new ResumeHitCollector();
+            for (int slot = 0; slot < size; slot++) {
+                collector.accept(embeddingIds[slot], resumeIds[slot],
+                        VectorKernels.dot(q, 0, vectors, slot * dimensions, dimensions));
+            }
+            return collector.top(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        lock.readLock().lock();
+        try {
+            return embeddingIdsByResumeId.containsKey(resumeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        lock.readLock().lock();
+        try {
+            return slotByEmbeddingId.containsKey(embeddingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOf(embeddingIds, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Whether the index has been bulk-loaded from the database since startup.
+     */
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * Highest embedding id ever added, including ids removed since; survives persist/restore.
+     */
+    @Override
+    public long watermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void persist() {
+        if (snapshotPath == null || !dirty || !loaded) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(dimensions);
+                out.writeInt(size);
+                out.writeLong(watermark);
+                for (int slot = 0; slot < size; slot++) {
+                    out.writeLong(embeddingIds[slot]);
+                    out.writeLong(resumeIds[slot]);
+                    attributes.write(out, slot);
+                    int base = slot * dimensions;
+                    for (int i = 0; i < dimensions; i++) {
+                        out.writeFloat(vectors[base + i]);
+                    }
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            logger.info("Persisted vector index with {} chunks (watermark {}) to {}", size, watermark, snapshotPath);
+        } catch (IOException e) {
+            logger.error("Failed to persist vector index to {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean restore() {
+        if (snapshotPath == null || !Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring vector index snapshot {} with unknown format", snapshotPath);
+                return false;
+            }
+            int dims = in.readInt();
+            int rows = in.readInt();
+            long savedWatermark = in.readLong();
+
+            resetStorage();
+            dimensions = dims;
+            ensureCapacity(rows);
+            for (int slot = 0; slot < rows; slot++) {
+                long embeddingId = in.readLong();
+                long resumeId = in.readLong();
+                embeddingIds[slot] = embeddingId;
+                resumeIds[slot] = resumeId;
+                attributes.read(in, slot);
+                int base = slot * dimensions;
+                for (int i = 0; i < dimensions; i++) {
+                    vectors[base + i] = in.readFloat();
+                }
+                slotByEmbeddingId.put(embeddingId, slot);
+                embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(embeddingId);
+            }
+            size = rows;
+            watermark = savedWatermark;
+            dirty = false;
+            logger.info("Restored vector index with {} chunks (watermark {}) from {}", rows, savedWatermark, snapshotPath);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore vector index snapshot {}: {}", snapshotPath, e.getMessage());
+            resetStorage();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            resetStorage();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void resetStorage() {
+        size = 0;
+        dimensions = 0;
+        vectors = new float[0];
+        embeddingIds = new long[0];
+        resumeIds = new long[0];
+        attributes.reset();
+        slotByEmbeddingId.clear();
+        embeddingIdsByResumeId.clear();
+        watermark = 0;
+        dirty = true;
+    }
+
+    // Caller must hold the write lock.
+    private void removeSlot(int slot) {
+        dirty = true;
+        long removedId = embeddingIds[slot];
+        slotByEmbeddingId.remove(removedId);
+        List<Long> siblings = embeddingIdsByResumeId.get(resumeIds[slot]);
+        if (siblings != null) {
+            siblings.remove(removedId);
+            if (siblings.isEmpty()) {
+                embeddingIdsByResumeId.remove(resumeIds[slot]);
+            }
+        }
+
+        int last = --size;
+        if (slot != last) {
+            System.arraycopy(vectors, last * dimensions, vectors, slot * dimensions, dimensions);
+            embeddingIds[slot] = embeddingIds[last];
+            resumeIds[slot] = resumeIds[last];
+            attributes.move(last, slot);
+            slotByEmbeddingId.put(embeddingIds[slot], slot);
+        } else {
+            attributes.clear(slot);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= embeddingIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(INITIAL_CAPACITY, embeddingIds.length);
+        while (newCapacity < required) {
+            newCapacity <<= 1;
+        }
+        float[] newVectors = new float[newCapacity * dimensions];
+        System.arraycopy(vectors, 0, newVectors, 0, size * dimensions);
+        long[] newEmbeddingIds = new long[newCapacity];
+        System.arraycopy(embeddingIds, 0, newEmbeddingIds, 0, size);
+        long[] newResumeIds = new long[newCapacity];
+        System.arraycopy(resumeIds, 0, newResumeIds, 0, size);
+        vectors = newVectors;
+        embeddingIds = newEmbeddingIds;
+        resumeIds = newResumeIds;
+        attributes.ensureCapacity(newCapacity);
+    }
+
+    private List<VectorHit> drain(TopKHeap heap) {
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(new VectorHit(embeddingIds[slots[i]], resumeIds[slots[i]], scores[i]));
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,737 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Vector index whose normalized vectors live in append-only segment files memory-mapped with
+ * {@link FileChannel#map}, so the corpus is held by the OS page cache rather than the Java heap.
+ * Only the id maps stay on heap.
+ *
+ * Segment layout (little-endian):
+ *   header  - magic, version, dimensions, capacity, record count (padded to 32 bytes)
+ *   records - embedding id (8), resume id (8), flags (4), dimensions x float32
+ *
+ * New vectors are appended to the newest segment until it holds {@code recordsPerSegment}
+ * records, then a new segment is started. Deletes set a tombstone flag in place. {@link #compact()}
+ * rewrites mostly-deleted sealed segments into one new segment and drops the old files.
+ * {@link #restore()} re-maps whatever segments exist on disk; when two segments hold a live copy
+ * of the same id, the one with the higher sequence wins.
+ *
+ * Appended segments are numbered in steps of {@code SEQUENCE_STRIDE}. A merged segment takes a
+ * free number just below the segment being appended to, so it never outranks copies written
+ * there after its source records.
+ *
+ * Writes may arrive before {@link #restore()} (an upload right after a restart): the first new
+ * segment is numbered above every file already on disk, and restore re-maps the directory from
+ * scratch, so it picks those writes up once instead of mapping their segment twice.
+ *
+ * When a vector of a new dimensionality arrives while the index is empty, the dead segments of
+ * the old dimensionality are deleted and the index starts over in the new one.
+ */
+public class MappedSegmentVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedSegmentVectorIndex.class);
+
+    private static final int MAGIC = 0x56534547; // "VSEG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 16;
+    private static final int RECORD_META_BYTES = 20;
+    private static final int FLAG_DELETED = 1;
+    private static final String SEGMENT_SUFFIX = ".vseg";
+    private static final int SEQUENCE_STRIDE = 1024;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final double compactionLiveRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimensions;
+    private int recordBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private int nextSequence;
+    // Whether nextSequence already accounts for the segment files on disk
+    private boolean sequenceSeeded;
+
+    // Location = segment sequence << 32 | record number
+    private final Map<Long, Long> locationByEmbeddingId = new HashMap<>();
+    private final Map<Long, List<Long>> embeddingIdsByResumeId = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public MappedSegmentVectorIndex(Path directory, int recordsPerSegment, double compactionLiveRatio) {
+        this.directory = directory;
+        this.recordsPerSegment = Math.max(16, recordsPerSegment);
+        this.compactionLiveRatio = Math.min(1.0, Math.max(0.0, compactionLiveRatio));
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (locationByEmbeddingId.isEmpty() && vector.length != dimensions) {
+                dropSegments();
+                dimensions = vector.length;
+                recordBytes = RECORD_META_BYTES + dimensions * 4;
+            }
+            if (vector.length != dimensions) {
+                return false;
+            }
+            Long existing = locationByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                removeAt(embeddingId, existing);
+            }
+
+            Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (active == null || active.count >= active.capacity) {
+                seedSequence();
+                active = createSegment(nextSequence, recordsPerSegment);
+                nextSequence += SEQUENCE_STRIDE;
+                segments.add(active);
+            }
+            int record = active.count;
+            int base = active.recordOffset(record);
+            active.buffer.putLong(base, embeddingId);
+            active.buffer.putLong(base + 8, resumeId);
+            active.buffer.putInt(base + 16, 0);
+            float[] normalized = VectorKernels.normalizedCopy(vector);
+            int at = base + RECORD_META_BYTES;
+            for (float v : normalized) {
+                active.buffer.putFloat(at, v);
+                at += 4;
+            }
+            // Publish the record only after its bytes are written
+            active.count++;
+            active.live++;
+            active.buffer.putInt(COUNT_OFFSET, active.count);
+
+            locationByEmbeddingId.put(embeddingId, location(active.sequence, record));
+            embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(embeddingId);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to vector segment in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        lock.writeLock().lock();
+        try {
+            Long location = locationByEmbeddingId.get(embeddingId);
+            if (location != null) {
+                removeAt(embeddingId, location);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeResume(long resumeId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null) {
+                return;
+            }
+            for (Long embeddingId : new ArrayList<>(ids)) {
+                Long location = locationByEmbeddingId.get(embeddingId);
+                if (location != null) {
+                    removeAt(embeddingId, location);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Exact scan over every live record, reading vectors in place from the mapped segments.
+     */
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (k <= 0 || query == null || query.length != dimensions || locationByEmbeddingId.isEmpty()) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            int limit = Math.min(k, locationByEmbeddingId.size());
+            TopKHeap heap = new TopKHeap(limit);
+            long[] locations = new long[limit];
+            for (Segment segment : segments) {
+                if (segment.live == 0) {
+                    continue;
+                }
+                for (int record = 0; record < segment.count; record++) {
+                    int base = segment.recordOffset(record);
+                    if ((segment.buffer.getInt(base + 16) & FLAG_DELETED) != 0) {
+                        continue;
+                    }
+                    float score = VectorKernels.dot(q, 0, segment.buffer, base + RECORD_META_BYTES, dimensions);
+                    offer(heap, locations, location(segment.sequence, record), score);
+                }
+            }
+            return drain(heap, locations);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        return search(query, k);
+    }
+
+    /**
+     * One pass over every live record, folding scores into per-resume aggregates.
+     */
+    @Override
+    public List<ResumeHit> searchGrouped(float[] query, int n) {
+        lock.readLock().lock();
+        try {
+            if (n <= 0 || query == null || query.length != dimensions || locationByEmbeddingId.isEmpty()) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            ResumeHitCollector collector = new ResumeHitCollector();
+            for (Segment segment : segments) {
+                if (segment.live == 0) {
+                    continue;
+                }
+                for (int record = 0; record < segment.count; record++) {
+                    int base = segment.recordOffset(record);
+                    if ((segment.buffer.getInt(base + 16) & FLAG_DELETED) != 0) {
+                        continue;
+                    }
+                    float score = VectorKernels.dot(q, 0, segment.buffer, base + RECORD_META_BYTES, dimensions);
+                    collector.accept(segment.buffer.getLong(base), segment.buffer.getLong(base + 8), score);
+                }
+            }
+            return collector.top(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            float[] q = VectorKernels.normalizedCopy(query);
+            int limit = Math.min(k, ids.size());
+            TopKHeap heap = new TopKHeap(limit);
+            long[] locations = new long[limit];
+            for (Long embeddingId : ids) {
+                long location = locationByEmbeddingId.get(embeddingId);
+                Segment segment = segment(location);
+                int base = segment.recordOffset((int) location);
+                float score = VectorKernels.dot(q, 0, segment.buffer, base + RECORD_META_BYTES, dimensions);
+                offer(heap, locations, location, score);
+            }
+            return drain(heap, locations);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        lock.readLock().lock();
+        try {
+            return embeddingIdsByResumeId.containsKey(resumeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        lock.readLock().lock();
+        try {
+            return locationByEmbeddingId.containsKey(embeddingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        lock.readLock().lock();
+        try {
+            return locationByEmbeddingId.keySet().stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return locationByEmbeddingId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * Flushes dirty mapped pages to disk. Appends and tombstones are already in the files; this
+     * only bounds how much the OS may still be holding after a crash.
+     */
+    @Override
+    public void persist() {
+        lock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Maps every segment file found in the directory and rebuilds the id maps from their records.
+     * The newest segment decides the dimensionality; older segments of another one are deleted.
+     */
+    @Override
+    public boolean restore() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            // Segments appended before restore are on disk too; map everything exactly once
+            unmapSegments();
+            seedSequence();
+            List<Path> paths = segmentFiles();
+            List<Segment> opened = new ArrayList<>();
+            for (Path path : paths) {
+                Segment segment = openSegment(path);
+                if (segment != null) {
+                    opened.add(segment);
+                }
+            }
+            if (opened.isEmpty()) {
+                return false;
+            }
+            if (dimensions == 0) {
+                dimensions = opened.get(opened.size() - 1).dimensions();
+                recordBytes = RECORD_META_BYTES + dimensions * 4;
+            }
+            for (Segment segment : opened) {
+                if (segment.dimensions() != dimensions) {
+                    logger.warn("Deleting {}: {} dimensions, index has {}", segment.path, segment.dimensions(), dimensions);
+                    segment.close();
+                    deleteQuietly(segment.path);
+                    continue;
+                }
+                segments.add(segment);
+                for (int record = 0; record < segment.count; record++) {
+                    int base = segment.recordOffset(record);
+                    if ((segment.buffer.getInt(base + 16) & FLAG_DELETED) != 0) {
+                        continue;
+                    }
+                    long embeddingId = segment.buffer.getLong(base);
+                    Long previous = locationByEmbeddingId.get(embeddingId);
+                    if (previous != null) {
+                        // Later segments win; an older copy can survive a crash mid-replace
+                        removeAt(embeddingId, previous);
+                    }
+                    segment.live++;
+                    locationByEmbeddingId.put(embeddingId, location(segment.sequence, record));
+                    embeddingIdsByResumeId.computeIfAbsent(segment.buffer.getLong(base + 8), k -> new ArrayList<>())
+                            .add(embeddingId);
+                }
+            }
+            logger.info("Mapped {} vector segments ({} live vectors) from {}", segments.size(),
+                    locationByEmbeddingId.size(), directory);
+            return !segments.isEmpty();
+        } catch (IOException e) {
+            logger.warn("Could not restore vector segments from {}: {}", directory, e.getMessage());
+            clear();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges sealed segments whose live ratio fell below {@code compactionLiveRatio} into one new
+     * segment of at most {@code recordsPerSegment} records and deletes the old files. Records are copied under the read lock, so searches keep
+     * running; the swap takes the write lock and drops copies whose source was deleted or
+     * replaced meanwhile.
+     */
+    @Override
+    public synchronized void compact() {
+        List<Segment> victims = new ArrayList<>();
+        int liveRecords = 0;
+        lock.readLock().lock();
+        try {
+            // The newest segment is still being appended to
+            for (int i = 0; i < segments.size() - 1; i++) {
+                Segment segment = segments.get(i);
+                if (segment.live < segment.capacity * compactionLiveRatio
+                        && liveRecords + segment.live <= recordsPerSegment) {
+                    victims.add(segment);
+                    liveRecords += segment.live;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (victims.size() < 2 && (victims.isEmpty() || victims.get(0).live > 0)) {
+            return;
+        }
+
+        Segment merged = null;
+        long[] sourceLocations = new long[liveRecords];
+        try {
+            int sequence;
+            lock.writeLock().lock();
+            try {
+                sequence = mergedSequence();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (sequence < 0) {
+                logger.debug("No free segment number below the active segment; compacting after it fills");
+                return;
+            }
+            if (liveRecords > 0) {
+                merged = createSegment(sequence, liveRecords);
+                lock.readLock().lock();
+                try {
+                    int target = 0;
+                    for (Segment segment : victims) {
+                        for (int record = 0; record < segment.count && target < liveRecords; record++) {
+                            int base = segment.recordOffset(record);
+                            if ((segment.buffer.getInt(base + 16) & FLAG_DELETED) != 0) {
+                                continue;
+                            }
+                            merged.buffer.put(merged.recordOffset(target), segment.buffer, base, recordBytes);
+                            sourceLocations[target++] = location(segment.sequence, record);
+                        }
+                    }
+                    merged.count = target;
+                    merged.buffer.putInt(COUNT_OFFSET, target);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                merged.buffer.force();
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (merged != null) {
+                    for (int record = 0; record < merged.count; record++) {
+                        int base = merged.recordOffset(record);
+                        long embeddingId = merged.buffer.getLong(base);
+                        Long current = locationByEmbeddingId.get(embeddingId);
+                        if (current != null && current == sourceLocations[record]) {
+                            locationByEmbeddingId.put(embeddingId, location(merged.sequence, record));
+                            merged.live++;
+                        } else {
+                            merged.buffer.putInt(base + 16, FLAG_DELETED);
+                        }
+                    }
+                    // Keep the list ordered by sequence with the active segment last
+                    int position = segments.size() - 1;
+                    while (position > 0 && segments.get(position - 1).sequence > merged.sequence) {
+                        position--;
+                    }
+                    segments.add(position, merged);
+                }
+                segments.removeAll(victims);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            logger.warn("Vector segment compaction failed: {}", e.getMessage());
+            if (merged != null) {
+                merged.close();
+                deleteQuietly(merged.path);
+            }
+            return;
+        }
+
+        for (Segment segment : victims) {
+            segment.close();
+            deleteQuietly(segment.path);
+        }
+        logger.info("Compacted {} vector segments into {} ({} live vectors)", victims.size(),
+                merged != null ? merged.path.getFileName() : "nothing", merged != null ? merged.live : 0);
+    }
+
+    /**
+     * Number of segment files currently mapped.
+     */
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Unmaps and forgets every segment (files stay on disk) and the dimensionality.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            unmapSegments();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void unmapSegments() {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        locationByEmbeddingId.clear();
+        embeddingIdsByResumeId.clear();
+        dimensions = 0;
+        recordBytes = 0;
+    }
+
+    /**
+     * Moves nextSequence to the first multiple of the stride above every segment file on disk.
+     * Caller must hold the write lock.
+     */
+    private void seedSequence() throws IOException {
+        if (sequenceSeeded) {
+            return;
+        }
+        if (Files.isDirectory(directory)) {
+            for (Path path : segmentFiles()) {
+                nextSequence = Math.max(nextSequence, (sequenceOf(path) / SEQUENCE_STRIDE + 1) * SEQUENCE_STRIDE);
+            }
+        }
+        sequenceSeeded = true;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Caller must hold the write lock. Only for an empty index: every record is a tombstone.
+    private void dropSegments() {
+        for (Segment segment : segments) {
+            segment.close();
+            deleteQuietly(segment.path);
+        }
+        segments.clear();
+    }
+
+    /**
+     * Lowest free sequence above every sealed segment in the active segment's stride, or -1 when
+     * that range is used up (possible only for segments numbered by older versions). Caller must
+     * hold the write lock.
+     */
+    private int mergedSequence() {
+        Segment active = segments.get(segments.size() - 1);
+        int floor = Math.max(active.sequence - SEQUENCE_STRIDE, -1);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            floor = Math.max(floor, segments.get(i).sequence);
+        }
+        return floor + 1 < active.sequence ? floor + 1 : -1;
+    }
+
+    // Caller must hold the write lock.
+    private void removeAt(long embeddingId, long location) {
+        Segment segment = segment(location);
+        int base = segment.recordOffset((int) location);
+        long resumeId = segment.buffer.getLong(base + 8);
+        segment.buffer.putInt(base + 16, FLAG_DELETED);
+        segment.live--;
+        locationByEmbeddingId.remove(embeddingId);
+        List<Long> siblings = embeddingIdsByResumeId.get(resumeId);
+        if (siblings != null) {
+            siblings.remove(embeddingId);
+            if (siblings.isEmpty()) {
+                embeddingIdsByResumeId.remove(resumeId);
+            }
+        }
+    }
+
+    private Segment segment(long location) {
+        int sequence = (int) (location >>> 32);
+        for (Segment segment : segments) {
+            if (segment.sequence == sequence) {
+                return segment;
+            }
+        }
+        throw new IllegalStateException("No vector segment " + sequence);
+    }
+
+    private Segment createSegment(int sequence, int capacity) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(String.format("%010d%s", sequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long bytes = HEADER_BYTES + (long) capacity * recordBytes;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Vector segment of " + capacity + " records exceeds 2 GB; lower vector.segments.records-per-segment");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, dimensions);
+        buffer.putInt(12, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+        return new Segment(sequence, path, channel, buffer, capacity, recordBytes);
+    }
+
+    // Caller must hold the write lock.
+    private Segment openSegment(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_BYTES) {
+            channel.close();
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            logger.warn("Skipping {}: not a version {} vector segment", path, FORMAT_VERSION);
+            channel.close();
+            return null;
+        }
+        int segmentDimensions = buffer.getInt(8);
+        Segment segment = new Segment(sequenceOf(path), path, channel, buffer, buffer.getInt(12),
+                RECORD_META_BYTES + segmentDimensions * 4);
+        segment.count = Math.min(buffer.getInt(COUNT_OFFSET), segment.capacity);
+        return segment;
+    }
+
+    private static long location(int sequence, int record) {
+        return ((long) sequence << 32) | (record & 0xffffffffL);
+    }
+
+    private static void offer(TopKHeap heap, long[] locations, long location, float score) {
+        int slot;
+        if (heap.size() < heap.capacity()) {
+            slot = heap.size();
+        } else if (score > heap.threshold()) {
+            slot = heap.minSlot();
+        } else {
+            return;
+        }
+        locations[slot] = location;
+        heap.offer(slot, score);
+    }
+
+    // Caller must hold a lock.
+    private List<VectorHit> drain(TopKHeap heap, long[] locations) {
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long location = locations[slots[i]];
+            Segment segment = segment(location);
+            int base = segment.recordOffset((int) location);
+            hits.add(new VectorHit(segment.buffer.getLong(base), segment.buffer.getLong(base + 8), scores[i]));
+        }
+        return hits;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Segment {
+        final int sequence;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        final int recordBytes;
+        int count;
+        int live;
+
+        Segment(int sequence, Path path, FileChannel channel, MappedByteBuffer buffer, int capacity, int recordBytes) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.recordBytes = recordBytes;
+        }
+
+        int recordOffset(int record) {
+            return HEADER_BYTES + record * recordBytes;
+        }
+
+        int dimensions() {
+            return buffer.getInt(8);
+        }
+
+        // The mapping itself is released when the buffer is garbage collected
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
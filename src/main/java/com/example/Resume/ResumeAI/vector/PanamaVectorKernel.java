@@ -0,0 +1,80 @@
+package com.example.Resume.ResumeAI.vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Java Vector API (jdk.incubator.vector) dot product. Only loaded after {@link VectorKernels}
+ * has confirmed the module is present, so the rest of the code never links against it directly.
+ */
+final class PanamaVectorKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private PanamaVectorKernel() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Four independent accumulators hide the FMA latency; a single accumulator would serialize
+     * every lane-wide multiply-add behind the previous one.
+     */
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int lanes = SPECIES.length();
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        FloatVector acc2 = FloatVector.zero(SPECIES);
+        FloatVector acc3 = FloatVector.zero(SPECIES);
+        int i = 0;
+        int unrolled = length - (length % (lanes * 4));
+        for (; i < unrolled; i += lanes * 4) {
+            acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+            acc1 = FloatVector.fromArray(SPECIES, a, aOffset + i + lanes)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i + lanes), acc1);
+            acc2 = FloatVector.fromArray(SPECIES, a, aOffset + i + 2 * lanes)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i + 2 * lanes), acc2);
+            acc3 = FloatVector.fromArray(SPECIES, a, aOffset + i + 3 * lanes)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i + 3 * lanes), acc3);
+        }
+        int upper = SPECIES.loopBound(length);
+        for (; i < upper; i += lanes) {
+            acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+        }
+        float sum = acc0.add(acc1).add(acc2.add(acc3)).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Dot product against little-endian floats read in place from a (typically memory-mapped) buffer.
+     */
+    static float dot(float[] a, int aOffset, ByteBuffer b, int bByteOffset, int length) {
+        int lanes = SPECIES.length();
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        int i = 0;
+        int unrolled = length - (length % (lanes * 2));
+        for (; i < unrolled; i += lanes * 2) {
+            acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromByteBuffer(SPECIES, b, bByteOffset + i * 4, ByteOrder.LITTLE_ENDIAN), acc0);
+            acc1 = FloatVector.fromArray(SPECIES, a, aOffset + i + lanes)
+                    .fma(FloatVector.fromByteBuffer(SPECIES, b, bByteOffset + (i + lanes) * 4, ByteOrder.LITTLE_ENDIAN), acc1);
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b.getFloat(bByteOffset + i * 4);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Database-side index backed by the PostgreSQL pgvector extension. Vectors live in a
+ * {@code vector(n)} column on resume_embeddings with an HNSW (or IVFFlat) cosine index, and
+ * top-k queries run as {@code ORDER BY embedding_vector <=> ? LIMIT k} inside PostgreSQL.
+ * Nothing is held in heap, so several stateless app instances can share one index.
+ *
+ * Rows are deleted together with their resume_embeddings row, so {@link #remove} and
+ * {@link #removeResume} have nothing left to do. The extension, column and index are created on
+ * first use; {@link #restore()} reports the table as the persisted state, which makes the
+ * service backfill any row that does not have a vector yet.
+ *
+ * Writes and DDL run in their own transaction: add() is called after the indexing transaction
+ * commits, and the first search that backfills vectors runs inside a read-only one.
+ *
+ * Query-time knobs ({@code hnsw.ef_search}, {@code ivfflat.probes}) are applied with
+ * {@code SET LOCAL}, so they only take effect inside a transaction (the search methods of
+ * VectorStoreService are read-only transactional).
+ *
+ * Search filters become a WHERE clause over a join with the resumes table; chunk attributes are
+ * never copied into the index. An ANN scan applies that clause only to the candidates it has
+ * already found, so a selective filter could leave fewer than k hits. With pgvector 0.8+ filtered
+ * searches enable iterative scans, which keep walking the index until k rows pass the filter;
+ * older versions order by an expression the index cannot serve, i.e. an exact scan of the
+ * matching rows.
+ */
+public class PgVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgVectorIndex.class);
+
+    static final String TABLE = "resume_embeddings";
+    static final String COLUMN = "embedding_vector";
+    static final String RESUMES_TABLE = "resumes";
+
+    private static final RowMapper<VectorHit> HIT_MAPPER =
+            (rs, rowNum) -> new VectorHit(rs.getLong(1), rs.getLong(2), rs.getFloat(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate searchTransaction;
+    private final int dimensions;
+    private final String indexMethod;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int ivfflatLists;
+    private final int ivfflatProbes;
+
+    private volatile boolean schemaReady;
+    private volatile boolean iterativeScans;
+    private volatile boolean loaded;
+
+    public PgVectorIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         int dimensions, String indexMethod,
+                         int m, int efConstruction, int efSearch, int ivfflatLists, int ivfflatProbes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Joins the caller's transaction when there is one, so SET LOCAL reaches the query either way
+        this.searchTransaction = new TransactionTemplate(transactionManager);
+        this.searchTransaction.setReadOnly(true);
+        this.dimensions = dimensions;
+        this.indexMethod = "ivfflat".equalsIgnoreCase(indexMethod) ? "ivfflat" : "hnsw";
+        this.m = Math.max(2, m);
+        this.efConstruction = Math.max(this.m * 2, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.ivfflatLists = Math.max(1, ivfflatLists);
+        this.ivfflatProbes = Math.max(1, ivfflatProbes);
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        if (vector == null || vector.length != dimensions) {
+            return false;
+        }
+        ensureSchema();
+        Integer updated = writeTransaction.execute(status -> jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET " + COLUMN + " = ?::vector WHERE id = ?",
+                toLiteral(vector), embeddingId));
+        return updated != null && updated > 0;
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        // The vector is a column of the deleted resume_embeddings row
+    }
+
+    @Override
+    public void removeResume(long resumeId) {
+        // The vectors are columns of the deleted resume_embeddings rows
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        return query(query, k, false, null);
+    }
+
+    /**
+     * Orders by an expression the ANN index cannot serve, so PostgreSQL does a sequential scan
+     * and an exact sort.
+     */
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        return query(query, k, true, null);
+    }
+
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        return query(query, k, false, resumeId);
+    }
+
+    @Override
+    public boolean supportsFilters() {
+        return true;
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return search(query, k);
+        }
+        if (query == null || query.length != dimensions || k <= 0) {
+            return List.of();
+        }
+        ensureSchema();
+
+        String literal = toLiteral(query);
+        List<Object> args = new ArrayList<>();
+        args.add(literal);
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT e.id, e.resume_id, 1 - (e.").append(COLUMN).append(" <=> ?::vector) FROM ")
+                .append(TABLE).append(" e JOIN ").append(RESUMES_TABLE).append(" r ON r.id = e.resume_id")
+                .append(" WHERE e.").append(COLUMN).append(" IS NOT NULL");
+        if (filter.getUserId() != null) {
+            sql.append(" AND r.user_id = ?");
+            args.add(filter.getUserId());
+        }
+        if (filter.getMinAtsScore() != null) {
+            sql.append(" AND r.ats_score >= ?");
+            args.add(filter.getMinAtsScore());
+        }
+        if (filter.getMaxAtsScore() != null) {
+            sql.append(" AND r.ats_score <= ?");
+            args.add(filter.getMaxAtsScore());
+        }
+        if (!filter.getSectionNames().isEmpty()) {
+            // Same base name as SearchFilter.normalizeSection: split sections drop " (Part n)"
+            sql.append(" AND lower(regexp_replace(trim(e.section_name), '\\s*\\(part [0-9]+\\)\\s*$', '', 'i')) IN (")
+               .append(String.join(",", Collections.nCopies(filter.getSectionNames().size(), "?")))
+               .append(")");
+            args.addAll(filter.getSectionNames());
+        }
+        if (filter.getCreatedFromMillis() != null) {
+            sql.append(" AND r.created_at >= ?");
+            args.add(toTimestamp(filter.getCreatedFromMillis()));
+        }
+        if (filter.getCreatedToMillis() != null) {
+            sql.append(" AND r.created_at < ?");
+            args.add(toTimestamp(filter.getCreatedToMillis()));
+        }
+        boolean iterative = iterativeScans;
+        sql.append(iterative
+                ? " ORDER BY e." + COLUMN + " <=> ?::vector LIMIT ?"
+                : " ORDER BY (e." + COLUMN + " <=> ?::vector) + 0 LIMIT ?");
+        args.add(literal);
+        args.add(k);
+        List<VectorHit> hits = searchTransaction.execute(status -> {
+            applySearchSettings(k);
+            if (iterative) {
+                // IVFFlat only offers relaxed_order, whose hits can come back slightly out of order
+                jdbcTemplate.execute("hnsw".equals(indexMethod)
+                        ? "SET LOCAL hnsw.iterative_scan = strict_order"
+                        : "SET LOCAL ivfflat.iterative_scan = relaxed_order");
+            }
+            return jdbcTemplate.query(sql.toString(), HIT_MAPPER, args.toArray());
+        });
+        if (hits == null) {
+            return List.of();
+        }
+        if (iterative && !"hnsw".equals(indexMethod)) {
+            hits = new ArrayList<>(hits);
+            hits.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        }
+        return hits;
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        ensureSchema();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + TABLE + " WHERE resume_id = ? AND " + COLUMN + " IS NOT NULL)",
+                Boolean.class, resumeId));
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        ensureSchema();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + TABLE + " WHERE id = ? AND " + COLUMN + " IS NOT NULL)",
+                Boolean.class, embeddingId));
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        ensureSchema();
+        return jdbcTemplate.queryForList("SELECT id FROM " + TABLE + " WHERE " + COLUMN + " IS NOT NULL", Long.class)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @Override
+    public int size() {
+        ensureSchema();
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + TABLE + " WHERE " + COLUMN + " IS NOT NULL", Long.class);
+        return count == null ? 0 : count.intValue();
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * The table itself is the persisted state; the caller's reconcile pass then fills in
+     * vectors for rows written before this backend was enabled.
+     */
+    @Override
+    public boolean restore() {
+        ensureSchema();
+        return true;
+    }
+
+    private List<VectorHit> query(float[] query, int k, boolean exact, Long resumeId) {
+        if (query == null || query.length != dimensions || k <= 0) {
+            return List.of();
+        }
+        ensureSchema();
+        applySearchSettings(k);
+
+        String literal = toLiteral(query);
+        String orderBy = exact
+                ? " ORDER BY (" + COLUMN + " <=> ?::vector) + 0 LIMIT ?"
+                : " ORDER BY " + COLUMN + " <=> ?::vector LIMIT ?";
+        if (resumeId != null) {
+            return jdbcTemplate.query(
+                    "SELECT id, resume_id, 1 - (" + COLUMN + " <=> ?::vector) FROM " + TABLE +
+                    " WHERE resume_id = ? AND " + COLUMN + " IS NOT NULL" + orderBy,
+                    HIT_MAPPER, literal, resumeId, literal, k);
+        }
+        return jdbcTemplate.query(
+                "SELECT id, resume_id, 1 - (" + COLUMN + " <=> ?::vector) FROM " + TABLE +
+                " WHERE " + COLUMN + " IS NOT NULL" + orderBy,
+                HIT_MAPPER, literal, literal, k);
+    }
+
+    private void applySearchSettings(int k) {
+        if ("hnsw".equals(indexMethod)) {
+            jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + Math.max(efSearch, k));
+        } else {
+            jdbcTemplate.execute("SET LOCAL ivfflat.probes = " + ivfflatProbes);
+        }
+    }
+
+    /**
+     * Back to the wall-clock time that {@link ChunkAttributes} encoded as UTC millis.
+     */
+    private static Timestamp toTimestamp(long epochMillis) {
+        return Timestamp.valueOf(LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC));
+    }
+
+    private void ensureSchema() {
+        if (schemaReady) {
+            return;
+        }
+        synchronized (this) {
+            if (schemaReady) {
+                return;
+            }
+            String options = "hnsw".equals(indexMethod)
+                    ? String.format("m = %d, ef_construction = %d", m, efConstruction)
+                    : String.format("lists = %d", ivfflatLists);
+            writeTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
+                iterativeScans = supportsIterativeScans(jdbcTemplate.queryForObject(
+                        "SELECT extversion FROM pg_extension WHERE extname = 'vector'", String.class));
+                // A vector column's typmod is its dimension; a resized embedding model needs a new column
+                List<Integer> existing = jdbcTemplate.queryForList(
+                        "SELECT atttypmod FROM pg_attribute WHERE attrelid = to_regclass(?) AND attname = ? AND NOT attisdropped",
+                        Integer.class, TABLE, COLUMN);
+                if (!existing.isEmpty() && existing.get(0) > 0 && existing.get(0) != dimensions) {
+                    logger.warn("Dropping {}.{} (vector({})) to recreate it as vector({})", TABLE, COLUMN, existing.get(0), dimensions);
+                    jdbcTemplate.execute(String.format("ALTER TABLE %s DROP COLUMN %s", TABLE, COLUMN));
+                }
+                jdbcTemplate.execute(String.format(
+                        "ALTER TABLE %s ADD COLUMN IF NOT EXISTS %s vector(%d)", TABLE, COLUMN, dimensions));
+                jdbcTemplate.execute(String.format(
+                        "CREATE INDEX IF NOT EXISTS %s_%s_%s_idx ON %s USING %s (%s vector_cosine_ops) WITH (%s)",
+                        TABLE, COLUMN, indexMethod, TABLE, indexMethod, COLUMN, options));
+            });
+            schemaReady = true;
+            logger.info("pgvector index ready on {}.{} (vector({}), {}, iterative scans {})",
+                    TABLE, COLUMN, dimensions, indexMethod, iterativeScans ? "on" : "unavailable");
+        }
+    }
+
+    /**
+     * Iterative index scans arrived in pgvector 0.8.0.
+     */
+    private static boolean supportsIterativeScans(String version) {
+        if (version == null) {
+            return false;
+        }
+        String[] parts = version.split("\\.");
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return major > 0 || minor >= 8;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * pgvector text form: {@code [x1,x2,...]}.
+     */
+    static String toLiteral(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 12 + 2);
+        sb.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            float v = vector[i];
+            sb.append(Float.isFinite(v) ? Float.toString(v) : "0");
+        }
+        return sb.append(']').toString();
+    }
+}
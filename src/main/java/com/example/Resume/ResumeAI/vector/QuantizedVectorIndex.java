@@ -0,0 +1,444 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Scalar-quantized index: every normalized vector is stored as one unsigned 8-bit code per
+ * dimension, using a per-dimension [min, max] range learned from the first vectors inserted.
+ * At 768 dimensions a chunk costs 768 bytes instead of 3 KB of float32.
+ *
+ * Scores computed on the codes are approximate, so callers are expected to re-rank the top
+ * {@link #rerankDepth()} hits against the full-precision vectors stored in the database.
+ *
+ * Until {@code trainingSize} vectors have been seen vectors are buffered in float form and
+ * searched exactly. Later vectors are clamped into the trained range; once more than
+ * {@value #RETRAIN_CLAMPED_FRACTION} of the stored components have been clamped the range is
+ * widened to everything observed and every row is re-encoded.
+ */
+public class QuantizedVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuantizedVectorIndex.class);
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int LEVELS = 255;
+    private static final double RETRAIN_CLAMPED_FRACTION = 0.01;
+
+    private final int trainingSize;
+    private final int rerankDepth;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimensions;
+    private byte[] codes = new byte[0];
+    private long[] embeddingIds = new long[0];
+    private long[] resumeIds = new long[0];
+    private int size;
+
+    // Per-dimension quantization range: value ~= minimums[i] + steps[i] * code
+    private float[] minimums;
+    private float[] steps;
+    private volatile boolean trained;
+    private long clampedComponents;
+
+    // Per-dimension extremes of every vector encoded since training, clamped or not
+    private float[] observedMinimums;
+    private float[] observedMaximums;
+
+    // Normalized float vectors held only until the range is trained, indexed by slot
+    private List<float[]> pending = new ArrayList<>();
+
+    private final Map<Long, Integer> slotByEmbeddingId = new HashMap<>();
+    private final Map<Long, List<Long>> embeddingIdsByResumeId = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public QuantizedVectorIndex(int trainingSize, int rerankDepth) {
+        this.trainingSize = Math.max(1, trainingSize);
+        this.rerankDepth = Math.max(1, rerankDepth);
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (size == 0) {
+                reset(vector.length);
+            }
+            if (vector.length != dimensions) {
+                return false;
+            }
+            Integer existing = slotByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                removeSlot(existing);
+            }
+            ensureCapacity(size + 1);
+            int slot = size++;
+            float[] normalized = VectorKernels.normalizedCopy(vector);
+            if (trained) {
+                encodeInto(normalized, slot);
+            } else {
+                pending.add(normalized);
+            }
+            embeddingIds[slot] = embeddingId;
+            resumeIds[slot] = resumeId;
+            slotByEmbeddingId.put(embeddingId, slot);
+            embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> new ArrayList<>()).add(embeddingId);
+
+            if (!trained && pending.size() >= trainingSize) {
+                train();
+            } else if (trained && clampedComponents > RETRAIN_CLAMPED_FRACTION * size * dimensions) {
+                retrain();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByEmbeddingId.get(embeddingId);
+            if (slot != null) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeResume(long resumeId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.remove(resumeId);
+            if (ids == null) {
+                return;
+            }
+            for (Long embeddingId : ids) {
+                Integer slot = slotByEmbeddingId.get(embeddingId);
+                if (slot != null) {
+                    removeSlot(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate top-k over the int8 codes; re-rank the result against full-precision vectors.
+     */
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            TopKHeap heap = new TopKHeap(Math.min(k, size));
+            if (trained) {
+                QueryTable table = queryTable(query);
+                for (int slot = 0; slot < size; slot++) {
+                    heap.offer(slot, table.score(codes, slot * dimensions));
+                }
+            } else {
+                float[] q = VectorKernels.normalizedCopy(query);
+                for (int slot = 0; slot < size; slot++) {
+                    heap.offer(slot, VectorKernels.dot(q, pending.get(slot)));
+                }
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The code scan is already a brute-force pass over every chunk.
+     */
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        return search(query, k);
+    }
+
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null || k <= 0 || query == null || query.length != dimensions) {
+                return Collections.emptyList();
+            }
+            QueryTable table = trained ? queryTable(query) : null;
+            float[] q = trained ? null : VectorKernels.normalizedCopy(query);
+            TopKHeap heap = new TopKHeap(Math.min(k, ids.size()));
+            for (Long embeddingId : ids) {
+                int slot = slotByEmbeddingId.get(embeddingId);
+                heap.offer(slot, table != null
+                        ? table.score(codes, slot * dimensions)
+                        : VectorKernels.dot(q, pending.get(slot)));
+            }
+            return drain(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int rerankDepth() {
+        return rerankDepth;
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        lock.readLock().lock();
+        try {
+            return embeddingIdsByResumeId.containsKey(resumeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        lock.readLock().lock();
+        try {
+            return slotByEmbeddingId.containsKey(embeddingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOf(embeddingIds, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Does not train: a corpus smaller than {@code trainingSize} stays in float form, where
+     * searching it exactly is cheap anyway.
+     */
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * Fraction of vector components that fell outside the trained range and were clamped.
+     */
+    public double clampedFraction() {
+        lock.readLock().lock();
+        try {
+            return size == 0 || dimensions == 0 ? 0.0 : (double) clampedComponents / ((long) size * dimensions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock. An empty index forgets its range and dimensionality.
+    private void reset(int newDimensions) {
+        if (newDimensions != dimensions) {
+            dimensions = newDimensions;
+            codes = new byte[embeddingIds.length * dimensions];
+        }
+        trained = false;
+        minimums = null;
+        steps = null;
+        observedMinimums = null;
+        observedMaximums = null;
+        clampedComponents = 0;
+        pending = new ArrayList<>();
+    }
+
+    // Caller must hold the write lock.
+    private void train() {
+        observedMinimums = new float[dimensions];
+        observedMaximums = new float[dimensions];
+        Arrays.fill(observedMinimums, Float.POSITIVE_INFINITY);
+        Arrays.fill(observedMaximums, Float.NEGATIVE_INFINITY);
+        for (float[] vector : pending) {
+            for (int i = 0; i < dimensions; i++) {
+                observedMinimums[i] = Math.min(observedMinimums[i], vector[i]);
+                observedMaximums[i] = Math.max(observedMaximums[i], vector[i]);
+            }
+        }
+        fitRange();
+        for (int slot = 0; slot < pending.size(); slot++) {
+            encodeInto(pending.get(slot), slot);
+        }
+        trained = true;
+        logger.info("Trained int8 quantizer on {} vectors of {} dimensions", pending.size(), dimensions);
+        pending = null;
+    }
+
+    /**
+     * Widens the range to every component observed since training and re-encodes the stored
+     * rows. Rows are decoded from their old codes, so a component that was clamped keeps the old
+     * bound as its value; only vectors added from now on benefit fully from the wider range.
+     * Caller must hold the write lock.
+     */
+    private void retrain() {
+        double clamped = (double) clampedComponents / ((long) size * dimensions);
+        float[] oldMinimums = minimums;
+        float[] oldSteps = steps;
+        fitRange();
+        float[] decoded = new float[dimensions];
+        for (int slot = 0; slot < size; slot++) {
+            int base = slot * dimensions;
+            for (int i = 0; i < dimensions; i++) {
+                decoded[i] = oldMinimums[i] + oldSteps[i] * (codes[base + i] & 0xff);
+            }
+            encodeInto(decoded, slot);
+        }
+        logger.info("Retrained int8 quantizer on {} vectors after {}% of components were clamped",
+                size, String.format("%.2f", clamped * 100));
+    }
+
+    // Sets minimums and steps from the observed extremes and clears the clamp count.
+    private void fitRange() {
+        minimums = new float[dimensions];
+        steps = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            // Widen slightly so vectors arriving after training are rarely clamped
+            float margin = (observedMaximums[i] - observedMinimums[i]) * 0.05f;
+            minimums[i] = observedMinimums[i] - margin;
+            float range = observedMaximums[i] + margin - minimums[i];
+            // A dimension that never varied gets a tiny step, so any later value counts as clamped
+            steps[i] = range > 0f ? range / LEVELS : Math.ulp(1f);
+        }
+        clampedComponents = 0;
+    }
+
+    private void encodeInto(float[] normalized, int slot) {
+        int base = slot * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            int code = Math.round((normalized[i] - minimums[i]) / steps[i]);
+            if (code < 0 || code > LEVELS) {
+                clampedComponents++;
+                code = Math.max(0, Math.min(LEVELS, code));
+                observedMinimums[i] = Math.min(observedMinimums[i], normalized[i]);
+                observedMaximums[i] = Math.max(observedMaximums[i], normalized[i]);
+            }
+            codes[base + i] = (byte) code;
+        }
+    }
+
+    /**
+     * Folds the quantization range into the query so scoring a code row is one multiply-add per
+     * dimension: q.x ~= sum(q[i] * min[i]) + sum(q[i] * step[i] * code[i]).
+     */
+    private QueryTable queryTable(float[] query) {
+        float[] q = VectorKernels.normalizedCopy(query);
+        float[] weights = new float[dimensions];
+        float offset = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            weights[i] = q[i] * steps[i];
+            offset += q[i] * minimums[i];
+        }
+        return new QueryTable(weights, offset);
+    }
+
+    // Caller must hold the write lock.
+    private void removeSlot(int slot) {
+        long removedId = embeddingIds[slot];
+        slotByEmbeddingId.remove(removedId);
+        List<Long> siblings = embeddingIdsByResumeId.get(resumeIds[slot]);
+        if (siblings != null) {
+            siblings.remove(removedId);
+            if (siblings.isEmpty()) {
+                embeddingIdsByResumeId.remove(resumeIds[slot]);
+            }
+        }
+
+        int last = --size;
+        if (slot != last) {
+            if (trained) {
+                System.arraycopy(codes, last * dimensions, codes, slot * dimensions, dimensions);
+            } else {
+                pending.set(slot, pending.get(last));
+            }
+            embeddingIds[slot] = embeddingIds[last];
+            resumeIds[slot] = resumeIds[last];
+            slotByEmbeddingId.put(embeddingIds[slot], slot);
+        }
+        if (!trained) {
+            pending.remove(last);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= embeddingIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(INITIAL_CAPACITY, embeddingIds.length);
+        while (newCapacity < required) {
+            newCapacity <<= 1;
+        }
+        codes = Arrays.copyOf(codes, newCapacity * dimensions);
+        embeddingIds = Arrays.copyOf(embeddingIds, newCapacity);
+        resumeIds = Arrays.copyOf(resumeIds, newCapacity);
+    }
+
+    private List<VectorHit> drain(TopKHeap heap) {
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(new VectorHit(embeddingIds[slots[i]], resumeIds[slots[i]], scores[i]));
+        }
+        return hits;
+    }
+
+    private static final class QueryTable {
+        private final float[] weights;
+        private final float offset;
+
+        QueryTable(float[] weights, float offset) {
+            this.weights = weights;
+            this.offset = offset;
+        }
+
+        float score(byte[] codes, int base) {
+            float sum = offset;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i] * (codes[base + i] & 0xff);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.Resume.ResumeAI.vector;
+
+/**
+ * One resume in a grouped search: its best-scoring chunk plus max/mean over the chunks scored.
+ */
+public class ResumeHit {
+
+    private final long resumeId;
+    private final long bestEmbeddingId;
+    private final float maxScore;
+    private final float meanScore;
+    private final int chunkCount;
+
+    public ResumeHit(long resumeId, long bestEmbeddingId, float maxScore, float meanScore, int chunkCount) {
+        this.resumeId = resumeId;
+        this.bestEmbeddingId = bestEmbeddingId;
+        this.maxScore = maxScore;
+        this.meanScore = meanScore;
+        this.chunkCount = chunkCount;
+    }
+
+    public long getResumeId() {
+        return resumeId;
+    }
+
+    public long getBestEmbeddingId() {
+        return bestEmbeddingId;
+    }
+
+    public float getMaxScore() {
+        return maxScore;
+    }
+
+    public float getMeanScore() {
+        return meanScore;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds a stream of scored chunks into per-resume aggregates (best chunk, max, sum, count) in a
+ * single pass, then selects the top resumes by their best chunk score.
+ */
+public final class ResumeHitCollector {
+
+    private final Map<Long, Integer> indexByResumeId = new HashMap<>();
+    private long[] resumeIds = new long[64];
+    private long[] bestEmbeddingIds = new long[64];
+    private float[] maxScores = new float[64];
+    private double[] sums = new double[64];
+    private int[] counts = new int[64];
+    private int size;
+
+    public void accept(long embeddingId, long resumeId, float score) {
+        Integer index = indexByResumeId.get(resumeId);
+        if (index == null) {
+            if (size == resumeIds.length) {
+                int capacity = size * 2;
+                resumeIds = Arrays.copyOf(resumeIds, capacity);
+                bestEmbeddingIds = Arrays.copyOf(bestEmbeddingIds, capacity);
+                maxScores = Arrays.copyOf(maxScores, capacity);
+                sums = Arrays.copyOf(sums, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            index = size++;
+            indexByResumeId.put(resumeId, index);
+            resumeIds[index] = resumeId;
+            bestEmbeddingIds[index] = embeddingId;
+            maxScores[index] = score;
+        } else if (score > maxScores[index]) {
+            bestEmbeddingIds[index] = embeddingId;
+            maxScores[index] = score;
+        }
+        sums[index] += score;
+        counts[index]++;
+    }
+
+    public int resumeCount() {
+        return size;
+    }
+
+    /**
+     * The {@code n} resumes with the highest best-chunk score, best first.
+     */
+    public List<ResumeHit> top(int n) {
+        TopKHeap heap = new TopKHeap(Math.min(Math.max(0, n), size));
+        for (int i = 0; i < size; i++) {
+            heap.offer(i, maxScores[i]);
+        }
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<ResumeHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = slots[i];
+            hits.add(new ResumeHit(resumeIds[index], bestEmbeddingIds[index], maxScores[index],
+                    (float) (sums[index] / counts[index]), counts[index]));
+        }
+        return hits;
+    }
+}
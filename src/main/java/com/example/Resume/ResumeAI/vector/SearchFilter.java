@@ -0,0 +1,161 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunction of predicates over {@link ChunkAttributes}: owning user, ATS score range
+ * (inclusive), section names (whole base names, case-insensitive) and a resume created-at window
+ * ({@code [from, to)}). Unset predicates match everything. Instances are immutable; the
+ * {@code with*} methods return a copy.
+ */
+public final class SearchFilter {
+
+    // Suffix ResumeChunker gives the pieces of a section too long for one chunk
+    private static final Pattern PART_SUFFIX = Pattern.compile("\\s*\\(part \\d+\\)\\s*$", Pattern.CASE_INSENSITIVE);
+
+    private static final SearchFilter NONE = new SearchFilter(null, null, null, Collections.emptySet(), null, null);
+
+    private final Long userId;
+    private final Integer minAtsScore;
+    private final Integer maxAtsScore;
+    private final Set<String> sectionNames;
+    private final Long createdFromMillis;
+    private final Long createdToMillis;
+
+    private SearchFilter(Long userId, Integer minAtsScore, Integer maxAtsScore, Set<String> sectionNames,
+                         Long createdFromMillis, Long createdToMillis) {
+        this.userId = userId;
+        this.minAtsScore = minAtsScore;
+        this.maxAtsScore = maxAtsScore;
+        this.sectionNames = sectionNames;
+        this.createdFromMillis = createdFromMillis;
+        this.createdToMillis = createdToMillis;
+    }
+
+    public static SearchFilter none() {
+        return NONE;
+    }
+
+    public static SearchFilter forUser(Long userId) {
+        return NONE.withUser(userId);
+    }
+
+    public SearchFilter withUser(Long userId) {
+        return new SearchFilter(userId, minAtsScore, maxAtsScore, sectionNames, createdFromMillis, createdToMillis);
+    }
+
+    public SearchFilter withAtsScoreBetween(Integer min, Integer max) {
+        return new SearchFilter(userId, min, max, sectionNames, createdFromMillis, createdToMillis);
+    }
+
+    public SearchFilter withSections(Collection<String> sections) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (sections != null) {
+            for (String section : sections) {
+                if (section != null && !section.isBlank()) {
+                    normalized.add(normalizeSection(section));
+                }
+            }
+        }
+        return new SearchFilter(userId, minAtsScore, maxAtsScore, Collections.unmodifiableSet(normalized),
+                createdFromMillis, createdToMillis);
+    }
+
+    public SearchFilter withCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return new SearchFilter(userId, minAtsScore, maxAtsScore, sectionNames,
+                ChunkAttributes.toMillis(from), ChunkAttributes.toMillis(to));
+    }
+
+    /**
+     * {@link #withCreatedBetween} with bounds already in epoch millis (UTC), as carried by
+     * {@link ChunkAttributes} and by shard search requests.
+     */
+    public SearchFilter withCreatedBetweenMillis(Long fromMillis, Long toMillis) {
+        return new SearchFilter(userId, minAtsScore, maxAtsScore, sectionNames, fromMillis, toMillis);
+    }
+
+    public boolean isEmpty() {
+        return userId == null && minAtsScore == null && maxAtsScore == null && sectionNames.isEmpty()
+                && createdFromMillis == null && createdToMillis == null;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getMinAtsScore() {
+        return minAtsScore;
+    }
+
+    public Integer getMaxAtsScore() {
+        return maxAtsScore;
+    }
+
+    /**
+     * Lower-cased base section names; empty when sections are not filtered.
+     */
+    public Set<String> getSectionNames() {
+        return sectionNames;
+    }
+
+    public Long getCreatedFromMillis() {
+        return createdFromMillis;
+    }
+
+    public Long getCreatedToMillis() {
+        return createdToMillis;
+    }
+
+    public boolean matches(ChunkAttributes attributes) {
+        if (attributes == null) {
+            return isEmpty();
+        }
+        return (userId == null || userId.equals(attributes.getUserId()))
+                && matchesAtsScore(attributes.getAtsScore())
+                && (sectionNames.isEmpty() || (attributes.getSectionName() != null
+                        && sectionNames.contains(normalizeSection(attributes.getSectionName()))))
+                && matchesCreatedAt(attributes.getCreatedAtMillis());
+    }
+
+    boolean matchesAtsScore(Integer atsScore) {
+        if (minAtsScore == null && maxAtsScore == null) {
+            return true;
+        }
+        return atsScore != null
+                && (minAtsScore == null || atsScore >= minAtsScore)
+                && (maxAtsScore == null || atsScore <= maxAtsScore);
+    }
+
+    boolean matchesCreatedAt(Long createdAtMillis) {
+        if (createdFromMillis == null && createdToMillis == null) {
+            return true;
+        }
+        return createdAtMillis != null
+                && (createdFromMillis == null || createdAtMillis >= createdFromMillis)
+                && (createdToMillis == null || createdAtMillis < createdToMillis);
+    }
+
+    /**
+     * Section name without the " (Part n)" suffix of a split section, so "Experience (Part 2)"
+     * is filtered as "Experience".
+     */
+    static String baseSectionName(String section) {
+        return PART_SUFFIX.matcher(section.trim()).replaceFirst("");
+    }
+
+    static String normalizeSection(String section) {
+        return baseSectionName(section).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchFilter{userId=" + userId + ", atsScore=[" + minAtsScore + ", " + maxAtsScore + "]"
+                + ", sections=" + sectionNames + ", createdAt=[" + createdFromMillis + ", " + createdToMillis + ")}";
+    }
+}
@@ -0,0 +1,527 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exact-scan vector index whose readers never take a lock.
+ *
+ * Rows live in segments of {@code recordsPerSegment} pre-normalized vectors. Only the newest
+ * segment (the tail) is appended to; once full it is sealed and never written again. The
+ * segment list, the tail's row count and one tombstone bitset per segment form an immutable
+ * {@link Snapshot} published through an {@link AtomicReference}: a search reads the reference
+ * once and scans exactly the rows that snapshot covers, while writers build the next snapshot
+ * aside and swap it in. A row's data is written before the snapshot that counts it is
+ * published, so readers never see a half-written vector.
+ *
+ * Deletes copy the affected segment's tombstone bitset (a few hundred bytes) rather than
+ * touching shared state. Writers serialize on one lock, which readers never take.
+ * {@link #compact()} rewrites sealed segments that are mostly tombstones into fresh ones.
+ *
+ * A search that overlaps a write sees the index either before or after it, never in between:
+ * re-adding a chunk retires its old row in the same snapshot that publishes the new one, and a
+ * resume's chunks are tombstoned together.
+ */
+public class SegmentedVectorIndex implements VectorIndex {
+
+    private final int recordsPerSegment;
+    private final double compactionLiveRatio;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    // Written under writeLock; concurrent maps so contains* and searchResume need no lock
+    private final Map<Long, Location> locationByEmbeddingId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> embeddingIdsByResumeId = new ConcurrentHashMap<>();
+
+    private volatile int dimensions;
+    private volatile boolean loaded;
+
+    public SegmentedVectorIndex(int recordsPerSegment, double compactionLiveRatio) {
+        this.recordsPerSegment = Math.max(64, recordsPerSegment);
+        this.compactionLiveRatio = compactionLiveRatio;
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector) {
+        return add(embeddingId, resumeId, vector, null);
+    }
+
+    @Override
+    public boolean add(long embeddingId, long resumeId, float[] vector, ChunkAttributes attributes) {
+        if (vector == null || vector.length == 0) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current.get();
+            if (locationByEmbeddingId.isEmpty() && vector.length != dimensions) {
+                // Empty index: drop the dead segments sized for the old dimensionality
+                snapshot = Snapshot.EMPTY;
+                dimensions = vector.length;
+            }
+            if (vector.length != dimensions) {
+                return false;
+            }
+            Location existing = locationByEmbeddingId.get(embeddingId);
+            if (existing != null) {
+                // Retired in the same snapshot that publishes the new row
+                snapshot = snapshot.withTombstones(Collections.singletonList(existing));
+            }
+
+            if (snapshot.segments.length == 0 || snapshot.tailCount == recordsPerSegment) {
+                // Seal the full tail (it is never written again) and start a new one
+                snapshot = snapshot.withNewTail(new Segment(dimensions, recordsPerSegment));
+            }
+            Segment tail = snapshot.segments[snapshot.segments.length - 1];
+            int row = snapshot.tailCount;
+            VectorKernels.normalizeInto(vector, tail.vectors, row * dimensions);
+            tail.embeddingIds[row] = embeddingId;
+            tail.resumeIds[row] = resumeId;
+            tail.attributes[row] = attributes;
+            tail.count = row + 1;
+
+            current.set(snapshot.withAppended());
+            locationByEmbeddingId.put(embeddingId, new Location(tail, row));
+            if (existing != null && existing.segment.resumeIds[existing.row] != resumeId) {
+                detachFromResume(existing.segment.resumeIds[existing.row], embeddingId);
+            }
+            embeddingIdsByResumeId.computeIfAbsent(resumeId, k -> ConcurrentHashMap.newKeySet()).add(embeddingId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(long embeddingId) {
+        writeLock.lock();
+        try {
+            Location location = locationByEmbeddingId.get(embeddingId);
+            if (location != null) {
+                current.set(current.get().withTombstones(Collections.singletonList(location)));
+                unlink(embeddingId, location);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeResume(long resumeId) {
+        writeLock.lock();
+        try {
+            Set<Long> ids = embeddingIdsByResumeId.get(resumeId);
+            if (ids == null) {
+                return;
+            }
+            List<Location> locations = new ArrayList<>(ids.size());
+            for (Long embeddingId : ids) {
+                Location location = locationByEmbeddingId.get(embeddingId);
+                if (location != null) {
+                    locations.add(location);
+                }
+            }
+            // One snapshot for the whole resume, so no search sees it half deleted
+            current.set(current.get().withTombstones(locations));
+            for (Long embeddingId : new ArrayList<>(ids)) {
+                Location location = locationByEmbeddingId.get(embeddingId);
+                if (location != null) {
+                    unlink(embeddingId, location);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k) {
+        return scan(query, k, null);
+    }
+
+    @Override
+    public List<VectorHit> searchExact(float[] query, int k) {
+        return scan(query, k, null);
+    }
+
+    @Override
+    public boolean supportsFilters() {
+        return true;
+    }
+
+    /**
+     * Exact top-k over the rows whose attributes match; rows are checked during the scan.
+     */
+    @Override
+    public List<VectorHit> search(float[] query, int k, SearchFilter filter) {
+        return scan(query, k, filter == null || filter.isEmpty() ? null : filter);
+    }
+
+    /**
+     * Looks the resume's rows up through the id maps rather than a snapshot, so it can trail a
+     * concurrent delete of that resume by one write.
+     */
+    @Override
+    public List<VectorHit> searchResume(long resumeId, float[] query, int k) {
+        Set<Long> ids = embeddingIdsByResumeId.get(resumeId);
+        int dims = dimensions;
+        if (ids == null || k <= 0 || query == null || query.length != dims) {
+            return Collections.emptyList();
+        }
+        float[] q = VectorKernels.normalizedCopy(query);
+        List<Location> locations = new ArrayList<>();
+        List<Float> scores = new ArrayList<>();
+        for (Long embeddingId : ids) {
+            Location location = locationByEmbeddingId.get(embeddingId);
+            if (location != null) {
+                locations.add(location);
+                scores.add(VectorKernels.dot(q, 0, location.segment.vectors, location.row * dims, dims));
+            }
+        }
+        TopKHeap heap = new TopKHeap(Math.min(k, locations.size()));
+        for (int i = 0; i < locations.size(); i++) {
+            heap.offer(i, scores.get(i));
+        }
+        int[] slots = new int[heap.size()];
+        float[] topScores = new float[heap.size()];
+        int count = heap.drainDescending(slots, topScores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = locations.get(slots[i]);
+            hits.add(new VectorHit(location.segment.embeddingIds[location.row], resumeId, topScores[i]));
+        }
+        return hits;
+    }
+
+    @Override
+    public List<ResumeHit> searchGrouped(float[] query, int n) {
+        return scanGrouped(query, n, null);
+    }
+
+    @Override
+    public List<ResumeHit> searchGrouped(float[] query, int n, SearchFilter filter) {
+        return scanGrouped(query, n, filter == null || filter.isEmpty() ? null : filter);
+    }
+
+    @Override
+    public boolean containsResume(long resumeId) {
+        return embeddingIdsByResumeId.containsKey(resumeId);
+    }
+
+    @Override
+    public boolean containsEmbedding(long embeddingId) {
+        return locationByEmbeddingId.containsKey(embeddingId);
+    }
+
+    @Override
+    public long[] embeddingIds() {
+        return locationByEmbeddingId.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override
+    public int size() {
+        return current.get().live;
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    /**
+     * Number of segments in the current snapshot, the tail included.
+     */
+    public int segmentCount() {
+        return current.get().segments.length;
+    }
+
+    /**
+     * Rewrites the live rows of sealed segments whose live ratio fell below
+     * {@code compactionLiveRatio} into as few new sealed segments as they fill. Searches keep
+     * scanning the old segments until the new snapshot is published.
+     */
+    @Override
+    public void compact() {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current.get();
+            int sealed = snapshot.segments.length - 1;
+            List<Integer> sparse = new ArrayList<>();
+            for (int i = 0; i < sealed; i++) {
+                if (snapshot.liveRows(i) < compactionLiveRatio * snapshot.rows(i)) {
+                    sparse.add(i);
+                }
+            }
+            if (sparse.isEmpty() || (sparse.size() == 1 && snapshot.liveRows(sparse.get(0)) > 0)) {
+                // Rewriting one partly live segment into a new one of the same size gains nothing
+                return;
+            }
+
+            List<Segment> rewritten = new ArrayList<>();
+            Segment target = null;
+            Map<Long, Location> moved = new HashMap<>();
+            for (int index : sparse) {
+                Segment source = snapshot.segments[index];
+                long[] dead = snapshot.tombstones[index];
+                for (int row = 0; row < source.count; row++) {
+                    if (isSet(dead, row)) {
+                        continue;
+                    }
+                    if (target == null || target.count == recordsPerSegment) {
+                        target = new Segment(dimensions, recordsPerSegment);
+                        rewritten.add(target);
+                    }
+                    int to = target.count;
+                    System.arraycopy(source.vectors, row * dimensions, target.vectors, to * dimensions, dimensions);
+                    target.embeddingIds[to] = source.embeddingIds[row];
+                    target.resumeIds[to] = source.resumeIds[row];
+                    target.attributes[to] = source.attributes[row];
+                    target.count = to + 1;
+                    moved.put(source.embeddingIds[row], new Location(target, to));
+                }
+            }
+
+            List<Segment> segments = new ArrayList<>();
+            List<long[]> tombstones = new ArrayList<>();
+            for (int i = 0; i < sealed; i++) {
+                if (!sparse.contains(i)) {
+                    segments.add(snapshot.segments[i]);
+                    tombstones.add(snapshot.tombstones[i]);
+                }
+            }
+            for (Segment segment : rewritten) {
+                segments.add(segment);
+                tombstones.add(new long[words(recordsPerSegment)]);
+            }
+            segments.add(snapshot.segments[sealed]);
+            tombstones.add(snapshot.tombstones[sealed]);
+            current.set(new Snapshot(segments.toArray(new Segment[0]), tombstones.toArray(new long[0][]),
+                    snapshot.tailCount, snapshot.live));
+            locationByEmbeddingId.putAll(moved);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            current.set(Snapshot.EMPTY);
+            locationByEmbeddingId.clear();
+            embeddingIdsByResumeId.clear();
+            dimensions = 0;
+            loaded = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<VectorHit> scan(float[] query, int k, SearchFilter filter) {
+        Snapshot snapshot = current.get();
+        int dims = dimensions;
+        if (snapshot.live == 0 || k <= 0 || query == null || query.length != dims) {
+            return Collections.emptyList();
+        }
+        float[] q = VectorKernels.normalizedCopy(query);
+        int[] bases = new int[snapshot.segments.length];
+        TopKHeap heap = new TopKHeap(Math.min(k, snapshot.live));
+        int base = 0;
+        for (int s = 0; s < snapshot.segments.length; s++) {
+            Segment segment = snapshot.segments[s];
+            long[] dead = snapshot.tombstones[s];
+            int rows = snapshot.rows(s);
+            bases[s] = base;
+            for (int row = 0; row < rows; row++) {
+                if (isSet(dead, row) || (filter != null && !filter.matches(segment.attributes[row]))) {
+                    continue;
+                }
+                heap.offer(base + row, VectorKernels.dot(q, 0, segment.vectors, row * dims, dims));
+            }
+            base += segment.embeddingIds.length;
+        }
+
+        int[] slots = new int[heap.size()];
+        float[] scores = new float[heap.size()];
+        int count = heap.drainDescending(slots, scores);
+        List<VectorHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int s = Arrays.binarySearch(bases, slots[i]);
+            if (s < 0) {
+                s = -s - 2;
+            }
+            Segment segment = snapshot.segments[s];
+            int row = slots[i] - bases[s];
+            hits.add(new VectorHit(segment.embeddingIds[row], segment.resumeIds[row], scores[i]));
+        }
+        return hits;
+    }
+
+    private List<ResumeHit> scanGrouped(float[] query, int n, SearchFilter filter) {
+        Snapshot snapshot = current.get();
+        int dims = dimensions;
+        if (snapshot.live == 0 || n <= 0 || query == null || query.length != dims) {
+            return Collections.emptyList();
+        }
+        float[] q = VectorKernels.normalizedCopy(query);
+        ResumeHitCollector collector = new ResumeHitCollector();
+        for (int s = 0; s < snapshot.segments.length; s++) {
+            Segment segment = snapshot.segments[s];
+            long[] dead = snapshot.tombstones[s];
+            int rows = snapshot.rows(s);
+            for (int row = 0; row < rows; row++) {
+                if (isSet(dead, row) || (filter != null && !filter.matches(segment.attributes[row]))) {
+                    continue;
+                }
+                collector.accept(segment.embeddingIds[row], segment.resumeIds[row],
+                        VectorKernels.dot(q, 0, segment.vectors, row * dims, dims));
+            }
+        }
+        return collector.top(n);
+    }
+
+    // Caller holds writeLock and has already published the tombstone.
+    private void unlink(long embeddingId, Location location) {
+        locationByEmbeddingId.remove(embeddingId);
+        detachFromResume(location.segment.resumeIds[location.row], embeddingId);
+    }
+
+    private void detachFromResume(long resumeId, long embeddingId) {
+        Set<Long> siblings = embeddingIdsByResumeId.get(resumeId);
+        if (siblings != null) {
+            siblings.remove(embeddingId);
+            if (siblings.isEmpty()) {
+                embeddingIdsByResumeId.remove(resumeId);
+            }
+        }
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Row storage; a sealed segment is never written again.
+     */
+    private static final class Segment {
+        private final float[] vectors;
+        private final long[] embeddingIds;
+        private final long[] resumeIds;
+        private final ChunkAttributes[] attributes;
+        // Rows written so far. Searches read it only for sealed segments, whose count no longer
+        // changes and was written before the snapshot sealing them was published; the tail's
+        // visible rows are the snapshot's tailCount. A segment written by compact() is sealed
+        // with fewer rows than its capacity.
+        private int count;
+
+        private Segment(int dimensions, int capacity) {
+            this.vectors = new float[capacity * dimensions];
+            this.embeddingIds = new long[capacity];
+            this.resumeIds = new long[capacity];
+            this.attributes = new ChunkAttributes[capacity];
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final int row;
+
+        private Location(Segment segment, int row) {
+            this.segment = segment;
+            this.row = row;
+        }
+    }
+
+    /**
+     * Immutable view of the index: segments (the last one is the tail), how many tail rows are
+     * visible, one tombstone bitset per segment, and the live row count.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new Segment[0], new long[0][], 0, 0);
+
+        private final Segment[] segments;
+        private final long[][] tombstones;
+        private final int tailCount;
+        private final int live;
+
+        private Snapshot(Segment[] segments, long[][] tombstones, int tailCount, int live) {
+            this.segments = segments;
+            this.tombstones = tombstones;
+            this.tailCount = tailCount;
+            this.live = live;
+        }
+
+        private int rows(int segment) {
+            return segment == segments.length - 1 ? tailCount : segments[segment].count;
+        }
+
+        private int liveRows(int segment) {
+            return rows(segment) - countBits(tombstones[segment]);
+        }
+
+        private Snapshot withNewTail(Segment tail) {
+            Segment[] nextSegments = Arrays.copyOf(segments, segments.length + 1);
+            nextSegments[segments.length] = tail;
+            long[][] nextTombstones = Arrays.copyOf(tombstones, tombstones.length + 1);
+            nextTombstones[tombstones.length] = new long[words(tail.embeddingIds.length)];
+            return new Snapshot(nextSegments, nextTombstones, 0, live);
+        }
+
+        private Snapshot withAppended() {
+            return new Snapshot(segments, tombstones, tailCount + 1, live + 1);
+        }
+
+        private Snapshot withTombstones(List<Location> locations) {
+            long[][] nextTombstones = tombstones.clone();
+            boolean[] copied = new boolean[segments.length];
+            int removed = 0;
+            for (Location location : locations) {
+                int s = indexOf(location.segment);
+                if (s < 0 || isSet(nextTombstones[s], location.row)) {
+                    continue;
+                }
+                if (!copied[s]) {
+                    nextTombstones[s] = nextTombstones[s].clone();
+                    copied[s] = true;
+                }
+                nextTombstones[s][location.row >>> 6] |= 1L << location.row;
+                removed++;
+            }
+            return removed == 0 ? this : new Snapshot(segments, nextTombstones, tailCount, live - removed);
+        }
+
+        private int indexOf(Segment segment) {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                if (segments[i] == segment) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int countBits(long[] bits) {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.Resume.ResumeAI.vector;
+
+/**
+ * Fixed-capacity min-heap of (slot, score) pairs backed by primitive arrays.
+ * Keeps the k best scores seen so far without boxing or re-sorting the whole candidate set.
+ */
+public final class TopKHeap {
+
+    private final int capacity;
+    private final int[] slots;
+    private final float[] scores;
+    private int size;
+
+    public TopKHeap(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.slots = new int[this.capacity];
+        this.scores = new float[this.capacity];
+    }
+
+    /**
+     * Offers a candidate; it is kept only if the heap is not full or it beats the current minimum.
+     */
+    public void offer(int slot, float score) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            slots[size] = slot;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            slots[0] = slot;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Lowest score currently retained, or negative infinity while the heap is not yet full.
+     */
+    public float threshold() {
+        return size < capacity ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * Slot holding the lowest retained score; the one a successful {@link #offer} replaces once
+     * the heap is full. Lets callers recycle a k-sized side buffer keyed by slot.
+     */
+    public int minSlot() {
+        return slots[0];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drains the heap into {@code outSlots}/{@code outScores} ordered best-first and returns the count.
+     */
+    public int drainDescending(int[] outSlots, float[] outScores) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            outSlots[i] = slots[0];
+            outScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                slots[0] = slots[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[i] >= scores[parent]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int smallest = (right < size && scores[right] < scores[left]) ? right : left;
+            if (scores[i] <= scores[smallest]) {
+                break;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int s = slots[a];
+        slots[a] = slots[b];
+        slots[b] = s;
+        float f = scores[a];
+        scores[a] = scores[b];
+        scores[b] = f;
+    }
+}
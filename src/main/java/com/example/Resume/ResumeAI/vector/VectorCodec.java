@@ -0,0 +1,152 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Binary layout used for the {@code resume_embeddings.embedding_data} column.
+ *
+ * Byte 0 holds the element format, followed by the vector elements in little-endian order:
+ * 4 bytes per element for FLOAT32, 2 bytes (IEEE 754 half precision) for FLOAT16.
+ * The dimensionality is implied by the payload length.
+ */
+public final class VectorCodec {
+
+    public enum Format {
+        FLOAT32((byte) 1, 4),
+        FLOAT16((byte) 2, 2);
+
+        private final byte tag;
+        private final int bytesPerElement;
+
+        Format(byte tag, int bytesPerElement) {
+            this.tag = tag;
+            this.bytesPerElement = bytesPerElement;
+        }
+
+        public int getBytesPerElement() {
+            return bytesPerElement;
+        }
+
+        public static Format fromTag(byte tag) {
+            for (Format format : values()) {
+                if (format.tag == tag) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown vector format tag: " + tag);
+        }
+
+        public static Format fromName(String name) {
+            if (name == null || name.isBlank()) {
+                return FLOAT32;
+            }
+            return Format.valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    private VectorCodec() {
+    }
+
+    public static byte[] encode(float[] vector, Format format) {
+        byte[] bytes = new byte[1 + vector.length * format.bytesPerElement];
+        bytes[0] = format.tag;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (format == Format.FLOAT32) {
+            buffer.asFloatBuffer().put(vector);
+        } else {
+            ShortBuffer halves = buffer.asShortBuffer();
+            for (float v : vector) {
+                halves.put(floatToHalf(v));
+            }
+        }
+        return bytes;
+    }
+
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length < 1) {
+            return new float[0];
+        }
+        Format format = Format.fromTag(bytes[0]);
+        float[] vector = new float[dimensions(bytes)];
+        ByteBuffer buffer = payload(bytes);
+        if (format == Format.FLOAT32) {
+            buffer.asFloatBuffer().get(vector);
+        } else {
+            ShortBuffer halves = buffer.asShortBuffer();
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = halfToFloat(halves.get(i));
+            }
+        }
+        return vector;
+    }
+
+    public static int dimensions(byte[] bytes) {
+        if (bytes == null || bytes.length < 1) {
+            return 0;
+        }
+        return (bytes.length - 1) / Format.fromTag(bytes[0]).bytesPerElement;
+    }
+
+    private static ByteBuffer payload(byte[] bytes) {
+        return ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static short floatToHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xff) - 127 + 15;
+        int mantissa = bits & 0x7fffff;
+
+        if (((bits >>> 23) & 0xff) == 0xff) {
+            // Infinity or NaN
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exponent >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            // Subnormal half: shift the implicit leading bit into the mantissa, rounding to nearest
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            int rounded = (mantissa + (1 << (shift - 1))) >> shift;
+            return (short) (sign | rounded);
+        }
+        int rounded = mantissa + 0x1000;
+        if ((rounded & 0x800000) != 0) {
+            rounded = 0;
+            exponent++;
+            if (exponent >= 0x1f) {
+                return (short) (sign | 0x7c00);
+            }
+        }
+        return (short) (sign | (exponent << 10) | (rounded >> 13));
+    }
+
+    static float halfToFloat(short half) {
+        int h = half & 0xffff;
+        int sign = (h & 0x8000) << 16;
+        int exponent = (h >>> 10) & 0x1f;
+        int mantissa = h & 0x3ff;
+
+        if (exponent == 0) {
+            if (mantissa == 0) {
+                return Float.intBitsToFloat(sign);
+            }
+            // Normalize the subnormal value
+            while ((mantissa & 0x400) == 0) {
+                mantissa <<= 1;
+                exponent--;
+            }
+            exponent++;
+            mantissa &= 0x3ff;
+        } else if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 127 - 15) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.Resume.ResumeAI.vector;
+
+/**
+ * A single scored chunk returned by a vector index search.
+ */
+public class VectorHit {
+
+    private final long embeddingId;
+    private final long resumeId;
+    private final float score;
+
+    public VectorHit(long embeddingId, long resumeId, float score) {
+        this.embeddingId = embeddingId;
+        this.resumeId = resumeId;
+        this.score = score;
+    }
+
+    public long getEmbeddingId() {
+        return embeddingId;
+    }
+
+    public long getResumeId() {
+        return resumeId;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
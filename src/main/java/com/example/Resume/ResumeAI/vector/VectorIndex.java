@@ -0,0 +1,165 @@
+package com.example.Resume.ResumeAI.vector;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resident similarity index over resume chunk vectors, keyed by embedding id and resume id.
+ * Scores are cosine similarities; implementations normalize vectors on insert.
+ */
+public interface VectorIndex {
+
+    /**
+     * Adds (or replaces) a chunk vector. Returns false if the vector was rejected.
+     */
+    boolean add(long embeddingId, long resumeId, float[] vector);
+
+    /**
+     * Adds a chunk vector together with the attributes {@link SearchFilter}s are evaluated
+     * against. Indexes that do not keep attributes ignore them.
+     */
+    default boolean add(long embeddingId, long resumeId, float[] vector, ChunkAttributes attributes) {
+        return add(embeddingId, resumeId, vector);
+    }
+
+    void remove(long embeddingId);
+
+    void removeResume(long resumeId);
+
+    /**
+     * Top-k search using the index's native strategy (exact or approximate).
+     */
+    List<VectorHit> search(float[] query, int k);
+
+    /**
+     * Brute-force top-k search over every live vector, for recall comparison against {@link #search}.
+     */
+    List<VectorHit> searchExact(float[] query, int k);
+
+    List<VectorHit> searchResume(long resumeId, float[] query, int k);
+
+    /**
+     * Whether {@link #search(float[], int, SearchFilter)} can apply filters inside the index.
+     */
+    default boolean supportsFilters() {
+        return false;
+    }
+
+    /**
+     * Top-k among the chunks matching {@code filter}. The filter restricts the candidate set
+     * before scoring, so k matching hits come back whenever k chunks match. Indexes that do not
+     * keep chunk attributes only accept an empty filter.
+     */
+    default List<VectorHit> search(float[] query, int k, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return search(query, k);
+        }
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support search filters");
+    }
+
+    /**
+     * Top {@code n} distinct resumes ranked by their best chunk, each with max and mean score over
+     * all of its chunks. Exhaustive indexes override this with a single scan; the default widens
+     * {@link #search} until it has seen {@code n} distinct resumes (or the whole index) and then
+     * scores the chosen resumes' chunks with {@link #searchResume}.
+     */
+    default List<ResumeHit> searchGrouped(float[] query, int n) {
+        int total = size();
+        if (n <= 0 || total == 0) {
+            return List.of();
+        }
+        int depth = Math.min(total, Math.max(32, n * 4));
+        while (true) {
+            Set<Long> resumeIds = new LinkedHashSet<>();
+            for (VectorHit hit : search(query, depth)) {
+                resumeIds.add(hit.getResumeId());
+                if (resumeIds.size() == n) {
+                    break;
+                }
+            }
+            if (resumeIds.size() >= n || depth >= total) {
+                ResumeHitCollector collector = new ResumeHitCollector();
+                for (Long resumeId : resumeIds) {
+                    for (VectorHit hit : searchResume(resumeId, query, Integer.MAX_VALUE)) {
+                        collector.accept(hit.getEmbeddingId(), hit.getResumeId(), hit.getScore());
+                    }
+                }
+                return collector.top(n);
+            }
+            depth = (int) Math.min(total, depth * 2L);
+        }
+    }
+
+    /**
+     * Grouped variant of {@link #search(float[], int, SearchFilter)}; max and mean are taken over
+     * each resume's matching chunks only.
+     */
+    default List<ResumeHit> searchGrouped(float[] query, int n, SearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return searchGrouped(query, n);
+        }
+        ResumeHitCollector collector = new ResumeHitCollector();
+        for (VectorHit hit : search(query, Math.max(1, size()), filter)) {
+            collector.accept(hit.getEmbeddingId(), hit.getResumeId(), hit.getScore());
+        }
+        return collector.top(n);
+    }
+
+    boolean containsResume(long resumeId);
+
+    boolean containsEmbedding(long embeddingId);
+
+    /**
+     * Embedding ids currently resident in the index.
+     */
+    long[] embeddingIds();
+
+    int size();
+
+    /**
+     * Whether the index has been bulk-loaded (or restored) since startup.
+     */
+    boolean isLoaded();
+
+    void markLoaded();
+
+    /**
+     * Number of hits callers should re-score against full-precision vectors before returning
+     * results, or 0 when the index's own scores are already exact cosines.
+     */
+    default int rerankDepth() {
+        return 0;
+    }
+
+    /**
+     * Highest embedding id the index holds (or has held). Embedding ids only grow, so after a
+     * restore the rows above it are the ones written since the snapshot; 0 for an empty index.
+     */
+    default long watermark() {
+        long highest = 0;
+        for (long embeddingId : embeddingIds()) {
+            highest = Math.max(highest, embeddingId);
+        }
+        return highest;
+    }
+
+    /**
+     * Restores previously persisted state. Returns false when there is nothing to restore.
+     */
+    default boolean restore() {
+        return false;
+    }
+
+    /**
+     * Persists the current state so a restart does not have to rebuild from the database.
+     */
+    default void persist() {
+    }
+
+    /**
+     * Background maintenance such as merging sparse storage segments; a no-op by default.
+     */
+    default void compact() {
+    }
+}
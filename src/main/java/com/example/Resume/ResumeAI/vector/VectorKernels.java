@@ -0,0 +1,146 @@
+package com.example.Resume.ResumeAI.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Primitive similarity kernels shared by every vector index.
+ *
+ * Vectors are L2-normalized once at index time, so a cosine similarity is a single dot product.
+ * The dot product runs on the Java Vector API when the {@code jdk.incubator.vector} module is
+ * available at runtime (JVM started with {@code --add-modules jdk.incubator.vector}) and on a
+ * 4-way unrolled scalar loop otherwise. Set {@code -Dvector.kernel.simd=false} to force scalar.
+ */
+public final class VectorKernels {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorKernels.class);
+
+    private static final boolean SIMD_AVAILABLE = detectSimd();
+
+    private VectorKernels() {
+    }
+
+    public static boolean isSimdEnabled() {
+        return SIMD_AVAILABLE;
+    }
+
+    public static float dot(float[] a, float[] b) {
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Dot product of {@code a[aOffset..aOffset+length)} and {@code b[bOffset..bOffset+length)}.
+     */
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        if (SIMD_AVAILABLE) {
+            return PanamaVectorKernel.dot(a, aOffset, b, bOffset, length);
+        }
+        return dotScalar(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Unrolled scalar path; four independent accumulators let the JIT pipeline the multiply-adds.
+     */
+    public static float dotScalar(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int upper = length & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Dot product of {@code a[aOffset..aOffset+length)} with {@code length} floats stored in
+     * {@code buffer} from {@code byteOffset}, read in place without copying to the heap. The
+     * buffer must be little-endian.
+     */
+    public static float dot(float[] a, int aOffset, ByteBuffer buffer, int byteOffset, int length) {
+        if (SIMD_AVAILABLE) {
+            return PanamaVectorKernel.dot(a, aOffset, buffer, byteOffset, length);
+        }
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int upper = length & ~3;
+        for (; i < upper; i += 4) {
+            int at = byteOffset + (i << 2);
+            s0 += a[aOffset + i] * buffer.getFloat(at);
+            s1 += a[aOffset + i + 1] * buffer.getFloat(at + 4);
+            s2 += a[aOffset + i + 2] * buffer.getFloat(at + 8);
+            s3 += a[aOffset + i + 3] * buffer.getFloat(at + 12);
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * buffer.getFloat(byteOffset + (i << 2));
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Cosine similarity of two raw (not necessarily normalized) vectors; 0 when either is empty,
+     * zero-length or the dimensions differ.
+     */
+    public static float cosine(float[] a, float[] b) {
+        if (a == null || b == null || a.length == 0 || a.length != b.length) {
+            return 0f;
+        }
+        float dot = dot(a, b);
+        float normA = dot(a, a);
+        float normB = dot(b, b);
+        return (normA == 0f || normB == 0f) ? 0f : (float) (dot / Math.sqrt((double) normA * normB));
+    }
+
+    public static float[] normalizedCopy(float[] vector) {
+        float[] copy = new float[vector.length];
+        normalizeInto(vector, copy, 0);
+        return copy;
+    }
+
+    /**
+     * Writes the L2-normalized {@code source} into {@code target} starting at {@code offset}.
+     * A zero vector stays zero.
+     */
+    public static void normalizeInto(float[] source, float[] target, int offset) {
+        double sumSquare = 0.0;
+        for (float v : source) {
+            sumSquare += (double) v * v;
+        }
+        float inverse = sumSquare > 0.0 ? (float) (1.0 / Math.sqrt(sumSquare)) : 0f;
+        for (int i = 0; i < source.length; i++) {
+            target[offset + i] = source[i] * inverse;
+        }
+    }
+
+    private static boolean detectSimd() {
+        if (!Boolean.parseBoolean(System.getProperty("vector.kernel.simd", "true"))) {
+            logger.info("Vector API kernel disabled by -Dvector.kernel.simd=false; using scalar kernel");
+            return false;
+        }
+        try {
+            // Touching the class fails with NoClassDefFoundError when the incubator module is not resolved
+            float probe = PanamaVectorKernel.dot(new float[]{1f, 2f}, 0, new float[]{3f, 4f}, 0, 2);
+            if (probe != 11f) {
+                return false;
+            }
+            logger.info("Using Vector API dot-product kernel ({} lanes)", PanamaVectorKernel.lanes());
+            return true;
+        } catch (Throwable t) {
+            logger.info("Vector API not available ({}); using scalar dot-product kernel", t.getClass().getSimpleName());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.SegmentedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Search latency (p50/p99) on an idle index versus during a bulk import, for the flat index
+ * (searches share a read-write lock with writers) and the segmented index (searches never
+ * block). The import is throttled like one waiting on embedding calls. Run with
+ * {@code mvn test -Pbenchmark}; the flatness check needs a core to spare for the importer.
+ */
+@Tag("benchmark")
+class ConcurrentSearchLatencyBenchmarkTest {
+
+    private static final int DIMENSIONS = 384;
+    private static final int PRELOADED = 30_000;
+    private static final int IMPORTED = 10_000;
+    private static final int IMPORT_BATCH = 25;
+    private static final int SEARCHES = 200;
+
+    @Test
+    void testSearchLatencyStaysFlatDuringBulkImport() throws Exception {
+        float[][] vectors = new float[PRELOADED + IMPORTED][];
+        Random random = new Random(11);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+        }
+        float[][] queries = new float[SEARCHES][];
+        for (int i = 0; i < SEARCHES; i++) {
+            queries[i] = randomVector(random);
+        }
+
+        measure("flat", new InMemoryVectorIndex(), vectors, queries);
+        double[] segmented = measure("segmented", new SegmentedVectorIndex(4096, 0.5), vectors, queries);
+
+        // On a single core the importer and the searches take turns, whatever the index does
+        assumeTrue(Runtime.getRuntime().availableProcessors() > 1, "needs more than one core");
+        // The import grows the index by a third, so allow for that plus scheduling noise
+        assertTrue(segmented[1] <= segmented[0] * 2 + 1.0,
+                String.format("segmented p99 %.2f ms during import vs %.2f ms idle", segmented[1], segmented[0]));
+    }
+
+    /**
+     * Returns {idle p99, import p99} in milliseconds.
+     */
+    private static double[] measure(String name, VectorIndex index, float[][] vectors, float[][] queries) throws Exception {
+        for (int i = 0; i < PRELOADED; i++) {
+            index.add(i, i / 4, vectors[i]);
+        }
+        // Warm-up so the measured searches run JIT-compiled code
+        for (float[] query : queries) {
+            index.search(query, 10);
+        }
+        double[] idle = latencies(index, queries);
+
+        Thread importer = new Thread(() -> {
+            for (int i = PRELOADED; i < vectors.length; i++) {
+                index.add(i, i / 4, vectors[i]);
+                if (i % IMPORT_BATCH == 0) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        });
+        importer.start();
+        double[] loaded = latenciesWhile(index, queries, importer);
+        importer.join();
+
+        System.out.printf("%s: idle p50 %.2f / p99 %.2f ms, during import p50 %.2f / p99 %.2f ms (%d searches)%n",
+                name, percentile(idle, 0.50), percentile(idle, 0.99), percentile(loaded, 0.50), percentile(loaded, 0.99),
+                loaded.length);
+        return new double[]{percentile(idle, 0.99), percentile(loaded, 0.99)};
+    }
+
+    private static double[] latencies(VectorIndex index, float[][] queries) {
+        double[] millis = new double[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            index.search(queries[i], 10);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    /**
+     * Searches back to back until {@code writer} finishes, cycling through the queries.
+     */
+    private static double[] latenciesWhile(VectorIndex index, float[][] queries, Thread writer) {
+        double[] millis = new double[1024];
+        int count = 0;
+        while (writer.isAlive() && count < millis.length) {
+            long start = System.nanoTime();
+            index.search(queries[count % queries.length], 10);
+            millis[count++] = (System.nanoTime() - start) / 1e6;
+        }
+        millis = Arrays.copyOf(millis, Math.max(1, count));
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
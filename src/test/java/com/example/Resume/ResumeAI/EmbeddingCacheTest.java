@@ -0,0 +1,70 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.EmbeddingCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntry() {
+        EmbeddingCache cache = new EmbeddingCache(2, Duration.ofHours(1));
+        cache.put("a", new float[]{1f});
+        cache.put("b", new float[]{2f});
+        assertNotNull(cache.get("a")); // "b" is now the least recently used
+        cache.put("c", new float[]{3f});
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void testExpiresEntriesAfterTtl() {
+        AtomicLong clock = new AtomicLong();
+        EmbeddingCache cache = new EmbeddingCache(10, Duration.ofSeconds(60), clock::get);
+        cache.put("q", new float[]{0.5f, 0.25f});
+
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertArrayEquals(new float[]{0.5f, 0.25f}, cache.get("q"));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get("q"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+
+    @Test
+    void testCountsHitsAndMissesAndCopiesVectors() {
+        EmbeddingCache cache = new EmbeddingCache(10, Duration.ofHours(1));
+        assertNull(cache.get("missing"));
+        float[] vector = {1f, 2f};
+        cache.put("k", vector);
+        vector[0] = 9f;
+
+        float[] cached = cache.get("k");
+        assertEquals(1f, cached[0]);
+        cached[1] = 9f;
+        assertEquals(2f, cache.get("k")[1]);
+
+        Map<String, Object> stats = cache.stats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(2.0 / 3.0, (double) stats.get("hitRate"), 1e-9);
+    }
+
+    @Test
+    void testKeyNormalizesWhitespaceAndSeparatesModels() {
+        String key = EmbeddingCache.key("model-a", "Senior  Java\n\tDeveloper ");
+        assertEquals(key, EmbeddingCache.key("model-a", "Senior Java Developer"));
+        assertNotEquals(key, EmbeddingCache.key("model-b", "Senior Java Developer"));
+        assertNotEquals(key, EmbeddingCache.key("model-a", "senior java developer"));
+    }
+}
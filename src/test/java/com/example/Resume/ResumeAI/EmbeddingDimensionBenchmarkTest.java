@@ -0,0 +1,192 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.EmbeddingService;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recall@10 of reduced output dimensionality (truncate + re-normalize, which is what
+ * {@code embedding.output-dimensionality} does) against the full 768-dimensional ranking, with
+ * the memory and exact-scan time per size, so the size can be picked from data.
+ *
+ * The fixed corpus is synthetic: topic clusters whose variance decays over the dimensions the
+ * way Matryoshka-trained embeddings concentrate information in their leading coordinates. With
+ * GEMINI_API_KEY set, the same report also runs on real embeddings of a fixed resume-snippet
+ * corpus. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class EmbeddingDimensionBenchmarkTest {
+
+    private static final int FULL_DIMENSIONS = 768;
+    private static final int[] REDUCED_DIMENSIONS = {512, 384, 256, 128, 64};
+    private static final int K = 10;
+
+    @Test
+    void testRecallOfReducedDimensionsOnSyntheticCorpus() {
+        Random random = new Random(11);
+        int topics = 40;
+        float[][] centers = new float[topics][];
+        for (int t = 0; t < topics; t++) {
+            centers[t] = spectralGaussian(random, 1.0f);
+        }
+        List<float[]> corpus = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            corpus.add(add(centers[random.nextInt(topics)], spectralGaussian(random, 0.6f)));
+        }
+        List<float[]> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            queries.add(add(centers[random.nextInt(topics)], spectralGaussian(random, 0.6f)));
+        }
+
+        double[] recall = report("synthetic", corpus, queries);
+        // 256 dimensions is the size we would actually consider; it must keep most neighbours
+        assertTrue(recall[2] >= 0.7, "recall@10 at 256 dimensions too low: " + recall[2]);
+        for (int i = 1; i < recall.length; i++) {
+            assertTrue(recall[i] <= recall[i - 1] + 0.05, "recall should not grow as dimensions shrink");
+        }
+    }
+
+    @Test
+    void testRecallOfReducedDimensionsOnGeminiEmbeddings() {
+        String apiKey = System.getenv("GEMINI_API_KEY");
+        if (apiKey == null || apiKey.isBlank()) {
+            System.out.println("GEMINI_API_KEY not set; skipping the real-embedding recall report");
+            return;
+        }
+        EmbeddingService embeddingService = new EmbeddingService(new ObjectMapper());
+        ReflectionTestUtils.setField(embeddingService, "apiKey", apiKey);
+        ReflectionTestUtils.setField(embeddingService, "geminiUrl", "https://generativelanguage.googleapis.com/v1beta");
+        ReflectionTestUtils.setField(embeddingService, "embeddingsModel",
+                System.getProperty("benchmark.embeddings.model", "gemini-embedding-001"));
+        ReflectionTestUtils.setField(embeddingService, "outputDimensionality", FULL_DIMENSIONS);
+
+        String[] roles = {"Backend engineer", "Data engineer", "Frontend developer", "DevOps engineer",
+                "Machine learning engineer", "Product manager", "QA engineer", "Mobile developer"};
+        String[] skills = {"Java and Spring Boot", "Python and PySpark", "React and TypeScript", "Kubernetes and Terraform",
+                "PyTorch and MLOps", "roadmaps and stakeholder management", "Selenium and test automation",
+                "Kotlin and Swift", "PostgreSQL tuning", "AWS and GCP", "Kafka streaming", "C++ and embedded Linux"};
+        List<String> texts = new ArrayList<>();
+        for (int r = 0; r < roles.length; r++) {
+            for (int s = 0; s < skills.length; s++) {
+                texts.add(roles[r] + " with " + (2 + (r * s) % 9) + " years of experience in " + skills[s] + ".");
+            }
+        }
+        List<String> queryTexts = List.of(
+                "Senior Java developer for payment microservices",
+                "Spark data pipelines and lakehouse",
+                "React UI engineer",
+                "Site reliability engineer with Kubernetes",
+                "Deep learning model deployment",
+                "Agile product owner",
+                "Automation tester",
+                "iOS and Android apps",
+                "Database performance expert",
+                "Cloud infrastructure engineer");
+
+        List<float[]> corpus = embeddingService.generateVectors(texts);
+        List<float[]> queries = embeddingService.generateVectors(queryTexts);
+        report("gemini", corpus, queries);
+    }
+
+    /**
+     * Prints recall@10, bytes per vector and exact-scan time per query for every reduced size;
+     * returns the recalls in {@link #REDUCED_DIMENSIONS} order.
+     */
+    private double[] report(String label, List<float[]> corpus, List<float[]> queries) {
+        List<Set<Long>> truth = new ArrayList<>();
+        long fullNanos = scan(corpus, queries, FULL_DIMENSIONS, truth);
+        System.out.printf("%s corpus: %d vectors, %d queries%n", label, corpus.size(), queries.size());
+        System.out.printf("  %4d dims: recall@%d 1.000, %5d bytes/vector, %.3f ms/query%n",
+                FULL_DIMENSIONS, K, FULL_DIMENSIONS * 4, fullNanos / 1e6 / queries.size());
+
+        double[] recall = new double[REDUCED_DIMENSIONS.length];
+        for (int i = 0; i < REDUCED_DIMENSIONS.length; i++) {
+            int dimensions = REDUCED_DIMENSIONS[i];
+            List<Set<Long>> found = new ArrayList<>();
+            long nanos = scan(corpus, queries, dimensions, found);
+            long hits = 0;
+            long total = 0;
+            for (int q = 0; q < queries.size(); q++) {
+                for (Long id : found.get(q)) {
+                    if (truth.get(q).contains(id)) {
+                        hits++;
+                    }
+                }
+                total += truth.get(q).size();
+            }
+            recall[i] = (double) hits / total;
+            System.out.printf("  %4d dims: recall@%d %.3f, %5d bytes/vector, %.3f ms/query%n",
+                    dimensions, K, recall[i], dimensions * 4, nanos / 1e6 / queries.size());
+        }
+        return recall;
+    }
+
+    private long scan(List<float[]> corpus, List<float[]> queries, int dimensions, List<Set<Long>> results) {
+        InMemoryVectorIndex index = new InMemoryVectorIndex();
+        for (int i = 0; i < corpus.size(); i++) {
+            index.add(i, i, truncate(corpus.get(i), dimensions));
+        }
+        List<float[]> reduced = new ArrayList<>(queries.size());
+        for (float[] query : queries) {
+            reduced.add(truncate(query, dimensions));
+        }
+        // Warm-up so the scan is JIT-compiled before timing
+        for (int r = 0; r < 3; r++) {
+            index.searchExact(reduced.get(r % reduced.size()), K);
+        }
+        long start = System.nanoTime();
+        for (float[] query : reduced) {
+            Set<Long> ids = new HashSet<>();
+            for (VectorHit hit : index.searchExact(query, K)) {
+                ids.add(hit.getEmbeddingId());
+            }
+            results.add(ids);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static float[] truncate(float[] vector, int dimensions) {
+        float[] truncated = new float[dimensions];
+        System.arraycopy(vector, 0, truncated, 0, dimensions);
+        double sumSquare = 0.0;
+        for (float v : truncated) {
+            sumSquare += v * v;
+        }
+        float scale = sumSquare > 0 ? (float) (1.0 / Math.sqrt(sumSquare)) : 0f;
+        for (int i = 0; i < dimensions; i++) {
+            truncated[i] *= scale;
+        }
+        return truncated;
+    }
+
+    /**
+     * Gaussian vector whose per-dimension scale decays with the index, like a Matryoshka embedding.
+     */
+    private static float[] spectralGaussian(Random random, float scale) {
+        float[] vector = new float[FULL_DIMENSIONS];
+        for (int i = 0; i < FULL_DIMENSIONS; i++) {
+            vector[i] = (float) (random.nextGaussian() * scale / Math.sqrt(1.0 + i / 16.0));
+        }
+        return vector;
+    }
+
+    private static float[] add(float[] a, float[] b) {
+        float[] sum = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.HashingEmbedder;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingEmbedderTest {
+
+    private final HashingEmbedder embedder = new HashingEmbedder(768);
+
+    @Test
+    void testDeterministicUnitVectors() {
+        String text = "Senior Java developer, Spring Boot and PostgreSQL";
+        float[] first = embedder.embed(text);
+        float[] second = new HashingEmbedder(768).embed(text);
+
+        assertEquals(768, first.length);
+        assertArrayEquals(first, second);
+        assertEquals(1.0, norm(first), 1e-5);
+        assertEquals(1.0, norm(embedder.embed("  ... ")), 1e-5);
+    }
+
+    @Test
+    void testRelatedTextsScoreAboveUnrelatedOnes() {
+        float[] query = embedder.embed("Kubernetes platform engineer");
+        float[] related = embedder.embed("Operated Kubernetes clusters and built the internal platform with Terraform.");
+        float[] inflected = embedder.embed("Engineering lead for the company platform");
+        float[] unrelated = embedder.embed("Managed payroll and vendor invoices for the finance team.");
+
+        assertTrue(dot(query, related) > dot(query, unrelated) + 0.1);
+        // Character trigrams carry "engineer" -> "engineering"
+        assertTrue(dot(query, inflected) > dot(query, unrelated));
+        assertEquals(1.0, dot(query, embedder.embed("kubernetes PLATFORM engineer")), 1e-5);
+    }
+
+    @Test
+    void testRanksMatchingChunkFirst() {
+        List<String> chunks = List.of(
+                "SKILLS: Python, PySpark, Airflow, dbt",
+                "EXPERIENCE: Built React and TypeScript dashboards",
+                "EDUCATION: BSc Computer Science",
+                "EXPERIENCE: Tuned PostgreSQL queries and indexes for a payments service");
+        InMemoryVectorIndex index = new InMemoryVectorIndex();
+        for (int i = 0; i < chunks.size(); i++) {
+            index.add(i, i, embedder.embed(chunks.get(i)));
+        }
+
+        List<VectorHit> hits = index.searchExact(embedder.embed("spark data pipelines in python"), 2);
+        assertEquals(0L, hits.get(0).getEmbeddingId());
+        hits = index.searchExact(embedder.embed("postgres query tuning"), 2);
+        assertEquals(3L, hits.get(0).getEmbeddingId());
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static double norm(float[] vector) {
+        return Math.sqrt(dot(vector, vector));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.IndexChangeNotifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index change events against a real PostgreSQL: delivered on commit only, in commit order,
+ * with versions from resumes.index_version.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IndexChangeNotifierTest {
+
+    private static final String CHANNEL = "resume_index_changes_test";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private IndexChangeNotifier notifier;
+    private Connection listening;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS resumes");
+        // Minimal shape of the Hibernate-managed table plus the column DatabaseMigration adds
+        jdbcTemplate.execute("CREATE TABLE resumes (id BIGINT PRIMARY KEY, index_version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO resumes (id) VALUES (1), (2)");
+
+        notifier = new IndexChangeNotifier(jdbcTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(notifier, "enabled", true);
+        ReflectionTestUtils.setField(notifier, "channel", CHANNEL);
+        ReflectionTestUtils.setField(notifier, "datasourceUrl", POSTGRES.getJdbcUrl());
+
+        listening = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        try (Statement statement = listening.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        listening.close();
+    }
+
+    @Test
+    void testEventsArriveOnCommitInVersionOrder() throws SQLException {
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.publish(1L, IndexChangeNotifier.Op.INDEX, List.of()));
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.publish(1L, IndexChangeNotifier.Op.INDEX, List.of(10L, 11L)));
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.publish(2L, IndexChangeNotifier.Op.DELETE, List.of()));
+
+        List<IndexChangeNotifier.IndexChange> changes = receive(3);
+        assertEquals(List.of(1L, 1L, 2L), changes.stream().map(IndexChangeNotifier.IndexChange::getResumeId).toList());
+        assertEquals(List.of(1L, 2L, 1L), changes.stream().map(IndexChangeNotifier.IndexChange::getVersion).toList());
+        assertEquals(List.of(10L, 11L), changes.get(1).getRemovedEmbeddingIds());
+        assertEquals(IndexChangeNotifier.Op.DELETE, changes.get(2).getOp());
+        assertEquals(notifier.getInstanceId(), changes.get(0).getOrigin());
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT index_version FROM resumes WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void testRolledBackChangeIsNeverSent() throws SQLException {
+        transactionTemplate.executeWithoutResult(status -> {
+            notifier.publish(1L, IndexChangeNotifier.Op.INDEX, List.of());
+            status.setRollbackOnly();
+        });
+        assertTrue(receive(1).isEmpty());
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT index_version FROM resumes WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void testOversizedChangeAsksForResync() throws SQLException {
+        List<Long> removed = new ArrayList<>();
+        for (long id = 1_000_000_000L; removed.size() < 2000; id++) {
+            removed.add(id);
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.publish(1L, IndexChangeNotifier.Op.INDEX, removed));
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.publish(42L, IndexChangeNotifier.Op.INDEX, List.of()));
+
+        List<IndexChangeNotifier.IndexChange> changes = receive(2);
+        assertTrue(changes.get(0).isResync());
+        assertTrue(changes.get(0).getRemovedEmbeddingIds().isEmpty());
+        // No resume row to version
+        assertEquals(0L, changes.get(1).getVersion());
+    }
+
+    /**
+     * Waits up to a second for {@code expected} events; returns fewer if they do not come.
+     */
+    private List<IndexChangeNotifier.IndexChange> receive(int expected) throws SQLException {
+        List<IndexChangeNotifier.IndexChange> changes = new ArrayList<>();
+        PGConnection connection = listening.unwrap(PGConnection.class);
+        long deadline = System.currentTimeMillis() + 1000;
+        while (changes.size() < expected && System.currentTimeMillis() < deadline) {
+            PGNotification[] notifications = connection.getNotifications(200);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    changes.add(notifier.decode(notification.getParameter()));
+                }
+            }
+        }
+        return changes;
+    }
+}
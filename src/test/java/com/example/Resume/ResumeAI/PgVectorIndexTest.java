@@ -0,0 +1,147 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.vector.PgVectorIndex;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PgVectorIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+    private JdbcTemplate jdbcTemplate;
+    private PgVectorIndex index;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS resume_embeddings");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS resumes");
+        // Minimal shape of the Hibernate-managed tables
+        jdbcTemplate.execute("CREATE TABLE resumes (id BIGINT PRIMARY KEY, user_id BIGINT, ats_score INT, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE resume_embeddings (id BIGINT PRIMARY KEY, resume_id BIGINT NOT NULL, " +
+                "section_name VARCHAR(255), content TEXT, embedding_data BYTEA, embedding_string TEXT)");
+        index = new PgVectorIndex(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                DIMENSIONS, "hnsw", 16, 64, 64, 100, 10);
+    }
+
+    @Test
+    void testDatabaseSideSearchMatchesExactOrdering() {
+        Random random = new Random(5);
+        for (long id = 1; id <= 500; id++) {
+            jdbcTemplate.update("INSERT INTO resume_embeddings (id, resume_id) VALUES (?, ?)", id, id / 5);
+        }
+        assertTrue(index.restore());
+        for (long id = 1; id <= 500; id++) {
+            assertTrue(index.add(id, id / 5, randomVector(random)));
+        }
+        assertEquals(500, index.size());
+        assertTrue(index.containsResume(7L));
+        assertFalse(index.add(999L, 1L, randomVector(random)), "no row to attach the vector to");
+
+        float[] query = randomVector(random);
+        List<VectorHit> exact = index.searchExact(query, 10);
+        List<VectorHit> approximate = index.search(query, 10);
+        assertEquals(10, exact.size());
+        for (int i = 1; i < exact.size(); i++) {
+            assertTrue(exact.get(i - 1).getScore() >= exact.get(i).getScore());
+        }
+        Set<Long> expected = new HashSet<>();
+        exact.forEach(hit -> expected.add(hit.getEmbeddingId()));
+        long found = approximate.stream().filter(hit -> expected.contains(hit.getEmbeddingId())).count();
+        assertTrue(found >= 8, "pgvector HNSW recall@10 too low: " + found);
+
+        List<VectorHit> scoped = index.searchResume(7L, query, 10);
+        assertFalse(scoped.isEmpty());
+        scoped.forEach(hit -> assertEquals(7L, hit.getResumeId()));
+
+        // Deleting the row removes its vector with it
+        jdbcTemplate.update("DELETE FROM resume_embeddings WHERE resume_id = 7");
+        assertFalse(index.containsResume(7L));
+    }
+
+    @Test
+    void testSectionFilterMatchesEveryPartOfASplitSection() {
+        Random random = new Random(6);
+        jdbcTemplate.update("INSERT INTO resumes (id, user_id) VALUES (1, 1)");
+        String[] sections = {"Experience (Part 1)", "Experience (Part 2)", "EXPERIENCE", "Work Experience", "Skills"};
+        for (int i = 0; i < sections.length; i++) {
+            jdbcTemplate.update("INSERT INTO resume_embeddings (id, resume_id, section_name) VALUES (?, 1, ?)",
+                    i + 1L, sections[i]);
+        }
+        assertTrue(index.restore());
+        for (int i = 0; i < sections.length; i++) {
+            assertTrue(index.add(i + 1L, 1L, randomVector(random)));
+        }
+
+        List<VectorHit> hits = index.search(randomVector(random), 10,
+                SearchFilter.none().withSections(List.of("experience")));
+        Set<Long> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.getEmbeddingId()));
+        assertEquals(Set.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void testSelectiveFilterStillReturnsKHits() {
+        Random random = new Random(7);
+        float[] query = randomVector(random);
+        for (long resume = 1; resume <= 400; resume++) {
+            jdbcTemplate.update("INSERT INTO resumes (id, user_id) VALUES (?, ?)", resume, resume);
+            for (long chunk = 0; chunk < 5; chunk++) {
+                jdbcTemplate.update("INSERT INTO resume_embeddings (id, resume_id) VALUES (?, ?)", resume * 10 + chunk, resume);
+            }
+        }
+        assertTrue(index.restore());
+        for (long resume = 1; resume <= 400; resume++) {
+            for (long chunk = 0; chunk < 5; chunk++) {
+                float[] vector = randomVector(random);
+                if (resume == 42) {
+                    // The filtered user's chunks point away from the query, past any ef_search candidate list
+                    for (int i = 0; i < DIMENSIONS; i++) {
+                        vector[i] = vector[i] * 0.1f - query[i];
+                    }
+                }
+                assertTrue(index.add(resume * 10 + chunk, resume, vector));
+            }
+        }
+
+        List<VectorHit> hits = index.search(query, 5, SearchFilter.forUser(42L));
+        assertEquals(5, hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            assertEquals(42L, hits.get(i).getResumeId());
+            if (i > 0) {
+                assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+            }
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -2,22 +2,38 @@ package com.example.Resume.ResumeAI;
 
 import com.example.Resume.ResumeAI.entity.Resume;
 import com.example.Resume.ResumeAI.entity.ResumeEmbedding;
+import com.example.Resume.ResumeAI.repository.EmbeddingCacheRepository;
 import com.example.Resume.ResumeAI.repository.ResumeEmbeddingRepository;
 import com.example.Resume.ResumeAI.repository.ResumeRepository;
 import com.example.Resume.ResumeAI.service.AIService;
 import com.example.Resume.ResumeAI.service.EmbeddingService;
 import com.example.Resume.ResumeAI.service.GeminiAIService;
+import com.example.Resume.ResumeAI.service.IndexChangeNotifier;
 import com.example.Resume.ResumeAI.service.VectorStoreService;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.QuantizedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,12 +53,14 @@ class RAGIntegrationTest {
     private GeminiAIService geminiAIService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Ids passed to deleteAllByIdInBatch on the table stubbed by stubEmbeddingTable
+    private final List<Long> deletedEmbeddingIds = new ArrayList<>();
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         embeddingService = new EmbeddingService(objectMapper);
-        vectorStoreService = new VectorStoreService(embeddingService, resumeEmbeddingRepository);
+        vectorStoreService = new VectorStoreService(embeddingService, resumeEmbeddingRepository, new InMemoryVectorIndex());
         aiService = new AIService(geminiAIService, vectorStoreService, resumeRepository);
     }
 
@@ -67,6 +85,22 @@ class RAGIntegrationTest {
         assertEquals("[0.123,-0.456,0.789]", serialized);
     }
 
+    @Test
+    void testBinaryVectorRoundTrip() {
+        float[] vector = embeddingService.generateVector("Data Engineer with PySpark");
+
+        byte[] exact = VectorCodec.encode(vector, VectorCodec.Format.FLOAT32);
+        assertEquals(1 + 768 * 4, exact.length);
+        assertArrayEquals(vector, embeddingService.decodeVector(exact));
+
+        byte[] half = VectorCodec.encode(vector, VectorCodec.Format.FLOAT16);
+        assertEquals(1 + 768 * 2, half.length);
+        assertArrayEquals(vector, VectorCodec.decode(half), 1e-3f);
+
+        // Legacy text rows are still readable until migrated
+        assertArrayEquals(new float[]{0.1f, -0.2f}, embeddingService.readVector(null, "[0.1,-0.2]"));
+    }
+
     @Test
     void testResumeSegmentChunkingAndIndexing() {
         Resume resume = new Resume();
@@ -86,7 +120,8 @@ class RAGIntegrationTest {
 
         vectorStoreService.indexResume(resume);
 
-        verify(resumeEmbeddingRepository, times(1)).deleteByResumeId(eq(42L));
+        verify(resumeEmbeddingRepository, times(1)).findByResumeId(eq(42L));
+        verify(resumeEmbeddingRepository, never()).deleteAllByIdInBatch(anyIterable());
         verify(resumeEmbeddingRepository, times(1)).saveAll(captor.capture());
 
         List<ResumeEmbedding> savedEmbeddings = captor.getValue();
@@ -102,6 +137,178 @@ class RAGIntegrationTest {
         assertNotNull(summaryChunk);
         assertTrue(summaryChunk.getContent().contains("Passionate backend developer"));
         assertEquals(42L, summaryChunk.getResume().getId());
+        assertNull(summaryChunk.getEmbeddingString());
+        assertEquals(768, VectorCodec.dimensions(summaryChunk.getEmbeddingData()));
+        assertEquals(64, summaryChunk.getContentHash().length());
+    }
+
+    @Test
+    void testReindexEmbedsOnlyNewOrChangedChunks() {
+        EmbeddingService countingEmbeddings = spy(new EmbeddingService(objectMapper));
+        InMemoryVectorIndex index = new InMemoryVectorIndex();
+        VectorStoreService service = new VectorStoreService(countingEmbeddings, resumeEmbeddingRepository, index);
+
+        Resume resume = new Resume();
+        resume.setId(7L);
+        resume.setExtractedText(
+            "SUMMARY\nBackend developer with five years of experience.\n\n" +
+            "EXPERIENCE\nBuilt payment APIs in Java and Spring Boot.\n\n" +
+            "EDUCATION\nBSc Computer Science."
+        );
+
+        List<ResumeEmbedding> stored = stubEmbeddingTable(7L);
+
+        service.indexResume(resume);
+        verify(countingEmbeddings, times(1)).generateIndexVectors(argThat(texts -> texts.size() == 4));
+        assertEquals(4, index.size());
+
+        // Same text again: nothing is embedded, written or deleted
+        clearInvocations(countingEmbeddings);
+        service.indexResume(resume);
+        verify(countingEmbeddings, never()).generateIndexVectors(anyList());
+        verify(resumeEmbeddingRepository, times(1)).saveAll(anyList());
+        assertTrue(deletedEmbeddingIds.isEmpty());
+
+        // One changed section: only it and the Full Profile chunk are re-embedded and replaced
+        resume.setExtractedText(
+            "SUMMARY\nBackend developer with five years of experience.\n\n" +
+            "EXPERIENCE\nBuilt payment APIs in Kotlin and Spring Boot.\n\n" +
+            "EDUCATION\nBSc Computer Science."
+        );
+        service.indexResume(resume);
+        verify(countingEmbeddings, times(1)).generateIndexVectors(argThat(texts -> texts.size() == 2));
+        assertEquals(2, deletedEmbeddingIds.size());
+        assertEquals(4, stored.size());
+        assertEquals(4, index.size());
+        for (ResumeEmbedding embedding : stored) {
+            assertTrue(index.containsEmbedding(embedding.getId()));
+        }
+
+        // Vectors stored while the API was unavailable are replaced once it answers again
+        clearInvocations(countingEmbeddings);
+        deletedEmbeddingIds.clear();
+        stored.forEach(embedding -> assertEquals("fallback-local@768", embedding.getEmbeddingModel()));
+        doReturn("text-embedding-004").when(countingEmbeddings).getVectorModel();
+        service.indexResume(resume);
+        verify(countingEmbeddings, times(1)).generateIndexVectors(argThat(texts -> texts.size() == 4));
+        assertEquals(4, deletedEmbeddingIds.size());
+        stored.forEach(embedding -> assertEquals("text-embedding-004", embedding.getEmbeddingModel()));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testIndexVectorsNeverFallBackWhileTheApiIsConfigured() {
+        ReflectionTestUtils.setField(embeddingService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(embeddingService, "embeddingsModel", "text-embedding-004");
+        // Nothing listens there, so every attempt fails
+        ReflectionTestUtils.setField(embeddingService, "geminiUrl", "http://127.0.0.1:1");
+
+        List<String> texts = List.of("Go and Kafka", "BSc Mathematics");
+        assertEquals(2, embeddingService.generateVectors(texts).size());
+        assertThrows(IllegalStateException.class, () -> embeddingService.generateIndexVectors(texts));
+        assertEquals("text-embedding-004", embeddingService.getVectorModel());
+    }
+
+    @Test
+    void testEmbeddingCacheRunsOutsideTheIndexingTransaction() {
+        EmbeddingCacheRepository cacheRepository = mock(EmbeddingCacheRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionStatus status = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        EmbeddingService cachingEmbeddings = new EmbeddingService(objectMapper, cacheRepository, transactionManager);
+        ReflectionTestUtils.setField(cachingEmbeddings, "apiKey", "test-key");
+        ReflectionTestUtils.setField(cachingEmbeddings, "embeddingsModel", "text-embedding-004");
+        ReflectionTestUtils.setField(cachingEmbeddings, "geminiUrl", "http://127.0.0.1:1");
+        ReflectionTestUtils.setField(cachingEmbeddings, "persistentCacheEnabled", true);
+        List<String> texts = List.of("Go and Kafka", "BSc Mathematics");
+
+        // A failing lookup rolls back only its own transaction
+        when(cacheRepository.findVectors(anyString(), anyCollection())).thenThrow(new IllegalStateException("aborted"));
+        assertEquals(2, cachingEmbeddings.generateVectors(texts).size());
+        verify(transactionManager).rollback(status);
+
+        byte[] cached = cachingEmbeddings.encodeVector(new float[]{0.6f, 0.8f});
+        doAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            return hashes.stream().map(hash -> new Object[]{hash, cached}).toList();
+        }).when(cacheRepository).findVectors(anyString(), anyCollection());
+        List<float[]> vectors = cachingEmbeddings.generateIndexVectors(texts);
+        assertArrayEquals(new float[]{0.6f, 0.8f}, vectors.get(1));
+
+        InOrder order = inOrder(transactionManager, cacheRepository);
+        order.verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        order.verify(cacheRepository).findVectors(eq("text-embedding-004"), anyCollection());
+        order.verify(transactionManager).commit(status);
+    }
+
+    @Test
+    void testFailedEmbeddingKeepsStoredChunks() {
+        EmbeddingService failingEmbeddings = spy(new EmbeddingService(objectMapper));
+        InMemoryVectorIndex index = new InMemoryVectorIndex();
+        VectorStoreService service = new VectorStoreService(failingEmbeddings, resumeEmbeddingRepository, index);
+
+        Resume resume = new Resume();
+        resume.setId(9L);
+        resume.setExtractedText("SKILLS\nGo, gRPC and Kafka.\n\nEDUCATION\nBSc Mathematics.");
+        List<ResumeEmbedding> stored = stubEmbeddingTable(9L);
+        service.indexResume(resume);
+        int indexed = stored.size();
+
+        // The API gives up on a changed chunk: the re-index fails without touching what is stored
+        resume.setExtractedText("SKILLS\nGo, gRPC and Pulsar.\n\nEDUCATION\nBSc Mathematics.");
+        doThrow(new IllegalStateException("Embedding API returned no vector for 1 of 2 texts"))
+                .when(failingEmbeddings).generateIndexVectors(anyList());
+        assertThrows(IllegalStateException.class, () -> service.indexResume(resume));
+        verify(resumeEmbeddingRepository, never()).deleteAllByIdInBatch(anyIterable());
+        verify(resumeEmbeddingRepository, times(1)).saveAll(anyList());
+        assertEquals(indexed, stored.size());
+        assertEquals(indexed, index.size());
+    }
+
+    @Test
+    void testIndexChangeFromAnotherInstancePatchesResidentIndex() {
+        // Two instances over one (mocked) table: the writer indexes, the reader only hears about it
+        InMemoryVectorIndex writerIndex = new InMemoryVectorIndex();
+        InMemoryVectorIndex readerIndex = new InMemoryVectorIndex();
+        VectorStoreService writer = new VectorStoreService(embeddingService, resumeEmbeddingRepository, writerIndex);
+        VectorStoreService reader = new VectorStoreService(embeddingService, resumeEmbeddingRepository, readerIndex);
+        readerIndex.markLoaded();
+
+        Resume resume = new Resume();
+        resume.setId(8L);
+        resume.setExtractedText(
+            "SUMMARY\nSite reliability engineer.\n\n" +
+            "SKILLS\nTerraform, Kubernetes and Prometheus.\n\n" +
+            "EDUCATION\nBSc Physics."
+        );
+        List<ResumeEmbedding> stored = stubEmbeddingTable(8L);
+
+        writer.indexResume(resume);
+        reader.applyIndexChange(new IndexChangeNotifier.IndexChange(8L, 1L, IndexChangeNotifier.Op.INDEX,
+                "writer", List.of(), false));
+        assertEquals(stored.size(), readerIndex.size());
+
+        resume.setExtractedText(
+            "SUMMARY\nSite reliability engineer.\n\n" +
+            "SKILLS\nPulumi, Kubernetes and Grafana.\n\n" +
+            "EDUCATION\nBSc Physics."
+        );
+        writer.indexResume(resume);
+        assertFalse(deletedEmbeddingIds.isEmpty());
+        reader.applyIndexChange(new IndexChangeNotifier.IndexChange(8L, 2L, IndexChangeNotifier.Op.INDEX,
+                "writer", new ArrayList<>(deletedEmbeddingIds), false));
+        assertEquals(writerIndex.size(), readerIndex.size());
+        for (ResumeEmbedding embedding : stored) {
+            assertTrue(readerIndex.containsEmbedding(embedding.getId()));
+        }
+        for (Long removed : deletedEmbeddingIds) {
+            assertFalse(readerIndex.containsEmbedding(removed));
+        }
+
+        reader.applyIndexChange(new IndexChangeNotifier.IndexChange(8L, 3L, IndexChangeNotifier.Op.DELETE,
+                "writer", List.of(), false));
+        assertFalse(readerIndex.containsResume(8L));
     }
 
     @Test
@@ -130,4 +337,214 @@ class RAGIntegrationTest {
             argThat(persona -> persona.contains("career development coach"))
         );
     }
+
+    @Test
+    void testSearchSimilarAnswersFromResidentIndex() {
+        Resume resume = new Resume();
+        resume.setId(7L);
+        resume.setExtractedText(
+            "SKILLS\n" +
+            "Java, Spring Boot, PostgreSQL, Kubernetes and distributed systems.\n\n" +
+            "EDUCATION\n" +
+            "Master of Science in Computer Science from a state university."
+        );
+
+        stubEmbeddingTable(7L);
+
+        ArgumentCaptor<List<ResumeEmbedding>> captor = ArgumentCaptor.forClass(List.class);
+        vectorStoreService.indexResume(resume);
+        verify(resumeEmbeddingRepository).saveAll(captor.capture());
+        List<ResumeEmbedding> saved = captor.getValue();
+        when(resumeEmbeddingRepository.findAllById(anyIterable())).thenReturn(saved);
+
+        ResumeEmbedding skills = saved.stream()
+                .filter(e -> e.getSectionName().equals("Skills"))
+                .findFirst()
+                .orElseThrow();
+
+        List<ResumeEmbedding> results = vectorStoreService.searchSimilar(skills.getContent(), 2);
+        assertEquals(2, results.size());
+        assertEquals(skills.getId(), results.get(0).getId());
+
+        vectorStoreService.searchSimilar("Kubernetes", 2);
+        verify(resumeEmbeddingRepository, times(1)).streamAllVectors();
+        verify(resumeEmbeddingRepository, never()).findAll();
+
+        vectorStoreService.deleteResume(7L);
+        assertTrue(vectorStoreService.searchSimilar(skills.getContent(), 2).isEmpty());
+    }
+
+    @Test
+    void testStreamModeScansTableForTopK() {
+        ReflectionTestUtils.setField(vectorStoreService, "searchMode", "stream");
+
+        Resume resume = new Resume();
+        resume.setId(5L);
+        String[] contents = {
+            "Registered nurse with ICU experience",
+            "Java backend engineer building Spring Boot services",
+            "Pastry chef and bakery manager",
+            "Senior Java developer, Spring Boot and PostgreSQL"
+        };
+        Object[][] rows = new Object[contents.length][];
+        ResumeEmbedding[] entities = new ResumeEmbedding[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            byte[] data = embeddingService.encodeVector(embeddingService.generateVector(contents[i]));
+            rows[i] = new Object[]{200L + i, 5L, data, null, 1L, 80, "Experience", null};
+            entities[i] = new ResumeEmbedding(resume, contents[i], "Experience", data);
+            entities[i].setId(200L + i);
+        }
+        when(resumeEmbeddingRepository.streamAllVectors()).thenAnswer(invocation -> Stream.of(rows));
+        when(resumeEmbeddingRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(entities));
+
+        List<ResumeEmbedding> results = vectorStoreService.searchSimilar(contents[2], 2);
+
+        assertEquals(2, results.size());
+        assertEquals(202L, results.get(0).getId());
+        verify(resumeEmbeddingRepository, never()).findAll();
+    }
+
+    @Test
+    void testRestoredSnapshotReplaysOnlyRowsAboveWatermark(@TempDir Path tempDir) {
+        String[] contents = {
+            "Registered nurse with ICU experience",
+            "Pastry chef and bakery manager",
+            "Java backend engineer building Spring Boot services",
+            "Kubernetes platform engineer running PostgreSQL clusters"
+        };
+        Path snapshot = tempDir.resolve("flat.bin");
+        InMemoryVectorIndex previousRun = new InMemoryVectorIndex(snapshot);
+        for (int i = 0; i < 3; i++) {
+            previousRun.add(300L + i, 9L, embeddingService.generateVector(contents[i]));
+        }
+        previousRun.markLoaded();
+        previousRun.persist();
+
+        vectorStoreService = new VectorStoreService(embeddingService, resumeEmbeddingRepository, new InMemoryVectorIndex(snapshot));
+        assertEquals("cold", vectorStoreService.getIndexStatus().get("state"));
+
+        // Ids up to the watermark (302) are unchanged; 303 was written after the snapshot
+        byte[] data = embeddingService.encodeVector(embeddingService.generateVector(contents[3]));
+        Object[] newRow = {303L, 9L, data, null, 1L, 80, "Skills", null};
+        when(resumeEmbeddingRepository.countAndSumIdsUpTo(302L)).thenReturn(List.<Object[]>of(new Object[]{3L, 903L}));
+        when(resumeEmbeddingRepository.streamVectorsAfter(302L)).thenAnswer(invocation -> Stream.<Object[]>of(newRow));
+        ResumeEmbedding replayed = new ResumeEmbedding(new Resume(), contents[3], "Skills", data);
+        replayed.setId(303L);
+        when(resumeEmbeddingRepository.findAllById(anyIterable())).thenReturn(List.of(replayed));
+
+        vectorStoreService.warmIndex();
+
+        assertEquals("ready", vectorStoreService.getIndexStatus().get("state"));
+        assertEquals(4, vectorStoreService.getIndexStatus().get("chunks"));
+        List<ResumeEmbedding> results = vectorStoreService.searchSimilar(contents[3], 1);
+        assertEquals(303L, results.get(0).getId());
+        verify(resumeEmbeddingRepository, never()).streamAllVectors();
+        verify(resumeEmbeddingRepository, never()).findAllIdPairs();
+    }
+
+    @Test
+    void testQuantizedGroupedSearchMatchesTheExactScan() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(32, 20);
+        vectorStoreService = new VectorStoreService(embeddingService, resumeEmbeddingRepository, index);
+        String query = "Kafka and Kubernetes platform engineer";
+        int dimensions = embeddingService.generateQueryVector(query).length;
+        // Low-similarity noise vectors: int8 rounding alone is enough to reorder and rescore them
+        Random random = new Random(4);
+        List<Object[]> rows = new ArrayList<>();
+        List<ResumeEmbedding> entities = new ArrayList<>();
+        for (int resume = 0; resume < 30; resume++) {
+            for (int chunk = 0; chunk < 4; chunk++) {
+                long id = 1000L + resume * 4 + chunk;
+                float[] vector = new float[dimensions];
+                for (int d = 0; d < dimensions; d++) {
+                    vector[d] = (float) random.nextGaussian();
+                }
+                byte[] data = embeddingService.encodeVector(vector);
+                index.add(id, resume, vector);
+                rows.add(new Object[]{id, (long) resume, data, null, 1L, 80, "Experience", null});
+                ResumeEmbedding entity = new ResumeEmbedding(new Resume(), "chunk " + id, "Experience", data);
+                entity.setId(id);
+                entities.add(entity);
+            }
+        }
+        index.markLoaded();
+        when(resumeEmbeddingRepository.streamAllVectors()).thenAnswer(invocation -> rows.stream());
+        when(resumeEmbeddingRepository.findVectorsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return rows.stream()
+                    .filter(row -> ids.contains((Long) row[0]))
+                    .map(row -> new Object[]{row[0], row[2], null})
+                    .toList();
+        });
+        when(resumeEmbeddingRepository.findAllById(anyIterable())).thenReturn(entities);
+
+        List<VectorStoreService.ResumeMatch> exact = vectorStoreService.searchSimilarResumes(query, 5, true);
+        List<VectorStoreService.ResumeMatch> indexed = vectorStoreService.searchSimilarResumes(query, 5);
+
+        assertEquals(5, indexed.size());
+        for (int i = 0; i < exact.size(); i++) {
+            assertEquals(exact.get(i).getBestChunk().getId(), indexed.get(i).getBestChunk().getId());
+            assertEquals(exact.get(i).getMaxScore(), indexed.get(i).getMaxScore(), 1e-6);
+            assertEquals(exact.get(i).getMeanScore(), indexed.get(i).getMeanScore(), 1e-6);
+        }
+    }
+
+    @Test
+    void testHybridSearchSurfacesExactSkillToken() {
+        ReflectionTestUtils.setField(vectorStoreService, "hybridSearch", true);
+        // Seeded-noise vectors, so the vector ranking knows nothing about the text
+        ReflectionTestUtils.setField(embeddingService, "fallback", "random");
+
+        Resume resume = new Resume();
+        resume.setId(11L);
+        resume.setExtractedText(
+            "SUMMARY\n" +
+            "Data engineer focused on batch and streaming analytics platforms.\n\n" +
+            "SKILLS\n" +
+            "PySpark, Airflow, Delta Lake and dimensional data modelling.\n\n" +
+            "EDUCATION\n" +
+            "Bachelor of Engineering in Information Technology, 2018."
+        );
+
+        stubEmbeddingTable(11L);
+        ArgumentCaptor<List<ResumeEmbedding>> captor = ArgumentCaptor.forClass(List.class);
+        vectorStoreService.indexResume(resume);
+        verify(resumeEmbeddingRepository).saveAll(captor.capture());
+        List<ResumeEmbedding> saved = captor.getValue();
+        when(resumeEmbeddingRepository.findAllById(anyIterable())).thenReturn(saved);
+
+        // The random embedding of a one-word query is unrelated to the chunk text; BM25 carries it
+        List<ResumeEmbedding> results = vectorStoreService.searchSimilar("PySpark", 1);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).getContent().contains("PySpark"));
+        verify(resumeEmbeddingRepository, times(1)).streamAllContent();
+    }
+
+    /**
+     * Stubs the mocked repository as one table: saveAll assigns ids and stores the rows,
+     * findByResumeId sees them and deleteAllByIdInBatch removes them (recording the ids in
+     * {@link #deletedEmbeddingIds}). Returns the backing list of stored rows.
+     */
+    private List<ResumeEmbedding> stubEmbeddingTable(long resumeId) {
+        List<ResumeEmbedding> stored = new ArrayList<>();
+        long[] nextId = {100L};
+        when(resumeEmbeddingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ResumeEmbedding> saved = invocation.getArgument(0);
+            for (ResumeEmbedding embedding : saved) {
+                embedding.setId(nextId[0]++);
+                stored.add(embedding);
+            }
+            return saved;
+        });
+        when(resumeEmbeddingRepository.findByResumeId(eq(resumeId))).thenAnswer(invocation -> new ArrayList<>(stored));
+        doAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            ids.forEach(id -> {
+                deletedEmbeddingIds.add(id);
+                stored.removeIf(embedding -> embedding.getId().equals(id));
+            });
+            return null;
+        }).when(resumeEmbeddingRepository).deleteAllByIdInBatch(anyIterable());
+        return stored;
+    }
 }
@@ -0,0 +1,91 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.ResumeChunker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunking throughput (chunks/sec, resumes/sec) and the resulting chunk-size distribution over
+ * a fixed set of synthetic resumes, from one-page to long multi-role ones.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ResumeChunkerBenchmarkTest {
+
+    private static final String[] SECTIONS = {"SUMMARY", "EXPERIENCE", "PROJECTS", "SKILLS", "EDUCATION", "CERTIFICATIONS"};
+    private static final String[] WORDS = {"designed", "built", "scaled", "Java", "Kubernetes", "pipelines", "latency",
+            "customers", "PostgreSQL", "migrated", "team", "Kafka", "reduced", "cost", "React", "API", "reliability",
+            "on-call", "mentored", "Terraform", "analytics", "streaming", "payments", "search"};
+
+    @Test
+    void testChunkingThroughput() {
+        List<String> resumes = syntheticResumes(500, new Random(5));
+        ResumeChunker chunker = new ResumeChunker(300, 40, 40);
+
+        // Warm-up so the measured passes run JIT-compiled code
+        for (int r = 0; r < 3; r++) {
+            for (String resume : resumes) {
+                chunker.chunk(resume);
+            }
+        }
+
+        int passes = 10;
+        long chunkCount = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < passes; r++) {
+            for (String resume : resumes) {
+                chunkCount += chunker.chunk(resume).size();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        long total = 0;
+        int count = 0;
+        for (String resume : resumes) {
+            for (ResumeChunker.Chunk chunk : chunker.chunk(resume)) {
+                int tokens = ResumeChunker.estimateTokens(chunk.getContent());
+                min = Math.min(min, tokens);
+                max = Math.max(max, tokens);
+                total += tokens;
+                count++;
+            }
+        }
+        System.out.printf("chunking: %.0f chunks/sec, %.0f resumes/sec%n",
+                chunkCount / seconds, resumes.size() * passes / seconds);
+        System.out.printf("  %.1f chunks/resume, tokens per chunk min %d / mean %.0f / max %d%n",
+                (double) count / resumes.size(), min, (double) total / count, max);
+
+        assertTrue(max <= 300 + 40, "chunk over budget: " + max);
+    }
+
+    private static List<String> syntheticResumes(int count, Random random) {
+        List<String> resumes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder("Jane Candidate ").append(i).append("\njane").append(i).append("@example.com\n\n");
+            for (String section : SECTIONS) {
+                text.append(section).append('\n');
+                int paragraphs = section.equals("EXPERIENCE") ? 2 + random.nextInt(12) : 1 + random.nextInt(2);
+                for (int p = 0; p < paragraphs; p++) {
+                    int sentences = 1 + random.nextInt(5);
+                    for (int s = 0; s < sentences; s++) {
+                        int words = 6 + random.nextInt(14);
+                        for (int w = 0; w < words; w++) {
+                            text.append(WORDS[random.nextInt(WORDS.length)]).append(w == words - 1 ? ". " : " ");
+                        }
+                    }
+                    text.append("\n\n");
+                }
+            }
+            resumes.add(text.toString());
+        }
+        return resumes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.ResumeChunker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumeChunkerTest {
+
+    @Test
+    void testSmallSectionsStayWhole() {
+        String text = "SUMMARY\nPassionate backend developer with 5 years of Java.\n\n" +
+                "EXPERIENCE\nBuilt payment APIs at Acme Corp using Spring Boot.\n\n" +
+                "EDUCATION\nBSc Computer Science, 2017.";
+
+        List<ResumeChunker.Chunk> chunks = new ResumeChunker(300, 40, 40).chunk(text);
+
+        assertEquals(3, chunks.size());
+        assertEquals("Summary", chunks.get(0).getSectionName());
+        assertEquals("SUMMARY\nPassionate backend developer with 5 years of Java.", chunks.get(0).getContent());
+        assertEquals("Experience", chunks.get(1).getSectionName());
+        assertEquals("Education", chunks.get(2).getSectionName());
+    }
+
+    @Test
+    void testLargeSectionSplitsWithinBudgetWithOverlap() {
+        StringBuilder text = new StringBuilder("EXPERIENCE\n");
+        for (int i = 1; i <= 30; i++) {
+            text.append("Role ").append(i).append(": led the migration of service ").append(i)
+                    .append(" to Kubernetes and cut p99 latency by ").append(i).append(" percent.\n\n");
+        }
+
+        List<ResumeChunker.Chunk> chunks = new ResumeChunker(100, 20, 40).chunk(text.toString());
+
+        assertTrue(chunks.size() > 1);
+        for (int i = 0; i < chunks.size(); i++) {
+            ResumeChunker.Chunk chunk = chunks.get(i);
+            assertEquals("Experience (Part " + (i + 1) + ")", chunk.getSectionName());
+            assertTrue(ResumeChunker.estimateTokens(chunk.getContent()) <= 100 + 20, "oversized chunk: " + chunk.getContent());
+            if (i > 0) {
+                // Each part opens with the tail of the previous one
+                String previous = chunks.get(i - 1).getContent();
+                String opening = chunk.getContent().split("\n")[0];
+                assertTrue(previous.contains(opening), "no overlap in part " + (i + 1));
+            }
+        }
+        String all = String.join("\n", chunks.stream().map(ResumeChunker.Chunk::getContent).toList());
+        assertTrue(all.contains("Role 1:") && all.contains("Role 30:"));
+    }
+
+    @Test
+    void testOversizedParagraphIsSplitAtSentencesAndWords() {
+        StringBuilder paragraph = new StringBuilder("PROJECTS\n");
+        for (int i = 0; i < 40; i++) {
+            paragraph.append("Sentence number ").append(i).append(" describes a project in some detail. ");
+        }
+        paragraph.append("https://example.com/").append("x".repeat(900));
+
+        List<ResumeChunker.Chunk> chunks = new ResumeChunker(64, 8, 100).chunk(paragraph.toString());
+
+        for (ResumeChunker.Chunk chunk : chunks) {
+            assertTrue(ResumeChunker.estimateTokens(chunk.getContent()) <= 64 + 8, "oversized chunk: " + chunk.getContent());
+        }
+    }
+
+    @Test
+    void testCapsChunksPerResumeAndPacksTextWithoutHeaders() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Paragraph ").append(i).append(" about distributed systems and data platforms.\n\n");
+        }
+
+        List<ResumeChunker.Chunk> chunks = new ResumeChunker(50, 0, 5).chunk(text.toString());
+
+        assertEquals(5, chunks.size());
+        assertEquals("Bio-Block 1", chunks.get(0).getSectionName());
+        assertTrue(chunks.get(1).getContent().startsWith("Paragraph"));
+    }
+
+    @Test
+    void testTruncateToTokensCutsAtWordBoundary() {
+        String text = "alpha beta gamma delta epsilon";
+        assertEquals(text, ResumeChunker.truncateToTokens(text, 100));
+        assertEquals("alpha beta", ResumeChunker.truncateToTokens(text, 3));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.entity.Resume;
+import com.example.Resume.ResumeAI.repository.ResumeRepository;
+import com.example.Resume.ResumeAI.service.ResumeIndexingQueue;
+import com.example.Resume.ResumeAI.service.VectorStoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResumeIndexingQueueTest {
+
+    @Mock
+    private VectorStoreService vectorStoreService;
+    @Mock
+    private ResumeRepository resumeRepository;
+
+    private ResumeIndexingQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(resumeRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(resume(invocation.getArgument(0))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            ReflectionTestUtils.invokeMethod(queue, "stop");
+        }
+    }
+
+    @Test
+    void testRetriesWithBackoffUntilIndexed() {
+        queue = startQueue(2, 100, 10, 3);
+        doThrow(new RuntimeException("embedding API unavailable"))
+                .doNothing()
+                .when(vectorStoreService).indexResume(any(Resume.class));
+
+        queue.submit(resume(1L));
+
+        verify(resumeRepository, timeout(5000)).updateIndexStatus(1L, Resume.IndexStatus.INDEXED, null);
+        verify(vectorStoreService, times(2)).indexResume(any(Resume.class));
+        verify(resumeRepository, never()).updateIndexStatus(eq(1L), eq(Resume.IndexStatus.FAILED), any());
+    }
+
+    @Test
+    void testMarksFailedAfterMaxAttempts() {
+        queue = startQueue(1, 100, 5, 3);
+        doThrow(new RuntimeException("embedding API unavailable"))
+                .when(vectorStoreService).indexResume(any(Resume.class));
+
+        queue.submit(resume(2L));
+
+        verify(resumeRepository, timeout(5000)).updateIndexStatus(2L, Resume.IndexStatus.FAILED, "embedding API unavailable");
+        verify(vectorStoreService, times(3)).indexResume(any(Resume.class));
+    }
+
+    @Test
+    void testFullQueueLeavesResumePendingForTheSweep() throws InterruptedException {
+        queue = startQueue(1, 1, 10, 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Resume resume = invocation.getArgument(0);
+            if (resume.getId() == 10L) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(vectorStoreService).indexResume(any(Resume.class));
+
+        queue.submit(resume(10L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.submit(resume(11L)); // fills the queue
+        queue.submit(resume(12L)); // rejected, stays PENDING
+        assertEquals(1, queue.getStats().get("queued"));
+
+        release.countDown();
+        verify(resumeRepository, timeout(5000)).updateIndexStatus(11L, Resume.IndexStatus.INDEXED, null);
+        verify(resumeRepository, never()).updateIndexStatus(eq(12L), any(), any());
+
+        when(resumeRepository.findIdsByIndexStatus(eq(Resume.IndexStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(12L));
+        queue.sweepPending();
+        verify(resumeRepository, timeout(5000)).updateIndexStatus(12L, Resume.IndexStatus.INDEXED, null);
+    }
+
+    @Test
+    void testIndexesInlineWhenAsyncDisabled() {
+        queue = new ResumeIndexingQueue(vectorStoreService, resumeRepository);
+        doThrow(new RuntimeException("boom")).when(vectorStoreService).indexResume(any(Resume.class));
+
+        Resume resume = resume(3L);
+        queue.submit(resume);
+
+        assertEquals(Resume.IndexStatus.FAILED, resume.getIndexStatus());
+        assertEquals("boom", resume.getIndexError());
+        verify(resumeRepository).updateIndexStatus(3L, Resume.IndexStatus.FAILED, "boom");
+    }
+
+    private ResumeIndexingQueue startQueue(int workers, int queueCapacity, long backoffMs, int maxAttempts) {
+        ResumeIndexingQueue started = new ResumeIndexingQueue(vectorStoreService, resumeRepository);
+        ReflectionTestUtils.setField(started, "asyncEnabled", true);
+        ReflectionTestUtils.setField(started, "workers", workers);
+        ReflectionTestUtils.setField(started, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(started, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(started, "retryBackoffMs", backoffMs);
+        ReflectionTestUtils.invokeMethod(started, "start");
+        return started;
+    }
+
+    private static Resume resume(Long id) {
+        Resume resume = new Resume();
+        resume.setId(id);
+        resume.setExtractedText("SUMMARY\nBackend developer.");
+        resume.setIndexStatus(Resume.IndexStatus.PENDING);
+        return resume;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.ResumeHit;
+import com.example.Resume.ResumeAI.vector.SegmentedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Indexing, deletion, re-indexing and compaction running against concurrent searches on a
+ * {@link SegmentedVectorIndex}. Every search must return a consistent view: scores in order,
+ * no chunk twice, and nothing from a resume whose removal finished before the search began.
+ */
+class SegmentedVectorIndexStressTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int PRELOADED_RESUMES = 400;
+    private static final int IMPORTED_RESUMES = 1500;
+    private static final int CHUNKS_PER_RESUME = 4;
+
+    @Test
+    void testSearchesStayConsistentDuringWrites() throws Exception {
+        SegmentedVectorIndex index = new SegmentedVectorIndex(64, 0.5);
+        for (int r = 0; r < PRELOADED_RESUMES; r++) {
+            addResume(index, r, new Random(r));
+        }
+
+        Set<Long> removedResumes = ConcurrentHashMap.newKeySet();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger searches = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(7);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        // Bulk import of new resumes
+        writers.add(pool.submit(() -> {
+            start.await();
+            for (int r = PRELOADED_RESUMES; r < PRELOADED_RESUMES + IMPORTED_RESUMES; r++) {
+                addResume(index, r, new Random(r));
+            }
+            return null;
+        }));
+        // Deletes every other preloaded resume; a resume counts as removed once the call returns
+        writers.add(pool.submit(() -> {
+            start.await();
+            for (long r = 0; r < PRELOADED_RESUMES; r += 2) {
+                index.removeResume(r);
+                removedResumes.add(r);
+            }
+            return null;
+        }));
+        // Re-indexes the surviving preloaded resumes in place, compacting along the way
+        writers.add(pool.submit(() -> {
+            start.await();
+            for (int r = 1; r < PRELOADED_RESUMES; r += 2) {
+                addResume(index, r, new Random(r));
+                if (r % 50 == 1) {
+                    index.compact();
+                }
+            }
+            return null;
+        }));
+
+        for (int t = 0; t < 4; t++) {
+            long seed = 100 + t;
+            readers.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                while (writing.get()) {
+                    Set<Long> removedBefore = new HashSet<>(removedResumes);
+                    float[] query = randomVector(random);
+                    List<VectorHit> hits = index.search(query, 20);
+                    assertEquals(20, hits.size());
+                    Set<Long> seen = new HashSet<>();
+                    for (int i = 0; i < hits.size(); i++) {
+                        VectorHit hit = hits.get(i);
+                        assertTrue(seen.add(hit.getEmbeddingId()), "chunk returned twice: " + hit.getEmbeddingId());
+                        assertFalse(removedBefore.contains(hit.getResumeId()), "removed resume returned: " + hit.getResumeId());
+                        if (i > 0) {
+                            assertTrue(hits.get(i - 1).getScore() >= hit.getScore());
+                        }
+                    }
+                    for (ResumeHit hit : index.searchGrouped(query, 5)) {
+                        assertFalse(removedBefore.contains(hit.getResumeId()), "removed resume grouped: " + hit.getResumeId());
+                    }
+                    searches.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(searches.get() > 0);
+
+        // The final state matches a flat index built from the surviving resumes
+        InMemoryVectorIndex reference = new InMemoryVectorIndex();
+        for (int r = 1; r < PRELOADED_RESUMES + IMPORTED_RESUMES; r++) {
+            if (r >= PRELOADED_RESUMES || r % 2 == 1) {
+                addResume(reference, r, new Random(r));
+            }
+        }
+        index.compact();
+        assertEquals(reference.size(), index.size());
+        for (long r = 0; r < PRELOADED_RESUMES; r += 2) {
+            assertFalse(index.containsResume(r));
+        }
+        Random random = new Random(7);
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            assertEquals(ids(reference.searchExact(query, 10)), ids(index.search(query, 10)));
+        }
+    }
+
+    private static void addResume(VectorIndex index, int resumeId, Random random) {
+        for (int c = 0; c < CHUNKS_PER_RESUME; c++) {
+            index.add((long) resumeId * CHUNKS_PER_RESUME + c, resumeId, randomVector(random));
+        }
+    }
+
+    private static List<Long> ids(List<VectorHit> hits) {
+        return hits.stream().map(VectorHit::getEmbeddingId).toList();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
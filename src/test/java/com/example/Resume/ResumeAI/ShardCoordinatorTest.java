@@ -0,0 +1,220 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.service.ShardCoordinator;
+import com.example.Resume.ResumeAI.vector.ChunkAttributes;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.ResumeHit;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scatter-gather across three shards on localhost: this process is shard 0, shards 1 and 2 are
+ * HTTP servers speaking the shard search protocol over their own partition of one corpus.
+ */
+class ShardCoordinatorTest {
+
+    private static final int SHARDS = 3;
+    private static final int DIMENSIONS = 32;
+    private static final String TOKEN = "shard-secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryVectorIndex global = new InMemoryVectorIndex();
+    private final InMemoryVectorIndex[] partitions = new InMemoryVectorIndex[SHARDS];
+    private final AtomicLong[] delaysMs = new AtomicLong[SHARDS];
+    private final List<HttpServer> servers = new ArrayList<>();
+    private ShardCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            partitions[shard] = new InMemoryVectorIndex();
+            delaysMs[shard] = new AtomicLong();
+        }
+        Random random = new Random(31);
+        for (long resumeId = 0; resumeId < 150; resumeId++) {
+            for (int c = 0; c < 4; c++) {
+                float[] vector = randomVector(random);
+                ChunkAttributes attributes = new ChunkAttributes(resumeId % 5, (int) (resumeId % 100), "Skills",
+                        (LocalDateTime) null);
+                long embeddingId = resumeId * 4 + c;
+                global.add(embeddingId, resumeId, vector, attributes);
+                partitions[ShardCoordinator.shardOf(resumeId, SHARDS)].add(embeddingId, resumeId, vector, attributes);
+            }
+        }
+
+        StringBuilder peers = new StringBuilder("http://127.0.0.1:1");
+        for (int shard = 1; shard < SHARDS; shard++) {
+            HttpServer server = startShard(shard);
+            servers.add(server);
+            peers.append(",http://127.0.0.1:").append(server.getAddress().getPort());
+        }
+        coordinator = shardCoordinator(0, peers.toString(), 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testResumeIdsSplitEvenlyIntoShardRanges() {
+        int[] counts = new int[SHARDS];
+        for (long resumeId = 1; resumeId <= 30_000; resumeId++) {
+            counts[ShardCoordinator.shardOf(resumeId, SHARDS)]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10_000) < 500, "uneven split: " + count);
+        }
+        assertEquals(0, ShardCoordinator.shardOf(42L, 1));
+        assertEquals(ShardCoordinator.shardOf(42L, SHARDS) == 0, coordinator.owns(42L));
+    }
+
+    @Test
+    void testMergedShardResultsMatchOneIndexOverEverything() {
+        Random random = new Random(5);
+        for (int q = 0; q < 10; q++) {
+            float[] query = randomVector(random);
+            ShardCoordinator.ShardedResult<VectorHit> chunks = coordinator.searchChunks(query, 10, false,
+                    SearchFilter.none(), () -> partitions[0].search(query, 10));
+            assertFalse(chunks.isPartial());
+            assertEquals(ids(global.search(query, 10)), ids(chunks.getHits()));
+
+            ShardCoordinator.ShardedResult<ResumeHit> resumes = coordinator.searchResumes(query, 5, false,
+                    SearchFilter.none(), () -> partitions[0].searchGrouped(query, 5));
+            List<ResumeHit> expected = global.searchGrouped(query, 5);
+            assertEquals(expected.size(), resumes.getHits().size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getResumeId(), resumes.getHits().get(i).getResumeId());
+                assertEquals(expected.get(i).getChunkCount(), resumes.getHits().get(i).getChunkCount());
+                assertEquals(expected.get(i).getMeanScore(), resumes.getHits().get(i).getMeanScore(), 1e-6f);
+            }
+
+            // The filter travels to every shard
+            SearchFilter filter = SearchFilter.forUser(2L).withAtsScoreBetween(10, 80);
+            ShardCoordinator.ShardedResult<VectorHit> filtered = coordinator.searchChunks(query, 10, false, filter,
+                    () -> partitions[0].search(query, 10, filter));
+            assertEquals(ids(global.search(query, 10, filter)), ids(filtered.getHits()));
+        }
+    }
+
+    @Test
+    void testSlowShardIsLeftOutAtTheDeadline() {
+        delaysMs[2].set(3000);
+        float[] query = randomVector(new Random(9));
+
+        long start = System.nanoTime();
+        ShardCoordinator.ShardedResult<VectorHit> result = coordinator.searchChunks(query, 10, false,
+                SearchFilter.none(), () -> partitions[0].search(query, 10));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1500, "waited " + elapsedMs + " ms for a 500 ms deadline");
+        assertTrue(result.isPartial());
+        assertEquals(List.of(2), result.getFailedShards());
+        List<Long> expected = new ArrayList<>();
+        List<VectorHit> fromTwoShards = new ArrayList<>(partitions[0].search(query, 10));
+        fromTwoShards.addAll(partitions[1].search(query, 10));
+        fromTwoShards.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        for (VectorHit hit : fromTwoShards.subList(0, 10)) {
+            expected.add(hit.getEmbeddingId());
+        }
+        assertEquals(expected, ids(result.getHits()));
+        assertEquals(1L, coordinator.getStats().get("partialSearches"));
+    }
+
+    @Test
+    void testShardRefusesPeersWithoutTheToken() {
+        ReflectionTestUtils.setField(coordinator, "token", "wrong");
+        float[] query = randomVector(new Random(13));
+        ShardCoordinator.ShardedResult<VectorHit> result = coordinator.searchChunks(query, 10, false,
+                SearchFilter.none(), () -> partitions[0].search(query, 10));
+        assertEquals(List.of(1, 2), result.getFailedShards());
+        assertEquals(ids(partitions[0].search(query, 10)), ids(result.getHits()));
+    }
+
+    /**
+     * A shard as ShardController serves it, over a plain index instead of VectorStoreService.
+     */
+    private HttpServer startShard(int shard) throws IOException {
+        ShardCoordinator codec = shardCoordinator(shard, "", 500);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(ShardCoordinator.SEARCH_PATH, exchange -> {
+            try {
+                if (!codec.isAuthorized(exchange.getRequestHeaders().getFirst(ShardCoordinator.TOKEN_HEADER))) {
+                    respond(exchange, 403, new byte[0]);
+                    return;
+                }
+                Thread.sleep(delaysMs[shard].get());
+                JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+                ShardCoordinator.ShardQuery query = ShardCoordinator.ShardQuery.fromJson(body);
+                InMemoryVectorIndex index = partitions[shard];
+                JsonNode response = query.isGrouped()
+                        ? codec.encodeResumeHits(query.getFilter().isEmpty()
+                                ? index.searchGrouped(query.getVector(), query.getLimit())
+                                : index.searchGrouped(query.getVector(), query.getLimit(), query.getFilter()))
+                        : codec.encodeChunkHits(query.getFilter().isEmpty()
+                                ? index.search(query.getVector(), query.getLimit())
+                                : index.search(query.getVector(), query.getLimit(), query.getFilter()));
+                respond(exchange, 200, objectMapper.writeValueAsBytes(response));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // The coordinator gave up on this shard and closed the connection
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private ShardCoordinator shardCoordinator(int shard, String peers, long timeoutMs) {
+        ShardCoordinator shardCoordinator = new ShardCoordinator(objectMapper);
+        ReflectionTestUtils.setField(shardCoordinator, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(shardCoordinator, "shardIndex", shard);
+        ReflectionTestUtils.setField(shardCoordinator, "peers", peers);
+        ReflectionTestUtils.setField(shardCoordinator, "timeoutMs", timeoutMs);
+        ReflectionTestUtils.setField(shardCoordinator, "token", TOKEN);
+        return shardCoordinator;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static List<Long> ids(List<VectorHit> hits) {
+        return hits.stream().map(VectorHit::getEmbeddingId).toList();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,731 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.vector.Bm25Index;
+import com.example.Resume.ResumeAI.vector.ChunkAttributes;
+import com.example.Resume.ResumeAI.vector.HnswVectorIndex;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.MappedSegmentVectorIndex;
+import com.example.Resume.ResumeAI.vector.QuantizedVectorIndex;
+import com.example.Resume.ResumeAI.vector.ResumeHit;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.SegmentedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.example.Resume.ResumeAI.vector.VectorKernels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorIndexTest {
+
+    private static final int DIMENSIONS = 64;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDotKernelsMatchNaiveSum() {
+        Random random = new Random(3);
+        // Odd lengths exercise the scalar tail after the unrolled / vector loop
+        for (int length : new int[]{1, 3, 7, 64, 767, 768}) {
+            float[] a = new float[length + 5];
+            float[] b = new float[length + 2];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextFloat() * 2f - 1f;
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] = random.nextFloat() * 2f - 1f;
+            }
+            double naive = 0.0;
+            for (int i = 0; i < length; i++) {
+                naive += (double) a[5 + i] * b[2 + i];
+            }
+            assertEquals(naive, VectorKernels.dotScalar(a, 5, b, 2, length), 1e-3);
+            assertEquals(naive, VectorKernels.dot(a, 5, b, 2, length), 1e-3);
+        }
+
+        float[] v = randomVector(random);
+        assertEquals(1.0f, VectorKernels.cosine(v, v), 1e-5f);
+        assertEquals(1.0f, VectorKernels.dot(VectorKernels.normalizedCopy(v), VectorKernels.normalizedCopy(v)), 1e-5f);
+        assertEquals(0.0f, VectorKernels.cosine(v, new float[DIMENSIONS]));
+        assertEquals(0.0f, VectorKernels.cosine(v, new float[DIMENSIONS - 1]));
+    }
+
+    @Test
+    void testApproximateSearchRecallAgainstExactScan() {
+        HnswVectorIndex index = new HnswVectorIndex(16, 200, 64, null);
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            index.add(i, i / 4, randomVector(random));
+        }
+
+        double recall = 0.0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> expected = new HashSet<>();
+            for (VectorHit hit : index.searchExact(query, 10)) {
+                expected.add(hit.getEmbeddingId());
+            }
+            int found = 0;
+            for (VectorHit hit : index.search(query, 10)) {
+                if (expected.contains(hit.getEmbeddingId())) {
+                    found++;
+                }
+            }
+            recall += found / 10.0;
+        }
+        assertTrue(recall / queries >= 0.9, "HNSW recall@10 too low: " + (recall / queries));
+    }
+
+    @Test
+    void testTombstonedResumesAreNeverReturned() {
+        HnswVectorIndex index = new HnswVectorIndex(8, 100, 32, null);
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            index.add(i, i % 10, randomVector(random));
+        }
+        index.removeResume(3L);
+
+        assertFalse(index.containsResume(3L));
+        assertEquals(450, index.size());
+        for (int q = 0; q < 20; q++) {
+            for (VectorHit hit : index.search(randomVector(random), 25)) {
+                assertNotEquals(3L, hit.getResumeId());
+            }
+        }
+    }
+
+    @Test
+    void testSingleRemovesAndCompactionRebuildTheGraph() {
+        HnswVectorIndex index = new HnswVectorIndex(8, 100, 32, null);
+        Random random = new Random(12);
+        for (int i = 0; i < 1200; i++) {
+            index.add(i, i, randomVector(random));
+        }
+        for (int i = 0; i < 601; i++) {
+            index.remove(i);
+        }
+        // Writes only tombstone, even past half the graph; the rebuild waits for compact()
+        assertEquals(1200, ReflectionTestUtils.getField(index, "count"));
+        assertEquals(599, index.size());
+        assertTrue(index.search(randomVector(random), 20).stream().allMatch(hit -> hit.getEmbeddingId() >= 601));
+        index.compact();
+        assertEquals(599, ReflectionTestUtils.getField(index, "count"));
+        assertTrue(index.search(randomVector(random), 20).stream().allMatch(hit -> hit.getEmbeddingId() >= 601));
+
+        HnswVectorIndex small = new HnswVectorIndex(8, 100, 32, null);
+        for (int i = 0; i < 100; i++) {
+            small.add(i, i, randomVector(random));
+        }
+        // Replacing adds tombstone too
+        for (int i = 0; i < 30; i++) {
+            small.add(i, i, randomVector(random));
+        }
+        for (int i = 30; i < 70; i++) {
+            small.remove(i);
+        }
+        assertEquals(130, ReflectionTestUtils.getField(small, "count"));
+        small.compact();
+        assertEquals(60, ReflectionTestUtils.getField(small, "count"));
+        assertEquals(60, small.size());
+        assertEquals(10, small.search(randomVector(random), 10).size());
+    }
+
+    @Test
+    void testPersistAndRestoreRoundTrip() {
+        Path snapshot = tempDir.resolve("hnsw.bin");
+        HnswVectorIndex index = new HnswVectorIndex(16, 100, 64, snapshot);
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            index.add(i, i / 3, randomVector(random));
+        }
+        index.removeResume(5L);
+        index.markLoaded();
+        index.persist();
+
+        HnswVectorIndex restored = new HnswVectorIndex(16, 100, 64, snapshot);
+        assertTrue(restored.restore());
+        assertEquals(index.size(), restored.size());
+        assertFalse(restored.containsResume(5L));
+
+        float[] query = randomVector(random);
+        List<VectorHit> before = index.search(query, 5);
+        List<VectorHit> after = restored.search(query, 5);
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getEmbeddingId(), after.get(i).getEmbeddingId());
+        }
+    }
+
+    @Test
+    void testFlatSnapshotKeepsRowsAttributesAndWatermark() {
+        Path snapshot = tempDir.resolve("flat.bin");
+        InMemoryVectorIndex index = new InMemoryVectorIndex(snapshot);
+        Random random = new Random(4);
+        for (int i = 1; i <= 120; i++) {
+            index.add(i, i / 4, randomVector(random), new ChunkAttributes((long) (i % 3), 50 + i % 50, "Skills", (LocalDateTime) null));
+        }
+        index.remove(120L);
+        index.markLoaded();
+        index.persist();
+
+        InMemoryVectorIndex restored = new InMemoryVectorIndex(snapshot);
+        assertTrue(restored.restore());
+        assertEquals(119, restored.size());
+        // Removing the newest row does not move the watermark back
+        assertEquals(120L, restored.watermark());
+        assertFalse(restored.containsEmbedding(120L));
+
+        float[] query = randomVector(random);
+        assertEquals(ids(index.search(query, 10)), ids(restored.search(query, 10)));
+        SearchFilter filter = SearchFilter.forUser(1L).withAtsScoreBetween(60, null);
+        assertEquals(ids(index.search(query, 10, filter)), ids(restored.search(query, 10, filter)));
+
+        assertFalse(new InMemoryVectorIndex(tempDir.resolve("missing.bin")).restore());
+    }
+
+    @Test
+    void testQuantizedCandidatesContainExactTopHits() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(500, 50);
+        Random random = new Random(5);
+        float[][] vectors = new float[2000][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add(i, i / 4, vectors[i]);
+        }
+        index.markLoaded();
+
+        double recall = 0.0;
+        int queries = 30;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> candidates = new HashSet<>();
+            for (VectorHit hit : index.search(query, index.rerankDepth())) {
+                candidates.add(hit.getEmbeddingId());
+            }
+            int found = 0;
+            for (long id : exactTop(vectors, query, 10)) {
+                if (candidates.contains(id)) {
+                    found++;
+                }
+            }
+            recall += found / 10.0;
+        }
+        assertTrue(recall / queries >= 0.95, "int8 candidate recall@10 too low: " + (recall / queries));
+        assertTrue(index.clampedFraction() < 0.01);
+    }
+
+    @Test
+    void testQuantizedIndexSearchesExactlyUntilTrainingSizeIsReached() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(500, 50);
+        Random random = new Random(8);
+        float[][] vectors = new float[20][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add(i, i / 4, vectors[i]);
+        }
+        index.markLoaded();
+
+        float[] query = randomVector(random);
+        List<VectorHit> hits = index.search(query, 5);
+        assertEquals(Arrays.stream(exactTop(vectors, query, 5)).boxed().toList(), ids(hits));
+        assertEquals(cosine(vectors[(int) hits.get(0).getEmbeddingId()], query), hits.get(0).getScore(), 1e-5);
+        assertEquals(0.0, index.clampedFraction());
+    }
+
+    @Test
+    void testQuantizedIndexRetrainsWhenLaterVectorsFallOutsideTheRange() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(100, 50);
+        Random random = new Random(9);
+        // Trained on vectors confined to the first half of the dimensions
+        for (int i = 0; i < 100; i++) {
+            float[] vector = randomVector(random);
+            Arrays.fill(vector, DIMENSIONS / 2, DIMENSIONS, 0f);
+            index.add(i, i, vector);
+        }
+        float[][] later = new float[200][];
+        for (int i = 0; i < later.length; i++) {
+            later[i] = randomVector(random);
+            index.add(1000 + i, 1000 + i, later[i]);
+        }
+        assertTrue(index.clampedFraction() < 0.01, "clamped fraction " + index.clampedFraction());
+
+        // The later vectors still rank correctly among themselves on their second half
+        float[] query = randomVector(random);
+        Arrays.fill(query, 0, DIMENSIONS / 2, 0f);
+        Set<Long> candidates = new HashSet<>();
+        for (VectorHit hit : index.search(query, index.rerankDepth())) {
+            candidates.add(hit.getEmbeddingId());
+        }
+        for (long id : exactTop(later, query, 5)) {
+            assertTrue(candidates.contains(1000 + id), "missing " + (1000 + id));
+        }
+    }
+
+    @Test
+    void testEmptiedQuantizedIndexAcceptsANewDimensionality() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(2, 10);
+        index.add(1L, 1L, new float[]{1f, 0f, 0f, 0f});
+        index.add(2L, 1L, new float[]{0f, 1f, 0f, 0f});
+        index.add(3L, 1L, new float[]{0f, 0f, 1f, 0f});
+        index.removeResume(1L);
+
+        Random random = new Random(10);
+        for (int i = 0; i < 300; i++) {
+            assertTrue(index.add(10 + i, 2L, randomVector(random)));
+        }
+        assertEquals(300, index.size());
+        assertEquals(3, index.search(randomVector(random), 3).size());
+    }
+
+    private static long[] exactTop(float[][] vectors, float[] query, int k) {
+        Integer[] order = new Integer[vectors.length];
+        double[] scores = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            order[i] = i;
+            scores[i] = cosine(vectors[i], query);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        long[] top = new long[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    @Test
+    void testMappedSegmentsSurviveCompactionAndRestore() {
+        Path directory = tempDir.resolve("segments");
+        MappedSegmentVectorIndex index = new MappedSegmentVectorIndex(directory, 64, 0.5);
+        InMemoryVectorIndex reference = new InMemoryVectorIndex();
+        Random random = new Random(19);
+        for (int i = 0; i < 300; i++) {
+            float[] vector = randomVector(random);
+            index.add(i, i / 3, vector);
+            reference.add(i, i / 3, vector);
+        }
+        assertEquals(5, index.segmentCount());
+
+        // Empty out most of the first three segments so they qualify for merging
+        for (int i = 0; i < 180; i++) {
+            if (i % 8 != 0) {
+                index.remove(i);
+                reference.remove(i);
+            }
+        }
+        index.removeResume(90L);
+        reference.removeResume(90L);
+        index.compact();
+        assertEquals(3, index.segmentCount());
+        assertEquals(reference.size(), index.size());
+
+        float[] query = randomVector(random);
+        assertEquals(ids(reference.search(query, 10)), ids(index.search(query, 10)));
+        index.persist();
+
+        MappedSegmentVectorIndex restored = new MappedSegmentVectorIndex(directory, 64, 0.5);
+        assertTrue(restored.restore());
+        assertEquals(reference.size(), restored.size());
+        assertFalse(restored.containsResume(90L));
+        assertEquals(ids(reference.search(query, 10)), ids(restored.search(query, 10)));
+        assertEquals(ids(reference.searchResume(12L, query, 3)), ids(restored.searchResume(12L, query, 3)));
+        // The merged segment sorts before the one being appended to, which stays last
+        assertTrue(restored.add(1000L, 500L, randomVector(random)));
+        assertTrue(restored.containsEmbedding(1000L));
+        assertEquals(3, restored.segmentCount());
+    }
+
+    @Test
+    void testMappedSegmentsAcceptWritesBeforeRestore() {
+        Random random = new Random(31);
+        Path existing = tempDir.resolve("restarted-segments");
+        MappedSegmentVectorIndex before = new MappedSegmentVectorIndex(existing, 16, 0.5);
+        for (int i = 0; i < 40; i++) {
+            before.add(i, i / 4, randomVector(random));
+        }
+        before.persist();
+
+        // Restart: an upload commits before warm-up has restored the directory
+        MappedSegmentVectorIndex restarted = new MappedSegmentVectorIndex(existing, 16, 0.5);
+        float[] uploaded = randomVector(random);
+        assertTrue(restarted.add(1000L, 500L, uploaded));
+        assertTrue(restarted.restore());
+        assertEquals(41, restarted.size());
+        assertEquals(4, restarted.segmentCount());
+        assertEquals(1000L, restarted.search(uploaded, 1).get(0).getEmbeddingId());
+        assertEquals(4, restarted.searchResume(0L, uploaded, 10).size());
+
+        // Fresh directory: the segment add() created is mapped once, not twice
+        MappedSegmentVectorIndex fresh = new MappedSegmentVectorIndex(tempDir.resolve("fresh-segments"), 16, 0.5);
+        assertTrue(fresh.add(7L, 1L, uploaded));
+        assertTrue(fresh.restore());
+        assertEquals(1, fresh.segmentCount());
+        assertEquals(1, fresh.size());
+        assertEquals(List.of(7L), ids(fresh.search(uploaded, 5)));
+    }
+
+    @Test
+    void testMappedSegmentsStartOverInANewDimensionality() throws Exception {
+        Path directory = tempDir.resolve("resized-segments");
+        MappedSegmentVectorIndex index = new MappedSegmentVectorIndex(directory, 16, 0.5);
+        for (int i = 0; i < 40; i++) {
+            index.add(i, 1L, new float[]{1f, i, 0f, 0f});
+        }
+        assertFalse(index.add(100L, 2L, randomVector(new Random(1))));
+        index.removeResume(1L);
+
+        Random random = new Random(23);
+        float[][] vectors = new float[20][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            assertTrue(index.add(100 + i, 2L, vectors[i]));
+        }
+        // The three dead 4-dimension segments are gone
+        assertEquals(2, index.segmentCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        float[] query = randomVector(random);
+        assertEquals(Arrays.stream(exactTop(vectors, query, 5)).map(id -> 100 + id).boxed().toList(),
+                ids(index.search(query, 5)));
+
+        // Cleared, then restored: the new dimensionality is picked up from the files
+        index.clear();
+        assertTrue(index.restore());
+        assertEquals(20, index.size());
+        assertEquals(Arrays.stream(exactTop(vectors, query, 5)).map(id -> 100 + id).boxed().toList(),
+                ids(index.search(query, 5)));
+    }
+
+    @Test
+    void testSegmentedIndexMatchesFlatThroughReplacesDeletesAndCompaction() {
+        SegmentedVectorIndex index = new SegmentedVectorIndex(64, 0.5);
+        InMemoryVectorIndex reference = new InMemoryVectorIndex();
+        Random random = new Random(29);
+        for (int i = 0; i < 300; i++) {
+            float[] vector = randomVector(random);
+            ChunkAttributes attributes = new ChunkAttributes((long) (i % 5), i % 100, "Skills", (LocalDateTime) null);
+            index.add(i, i / 3, vector, attributes);
+            reference.add(i, i / 3, vector, attributes);
+        }
+        assertEquals(5, index.segmentCount());
+
+        // Re-adding an id retires its old row; moving it to another resume updates both resumes
+        for (int i = 0; i < 300; i += 10) {
+            float[] vector = randomVector(random);
+            index.add(i, 1000 + i, vector);
+            reference.add(i, 1000 + i, vector);
+        }
+        for (int i = 0; i < 180; i++) {
+            if (i % 8 != 0) {
+                index.remove(i);
+                reference.remove(i);
+            }
+        }
+        index.removeResume(90L);
+        reference.removeResume(90L);
+        assertEquals(reference.size(), index.size());
+
+        float[] query = randomVector(random);
+        assertEquals(ids(reference.searchExact(query, 10)), ids(index.search(query, 10)));
+        index.compact();
+        assertTrue(index.segmentCount() < 5);
+        assertEquals(reference.size(), index.size());
+        assertEquals(ids(reference.searchExact(query, 10)), ids(index.search(query, 10)));
+        SearchFilter filter = SearchFilter.forUser(2L);
+        assertEquals(ids(reference.search(query, 10, filter)), ids(index.search(query, 10, filter)));
+        assertEquals(ids(reference.searchResume(70L, query, 2)), ids(index.searchResume(70L, query, 2)));
+        assertEquals(reference.searchGrouped(query, 5).stream().map(ResumeHit::getResumeId).toList(),
+                index.searchGrouped(query, 5).stream().map(ResumeHit::getResumeId).toList());
+        assertFalse(index.containsResume(90L));
+        assertTrue(index.containsResume(1000L));
+        assertFalse(index.containsEmbedding(1L));
+        assertEquals(new HashSet<>(Arrays.stream(reference.embeddingIds()).boxed().toList()),
+                new HashSet<>(Arrays.stream(index.embeddingIds()).boxed().toList()));
+    }
+
+    @Test
+    void testSegmentedIndexSkipsUnwrittenRowsOfCompactedSegments() {
+        SegmentedVectorIndex index = new SegmentedVectorIndex(64, 0.5);
+        InMemoryVectorIndex reference = new InMemoryVectorIndex();
+        Random random = new Random(37);
+        for (int i = 1; i <= 192; i++) {
+            float[] vector = randomVector(random);
+            index.add(i, 100 + i / 4, vector);
+            reference.add(i, 100 + i / 4, vector);
+        }
+        // Leaves 30 live rows in the first two segments, rewritten into one partly filled segment
+        for (int i = 1; i <= 128; i++) {
+            if (i % 4 != 0 || i > 120) {
+                index.remove(i);
+                reference.remove(i);
+            }
+        }
+        index.compact();
+        assertEquals(2, index.segmentCount());
+        assertEquals(reference.size(), index.size());
+
+        float[] query = randomVector(random);
+        List<VectorHit> all = index.search(query, index.size() + 10);
+        assertEquals(reference.size(), all.size());
+        assertEquals(ids(reference.searchExact(query, reference.size())), ids(all));
+        assertTrue(all.stream().noneMatch(hit -> hit.getEmbeddingId() == 0L || hit.getResumeId() == 0L));
+
+        List<Long> grouped = index.searchGrouped(query, 1000).stream().map(ResumeHit::getResumeId).toList();
+        assertEquals(reference.searchGrouped(query, 1000).stream().map(ResumeHit::getResumeId).toList(), grouped);
+        assertFalse(grouped.contains(0L));
+
+        // Seal the old tail and thin it out: it is now the only sparse segment, because the
+        // compacted one's live ratio counts only its 30 written rows, so nothing is merged
+        for (int i = 193; i <= 200; i++) {
+            float[] vector = randomVector(random);
+            index.add(i, 100 + i / 4, vector);
+            reference.add(i, 100 + i / 4, vector);
+        }
+        for (int i = 129; i <= 168; i++) {
+            index.remove(i);
+            reference.remove(i);
+        }
+        index.compact();
+        assertEquals(3, index.segmentCount());
+        assertEquals(ids(reference.searchExact(query, reference.size())), ids(index.search(query, 1000)));
+    }
+
+    @Test
+    void testBm25RanksExactSkillTokens() {
+        assertEquals(List.of("c++", "node.js", ".net", "and", "pyspark"), Bm25Index.tokenize("C++, Node.js, .NET and PySpark."));
+
+        Bm25Index index = new Bm25Index();
+        index.add(1, 1, "Backend engineer: Java, Spring Boot and PostgreSQL.");
+        index.add(2, 2, "Data engineer building PySpark pipelines on Databricks; PySpark tuning.");
+        index.add(3, 3, "Platform engineer running Kubernetes and Terraform.");
+        index.add(4, 3, "Data analyst with SQL and Tableau dashboards.");
+
+        List<VectorHit> hits = index.search("pyspark data", 10);
+        assertEquals(2L, hits.get(0).getEmbeddingId());
+        assertEquals(2, hits.size());
+        assertEquals(3L, index.search("KUBERNETES", 10).get(0).getEmbeddingId());
+        assertTrue(index.search("cobol", 10).isEmpty());
+
+        index.removeResume(3L);
+        assertTrue(index.search("kubernetes", 10).isEmpty());
+        assertEquals(2, index.size());
+        // Replacing a chunk drops its old terms
+        index.add(2, 2, "Data engineer, Scala and Spark.");
+        assertTrue(index.search("pyspark", 10).isEmpty());
+    }
+
+    @Test
+    void testGroupedSearchReturnsDistinctResumesWithChunkStats() {
+        InMemoryVectorIndex flat = new InMemoryVectorIndex();
+        HnswVectorIndex hnsw = new HnswVectorIndex(16, 200, 64, null);
+        Random random = new Random(17);
+        float[][] vectors = new float[600][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+        }
+        float[] query = randomVector(random);
+        // Resume 0 owns the 40 chunks closest to the query, so a chunk-level top-k is all one resume
+        for (int i = 0; i < 40; i++) {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vectors[i][d] = query[d] + vectors[i][d] * 0.05f;
+            }
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            long resumeId = i < 40 ? 0 : 1 + (i - 40) / 5;
+            flat.add(i, resumeId, vectors[i]);
+            hnsw.add(i, resumeId, vectors[i]);
+        }
+
+        // Brute-force per-resume max and mean
+        Map<Long, float[]> expected = new HashMap<>();
+        for (int i = 0; i < vectors.length; i++) {
+            long resumeId = i < 40 ? 0 : 1 + (i - 40) / 5;
+            float score = (float) cosine(query, vectors[i]);
+            float[] stats = expected.computeIfAbsent(resumeId, k -> new float[]{Float.NEGATIVE_INFINITY, 0f, 0f});
+            stats[0] = Math.max(stats[0], score);
+            stats[1] += score;
+            stats[2]++;
+        }
+
+        List<ResumeHit> grouped = flat.searchGrouped(query, 5);
+        assertEquals(5, grouped.size());
+        assertEquals(0L, grouped.get(0).getResumeId());
+        assertEquals(40, grouped.get(0).getChunkCount());
+        for (int i = 0; i < grouped.size(); i++) {
+            ResumeHit hit = grouped.get(i);
+            float[] stats = expected.get(hit.getResumeId());
+            assertEquals(stats[0], hit.getMaxScore(), 1e-4f);
+            assertEquals(stats[1] / stats[2], hit.getMeanScore(), 1e-4f);
+            if (i > 0) {
+                assertTrue(grouped.get(i - 1).getMaxScore() >= hit.getMaxScore());
+            }
+        }
+
+        List<ResumeHit> approximate = hnsw.searchGrouped(query, 5);
+        Set<Long> distinct = new HashSet<>();
+        for (ResumeHit hit : approximate) {
+            distinct.add(hit.getResumeId());
+        }
+        assertEquals(5, distinct.size());
+        assertEquals(0L, approximate.get(0).getResumeId());
+        assertEquals(40, approximate.get(0).getChunkCount());
+    }
+
+    @Test
+    void testFilteredSearchMatchesBruteForceOverMatchingChunks() {
+        String[] sections = {"Summary", "Experience", "Skills", "Education"};
+        LocalDateTime epoch = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Random random = new Random(23);
+        int chunks = 3000;
+        float[][] vectors = new float[chunks][];
+        ChunkAttributes[] attributes = new ChunkAttributes[chunks];
+        for (int i = 0; i < chunks; i++) {
+            long resumeId = i / 4;
+            vectors[i] = randomVector(random);
+            attributes[i] = new ChunkAttributes(resumeId % 10, (int) (resumeId % 101), sections[i % 4],
+                    epoch.plusDays(resumeId % 365));
+        }
+        Path snapshot = tempDir.resolve("filtered.hnsw");
+        InMemoryVectorIndex flat = new InMemoryVectorIndex();
+        HnswVectorIndex hnsw = new HnswVectorIndex(16, 200, 64, snapshot);
+        for (int i = 0; i < chunks; i++) {
+            flat.add(i, i / 4, vectors[i], attributes[i]);
+            hnsw.add(i, i / 4, vectors[i], attributes[i]);
+        }
+        // Swap-deletes move the last slot's attributes; tombstones leave the user's partition
+        for (int i = 0; i < chunks; i += 7) {
+            flat.remove(i);
+            hnsw.remove(i);
+        }
+        hnsw.markLoaded();
+        hnsw.persist();
+        HnswVectorIndex restored = new HnswVectorIndex(16, 200, 64, snapshot);
+        assertTrue(restored.restore());
+
+        SearchFilter[] filters = {
+            SearchFilter.forUser(3L),
+            SearchFilter.none().withAtsScoreBetween(40, 90),
+            SearchFilter.forUser(7L).withSections(List.of("skills", "EXPERIENCE")),
+            SearchFilter.none().withCreatedBetween(epoch.plusDays(30), epoch.plusDays(60)),
+            SearchFilter.forUser(42L)
+        };
+        float[] query = randomVector(random);
+        for (SearchFilter filter : filters) {
+            double[] scores = new double[chunks];
+            List<Integer> matching = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                if (i % 7 != 0 && filter.matches(attributes[i])) {
+                    matching.add(i);
+                    scores[i] = cosine(query, vectors[i]);
+                }
+            }
+            matching.sort((a, b) -> Double.compare(scores[b], scores[a]));
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < Math.min(10, matching.size()); i++) {
+                expected.add((long) matching.get(i));
+            }
+
+            assertEquals(expected, ids(flat.search(query, 10, filter)), filter.toString());
+            for (VectorIndex index : new VectorIndex[]{hnsw, restored}) {
+                List<VectorHit> hits = index.search(query, 10, filter);
+                assertEquals(expected.size(), hits.size(), filter.toString());
+                int found = 0;
+                for (VectorHit hit : hits) {
+                    assertTrue(filter.matches(attributes[(int) hit.getEmbeddingId()]), filter.toString());
+                    if (expected.contains(hit.getEmbeddingId())) {
+                        found++;
+                    }
+                }
+                assertTrue(found >= expected.size() * 8 / 10, filter + " recall " + found);
+            }
+        }
+
+        List<ResumeHit> grouped = flat.searchGrouped(query, 5, SearchFilter.forUser(3L));
+        assertEquals(5, grouped.size());
+        for (ResumeHit hit : grouped) {
+            assertEquals(3L, hit.getResumeId() % 10);
+        }
+    }
+
+    @Test
+    void testEmptiedFlatIndexAcceptsANewDimensionality() {
+        InMemoryVectorIndex index = new InMemoryVectorIndex();
+        for (int i = 0; i < 10; i++) {
+            index.add(i, 1L, new float[]{1f, i, 0f, 0f});
+        }
+        index.removeResume(1L);
+
+        Random random = new Random(14);
+        float[][] vectors = new float[300][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            assertTrue(index.add(100 + i, 2L, vectors[i]));
+        }
+        assertEquals(300, index.size());
+        float[] query = randomVector(random);
+        assertEquals(Arrays.stream(exactTop(vectors, query, 5)).map(id -> 100 + id).boxed().toList(),
+                ids(index.search(query, 5)));
+    }
+
+    @Test
+    void testSectionFilterMatchesEveryPartOfASplitSection() {
+        String[] sections = {"Experience (Part 1)", "Experience (Part 2)", "EXPERIENCE", "Work Experience", "Skills"};
+        SearchFilter filter = SearchFilter.none().withSections(List.of("experience"));
+        Random random = new Random(13);
+        InMemoryVectorIndex flat = new InMemoryVectorIndex();
+        HnswVectorIndex hnsw = new HnswVectorIndex(8, 100, 32, null);
+        for (int i = 0; i < sections.length; i++) {
+            ChunkAttributes attributes = new ChunkAttributes(1L, 80, sections[i], (Long) null);
+            assertEquals(i < 3, filter.matches(attributes), sections[i]);
+            float[] vector = randomVector(random);
+            flat.add(i, 1L, vector, attributes);
+            hnsw.add(i, 1L, vector, attributes);
+        }
+        float[] query = randomVector(random);
+        for (VectorIndex index : new VectorIndex[]{flat, hnsw}) {
+            assertEquals(Set.of(0L, 1L, 2L), new HashSet<>(ids(index.search(query, 10, filter))));
+            assertEquals(Set.of(0L, 1L, 2L), new HashSet<>(ids(index.search(query, 10,
+                    SearchFilter.none().withSections(List.of("Experience (Part 2)"))))));
+        }
+    }
+
+    private static List<Long> ids(List<VectorHit> hits) {
+        return hits.stream().map(VectorHit::getEmbeddingId).toList();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.Resume.ResumeAI;
+
+import com.example.Resume.ResumeAI.repository.ResumeEmbeddingRepository;
+import com.example.Resume.ResumeAI.service.EmbeddingService;
+import com.example.Resume.ResumeAI.service.VectorStoreService;
+import com.example.Resume.ResumeAI.vector.HnswVectorIndex;
+import com.example.Resume.ResumeAI.vector.InMemoryVectorIndex;
+import com.example.Resume.ResumeAI.vector.MappedSegmentVectorIndex;
+import com.example.Resume.ResumeAI.vector.QuantizedVectorIndex;
+import com.example.Resume.ResumeAI.vector.SearchFilter;
+import com.example.Resume.ResumeAI.vector.SegmentedVectorIndex;
+import com.example.Resume.ResumeAI.vector.VectorHit;
+import com.example.Resume.ResumeAI.vector.VectorIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recall@k, QPS, p50/p99 latency and memory per vector of every resident index type against the
+ * exact table scan, on one synthetic corpus, for sizing hardware and catching regressions in
+ * the search path.
+ *
+ * Chunk texts are assembled from role, skill and phrase vocabularies and embedded with
+ * EmbeddingService's deterministic local vectors, so the corpus is the same on every run and
+ * has the overlapping-topic structure of real resumes. Each index is loaded and queried through
+ * VectorStoreService over a mocked table, so loading, search and int8 re-ranking run the
+ * production code; the stream-mode scan of the same table is the ground truth.
+ *
+ * Run with {@code mvn test -Pbenchmark}; the corpus is sized with system properties, e.g.
+ * {@code -Dbenchmark.vectors=100000 -Dbenchmark.indexes=flat,hnsw}. One million vectors needs
+ * roughly 2.5 GB of heap at 256 dimensions (the table plus one index at a time).
+ *
+ *  - {@code benchmark.vectors} (10000), {@code benchmark.dimensions} (256), {@code benchmark.queries} (200), {@code benchmark.k} (10)
+ *  - {@code benchmark.indexes}: any of flat, segmented, int8, hnsw, mmap (all)
+ *  - {@code benchmark.min-recall}: recall@k the approximate indexes must reach (0.9)
+ */
+@Tag("benchmark")
+class VectorSearchBenchmarkTest {
+
+    private static final int VECTORS = Integer.getInteger("benchmark.vectors", 10_000);
+    private static final int DIMENSIONS = Integer.getInteger("benchmark.dimensions", 256);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 200);
+    private static final int K = Integer.getInteger("benchmark.k", 10);
+    private static final String INDEXES = System.getProperty("benchmark.indexes", "flat,segmented,int8,hnsw,mmap");
+    private static final double MIN_RECALL = Double.parseDouble(System.getProperty("benchmark.min-recall", "0.9"));
+    private static final int CHUNKS_PER_RESUME = 8;
+    private static final int EMBED_BATCH = 1000;
+
+    private static final String[] ROLES = {
+        "backend engineer", "frontend developer", "data engineer", "data scientist", "devops engineer",
+        "site reliability engineer", "mobile developer", "product manager", "qa engineer", "security analyst",
+        "machine learning engineer", "embedded engineer", "ux designer", "business analyst", "cloud architect",
+        "registered nurse", "accountant", "sales manager", "marketing specialist", "teacher"
+    };
+    private static final String[] SKILLS = {
+        "java", "spring boot", "kotlin", "python", "django", "flask", "fastapi", "go", "rust", "c++",
+        "typescript", "react", "angular", "vue", "node.js", "graphql", "rest apis", "grpc", "kafka", "rabbitmq",
+        "postgresql", "mysql", "mongodb", "redis", "elasticsearch", "cassandra", "snowflake", "bigquery",
+        "spark", "pyspark", "airflow", "dbt", "pandas", "pytorch", "tensorflow", "scikit-learn", "llms",
+        "docker", "kubernetes", "terraform", "ansible", "aws", "gcp", "azure", "prometheus", "grafana",
+        "ci/cd", "jenkins", "github actions", "linux", "swift", "android", "figma", "selenium", "cypress",
+        "penetration testing", "siem", "excel", "sql", "tableau", "power bi", "salesforce", "seo", "jira"
+    };
+    private static final String[] PHRASES = {
+        "built and operated", "designed", "led a team delivering", "migrated legacy systems to",
+        "reduced latency of services using", "automated deployments with", "mentored engineers in",
+        "owned the roadmap for", "scaled ingestion pipelines with", "improved test coverage with",
+        "cut infrastructure cost using", "shipped customer-facing features in"
+    };
+    private static final String[] SECTIONS = {"Summary", "Experience", "Skills", "Projects", "Education"};
+
+    @Test
+    void testRecallAndLatencyOfEveryIndexAgainstExactScan(@TempDir Path tempDir) throws IOException {
+        EmbeddingService embeddingService = new EmbeddingService(new ObjectMapper());
+        ReflectionTestUtils.setField(embeddingService, "outputDimensionality", DIMENSIONS);
+
+        long start = System.nanoTime();
+        Object[][] rows = corpus(embeddingService);
+        List<float[]> queries = embeddingService.generateVectors(texts(new Random(1_000_003), QUERIES));
+        System.out.printf("Corpus: %d vectors x %d dimensions (%d queries, k=%d) embedded in %d ms%n",
+                VECTORS, DIMENSIONS, QUERIES, K, (System.nanoTime() - start) / 1_000_000);
+
+        ResumeEmbeddingRepository repository = table(rows);
+        VectorStoreService exactScan = new VectorStoreService(embeddingService, repository, new InMemoryVectorIndex());
+        ReflectionTestUtils.setField(exactScan, "searchMode", "stream");
+        List<Set<Long>> truth = new ArrayList<>(QUERIES);
+        for (float[] query : queries) {
+            truth.add(ids(exactScan.searchShardChunks(query, K, true, SearchFilter.none())));
+        }
+
+        System.out.printf("%-10s %9s %8s %9s %9s %9s %11s %9s%n",
+                "index", "recall@" + K, "QPS", "p50 ms", "p99 ms", "load ms", "heap B/vec", "disk B/vec");
+        report("scan", measure(exactScan, queries, truth), 0, 0, 0);
+
+        for (String type : INDEXES.split(",")) {
+            String name = type.trim();
+            VectorIndex index = create(name, tempDir);
+            VectorStoreService service = new VectorStoreService(embeddingService, repository, index);
+
+            long heapBefore = usedHeap();
+            long loadStart = System.nanoTime();
+            service.warmIndex();
+            long loadMs = (System.nanoTime() - loadStart) / 1_000_000;
+            long heapBytes = Math.max(0, usedHeap() - heapBefore);
+            assertEquals(VECTORS, index.size(), name + " did not load every vector");
+
+            double[] result = measure(service, queries, truth);
+            report(name, result, loadMs, (double) heapBytes / VECTORS, (double) diskBytes(tempDir.resolve(name)) / VECTORS);
+
+            // Exhaustive indexes must agree with the scan; approximate ones must stay above the bar
+            boolean exhaustive = name.equals("flat") || name.equals("segmented") || name.equals("mmap");
+            if (exhaustive) {
+                assertEquals(1.0, result[0], 1e-9, name + " is exhaustive but missed exact neighbours");
+            } else {
+                assertTrue(result[0] >= MIN_RECALL, String.format("%s recall@%d %.3f is below %.2f", name, K, result[0], MIN_RECALL));
+            }
+        }
+    }
+
+    /**
+     * Mean recall@k against the scan's top-k, QPS, p50 and p99 in milliseconds, single-threaded.
+     */
+    private static double[] measure(VectorStoreService service, List<float[]> queries, List<Set<Long>> truth) {
+        // Warm-up so the timed queries run JIT-compiled code
+        for (float[] query : queries) {
+            service.searchShardChunks(query, K, false, SearchFilter.none());
+        }
+        double[] millis = new double[queries.size()];
+        double recall = 0;
+        long total = System.nanoTime();
+        for (int q = 0; q < queries.size(); q++) {
+            long start = System.nanoTime();
+            List<VectorHit> hits = service.searchShardChunks(queries.get(q), K, false, SearchFilter.none());
+            millis[q] = (System.nanoTime() - start) / 1e6;
+            Set<Long> found = ids(hits);
+            found.retainAll(truth.get(q));
+            recall += (double) found.size() / Math.max(1, truth.get(q).size());
+        }
+        double seconds = (System.nanoTime() - total) / 1e9;
+        Arrays.sort(millis);
+        return new double[]{recall / queries.size(), queries.size() / seconds, percentile(millis, 0.50), percentile(millis, 0.99)};
+    }
+
+    private static void report(String name, double[] result, long loadMs, double heapPerVector, double diskPerVector) {
+        System.out.printf("%-10s %9.3f %8.0f %9.2f %9.2f %9d %11.0f %9.0f%n",
+                name, result[0], result[1], result[2], result[3], loadMs, heapPerVector, diskPerVector);
+    }
+
+    private static VectorIndex create(String type, Path tempDir) {
+        switch (type) {
+            case "flat":
+                return new InMemoryVectorIndex();
+            case "segmented":
+                return new SegmentedVectorIndex(4096, 0.5);
+            case "int8":
+                return new QuantizedVectorIndex(1000, 200);
+            case "hnsw":
+                return new HnswVectorIndex(16, 200, 64, tempDir.resolve("hnsw.bin"));
+            case "mmap":
+                return new MappedSegmentVectorIndex(tempDir.resolve("mmap"), 4096, 0.5);
+            default:
+                throw new IllegalArgumentException("Unknown index type in benchmark.indexes: " + type);
+        }
+    }
+
+    /**
+     * Rows shaped like {@code streamAllVectors}: id, resume id, binary vector, legacy text,
+     * user id, ATS score, section, created at.
+     */
+    private static Object[][] corpus(EmbeddingService embeddingService) {
+        Object[][] rows = new Object[VECTORS][];
+        Random random = new Random(42);
+        for (int from = 0; from < VECTORS; from += EMBED_BATCH) {
+            int count = Math.min(EMBED_BATCH, VECTORS - from);
+            List<float[]> vectors = embeddingService.generateVectors(texts(random, count));
+            for (int i = 0; i < count; i++) {
+                long id = from + i + 1L;
+                long resumeId = (id - 1) / CHUNKS_PER_RESUME + 1;
+                rows[from + i] = new Object[]{id, resumeId, embeddingService.encodeVector(vectors.get(i)), null,
+                        resumeId % 50, (int) (resumeId % 100), SECTIONS[(int) (id % SECTIONS.length)], null};
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> texts(Random random, int count) {
+        List<String> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder(ROLES[random.nextInt(ROLES.length)]);
+            int sentences = 1 + random.nextInt(3);
+            for (int s = 0; s < sentences; s++) {
+                text.append(". ").append(PHRASES[random.nextInt(PHRASES.length)]);
+                int skills = 2 + random.nextInt(4);
+                for (int k = 0; k < skills; k++) {
+                    text.append(k == 0 ? " " : ", ").append(SKILLS[random.nextInt(SKILLS.length)]);
+                }
+            }
+            texts.add(text.toString());
+        }
+        return texts;
+    }
+
+    /**
+     * The mocked table: full-table streams for loading and scanning, id lookups for re-ranking.
+     */
+    private static ResumeEmbeddingRepository table(Object[][] rows) {
+        ResumeEmbeddingRepository repository = mock(ResumeEmbeddingRepository.class);
+        when(repository.streamAllVectors()).thenAnswer(invocation -> Stream.of(rows));
+        when(repository.findVectorsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<Object[]> found = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Object[] row = rows[(int) (id - 1)];
+                found.add(new Object[]{row[0], row[2], row[3]});
+            }
+            return found;
+        });
+        return repository;
+    }
+
+    private static Set<Long> ids(List<VectorHit> hits) {
+        Set<Long> ids = new HashSet<>();
+        for (VectorHit hit : hits) {
+            ids.add(hit.getEmbeddingId());
+        }
+        return ids;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long diskBytes(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}